@@ -0,0 +1,128 @@
+package JavaFX;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.text.MessageFormat;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Bounded ring buffer of log records drained by one background thread, so callers never wait on the console
+class AsyncLogAppender {
+    private static final int RING_SIZE = 8192;
+    private static final int BATCH_SIZE = 256;
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+
+    private final BlockingQueue<Entry> ring = new ArrayBlockingQueue<>(RING_SIZE);
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+
+    AsyncLogAppender() {
+        writer = new Thread(this::drainLoop, "planner-log");
+        writer.setDaemon(true);
+        writer.start();
+        // Print whatever is still queued when the JVM exits
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "planner-log-flush"));
+    }
+
+    // Never blocks: when the ring is full the record is dropped and counted instead
+    void append(System.Logger.Level level, String logger, String message, Object[] params, Throwable thrown) {
+        Entry record = new Entry(System.currentTimeMillis(), level, logger, Thread.currentThread().getName(),
+                message, params, thrown);
+        if (!ring.offer(record)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private void drainLoop() {
+        List<Entry> batch = new ArrayList<>(BATCH_SIZE);
+        while (true) {
+            try {
+                Entry first = ring.poll(1, TimeUnit.SECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                ring.drainTo(batch, BATCH_SIZE - 1);
+                write(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                // A bad format string or toString() must not kill the writer thread
+                batch.clear();
+            }
+        }
+    }
+
+    private synchronized void flush() {
+        List<Entry> remaining = new ArrayList<>();
+        ring.drainTo(remaining);
+        write(remaining);
+    }
+
+    // One print per stream per batch instead of one per record
+    private synchronized void write(List<Entry> batch) {
+        StringBuilder out = new StringBuilder();
+        StringBuilder err = new StringBuilder();
+        long lost = dropped.getAndSet(0);
+        if (lost > 0) {
+            err.append(LocalDateTime.now().format(TIME_FORMAT))
+                    .append(" WARNING [planner-log] Dropped ").append(lost).append(" log records\n");
+        }
+        for (Entry record : batch) {
+            boolean severe = record.level.getSeverity() >= System.Logger.Level.WARNING.getSeverity();
+            format(record, severe ? err : out);
+        }
+        if (out.length() > 0) {
+            System.out.print(out);
+            System.out.flush();
+        }
+        if (err.length() > 0) {
+            System.err.print(err);
+            System.err.flush();
+        }
+    }
+
+    private static void format(Entry record, StringBuilder builder) {
+        String message = record.message;
+        if (record.params != null && record.params.length > 0) {
+            message = MessageFormat.format(message, record.params);
+        }
+        builder.append(LocalDateTime.ofInstant(Instant.ofEpochMilli(record.millis), ZoneId.systemDefault()).format(TIME_FORMAT))
+                .append(' ').append(record.level.getName())
+                .append(" [").append(record.logger).append("] (").append(record.thread).append(") ")
+                .append(message).append('\n');
+        if (record.thrown != null) {
+            StringWriter trace = new StringWriter();
+            record.thrown.printStackTrace(new PrintWriter(trace));
+            builder.append(trace);
+        }
+    }
+
+    private static class Entry {
+        final long millis;
+        final System.Logger.Level level;
+        final String logger;
+        final String thread;
+        final String message;
+        final Object[] params;
+        final Throwable thrown;
+
+        Entry(long millis, System.Logger.Level level, String logger, String thread, String message,
+              Object[] params, Throwable thrown) {
+            this.millis = millis;
+            this.level = level;
+            this.logger = logger;
+            this.thread = thread;
+            this.message = message;
+            this.params = params;
+            this.thrown = thrown;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package JavaFX;
+
+import javafx.embed.swing.SwingFXUtils;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.effect.GaussianBlur;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+import javax.imageio.ImageIO;
+import java.io.IOException;
+import java.lang.System.Logger.Level;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+// Decodes background images at window size, blurs each one once and keeps the result on disk.
+// The disk cache is capped; the entries used least recently are deleted once it grows past the cap.
+public class BackgroundImageCache {
+    private static final System.Logger LOG = PlannerLog.getLogger(BackgroundImageCache.class);
+    private static final String CACHE_VERSION = "1";
+    private static final long MAX_BYTES = Long.getLong("planner.backgrounds.cacheBytes", 64L << 20);
+
+    private final Path cacheDir;
+    private final int width;
+    private final int height;
+    private final double blurRadius;
+
+    public BackgroundImageCache(Path cacheDir, int width, int height, double blurRadius) {
+        this.cacheDir = cacheDir;
+        this.width = width;
+        this.height = height;
+        this.blurRadius = blurRadius;
+    }
+
+    public BackgroundImageCache(int width, int height, double blurRadius) {
+        this(Paths.get(".planner_cache", "backgrounds"), width, height, blurRadius);
+    }
+
+    // A loaded image and whether it still needs blurring on the FX thread
+    public static class Entry {
+        private final URL source;
+        private final Image image;
+        private final boolean blurred;
+
+        Entry(URL source, Image image, boolean blurred) {
+            this.source = source;
+            this.image = image;
+            this.blurred = blurred;
+        }
+
+        public Image getImage() {
+            return image;
+        }
+
+        public boolean isBlurred() {
+            return blurred;
+        }
+    }
+
+    // Safe to call off the FX thread: returns the cached blurred image or a downscaled decode
+    public Entry load(URL source) {
+        Path cached = cacheFile(source);
+        if (Files.exists(cached)) {
+            Image image = new Image(cached.toUri().toString(), false);
+            if (!image.isError()) {
+                touch(cached);
+                return new Entry(source, image, true);
+            }
+        }
+
+        // Requesting the window height lets the decoder skip most of the full-resolution pixels
+        Image image = new Image(source.toExternalForm(), 0, height, true, true, false);
+        if (image.isError()) {
+            return null;
+        }
+        return new Entry(source, image, false);
+    }
+
+    // Must run on the FX thread: blurs the image once and writes the result to disk in the background
+    public Image finish(Entry entry) {
+        if (entry.blurred) {
+            return entry.image;
+        }
+
+        ImageView view = new ImageView(entry.image);
+        view.setEffect(new GaussianBlur(blurRadius));
+        SnapshotParameters params = new SnapshotParameters();
+        params.setFill(Color.TRANSPARENT);
+        params.setViewport(new Rectangle2D(0, 0, entry.image.getWidth(), entry.image.getHeight()));
+        WritableImage blurred = view.snapshot(params, null);
+
+        CompletableFuture.runAsync(() -> store(entry.source, blurred));
+        return blurred;
+    }
+
+    private void store(URL source, WritableImage image) {
+        Path target = cacheFile(source);
+        try {
+            Files.createDirectories(cacheDir);
+            Path temp = Files.createTempFile(cacheDir, "bg", ".tmp");
+            ImageIO.write(SwingFXUtils.fromFXImage(image, null), "png", temp.toFile());
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            prune();
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Could not cache background image: {0}", e.getMessage());
+        }
+    }
+
+    // An entry's modification time is when it was last used, which is what prune() goes by
+    private static void touch(Path cached) {
+        try {
+            Files.setLastModifiedTime(cached, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException ignored) {
+            // It may be pruned a little early
+        }
+    }
+
+    // Deletes the least recently used entries until the cache fits in MAX_BYTES
+    private void prune() throws IOException {
+        Map<Path, BasicFileAttributes> entries = new HashMap<>();
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (!file.getFileName().toString().endsWith(".png")) continue;
+                try {
+                    entries.put(file, Files.readAttributes(file, BasicFileAttributes.class));
+                } catch (IOException e) {
+                    // Pruned by another store meanwhile
+                }
+            }
+        }
+        List<Path> newestFirst = new ArrayList<>(entries.keySet());
+        newestFirst.sort(Comparator.comparing((Path file) -> entries.get(file).lastModifiedTime()).reversed());
+        long total = 0;
+        for (Path file : newestFirst) {
+            total += entries.get(file).size();
+            if (total > MAX_BYTES) {
+                Files.deleteIfExists(file);
+                LOG.log(Level.DEBUG, "Pruned cached background {0}", file.getFileName());
+            }
+        }
+    }
+
+    // Cache entries are keyed by source, decode size and blur radius, so changing any of them never
+    // gets a stale image. The size is the window's initial size; when the window is resized the
+    // background is scaled to cover it.
+    private Path cacheFile(URL source) {
+        String key = CACHE_VERSION + "|" + source.toExternalForm() + "|" + width + "x" + height + "|" + blurRadius;
+        // Replacing an image on disk changes its size or timestamp, which invalidates the entry
+        key += "|" + version(source);
+        return cacheDir.resolve(UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)) + ".png");
+    }
+
+    // The source's timestamp and size, or an empty string if they can't be read
+    private static String version(URL source) {
+        try {
+            if ("file".equals(source.getProtocol())) {
+                Path file = Paths.get(source.toURI());
+                return Files.getLastModifiedTime(file).toMillis() + "|" + Files.size(file);
+            }
+            // Reading the headers opens the resource; close it rather than leave it to the collector
+            URLConnection connection = source.openConnection();
+            String version = connection.getLastModified() + "|" + connection.getContentLengthLong();
+            connection.getInputStream().close();
+            return version;
+        } catch (IOException | URISyntaxException | IllegalArgumentException e) {
+            return "";
+        }
+    }
+}
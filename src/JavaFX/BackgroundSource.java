@@ -0,0 +1,129 @@
+package JavaFX;
+
+import javafx.scene.image.Image;
+
+import java.io.IOException;
+import java.lang.System.Logger.Level;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+// Cycles through background images while keeping at most the current and the next one decoded
+public class BackgroundSource {
+    private static final System.Logger LOG = PlannerLog.getLogger(BackgroundSource.class);
+    private static final String[] BUNDLED_IMAGES = {
+            "/JavaFX/pexels-eberhardgross-1670187.jpg",
+            "/JavaFX/pexels-katja-79053-592077.jpg",
+            "/JavaFX/pexels-mattdvphotography-3082313.jpg",
+            "/JavaFX/pexels-pixabay-33109.jpg",
+            "/JavaFX/pexels-todd-trapani-488382-2754200.jpg",
+    };
+
+    private final List<URL> sources; // Only locations are kept; pixels are decoded on demand
+    private final BackgroundImageCache cache;
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "background-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private int index = -1;
+    private int pendingIndex = -1;
+    private CompletableFuture<BackgroundImageCache.Entry> pending;
+
+    private BackgroundSource(List<URL> sources, BackgroundImageCache cache) {
+        this.sources = sources;
+        this.cache = cache;
+    }
+
+    // Uses the images in the directory if it has any, otherwise the images bundled with the app
+    public static BackgroundSource create(Path directory, BackgroundImageCache cache) {
+        List<URL> sources = new ArrayList<>();
+        if (Files.isDirectory(directory)) {
+            try (Stream<Path> files = Files.list(directory)) {
+                files.filter(BackgroundSource::isImage).forEach(file -> {
+                    try {
+                        sources.add(file.toUri().toURL());
+                    } catch (MalformedURLException e) {
+                        LOG.log(Level.WARNING, "Skipping background: {0}", file);
+                    }
+                });
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "Could not list backgrounds in " + directory, e);
+            }
+        }
+        if (sources.isEmpty()) {
+            for (String path : BUNDLED_IMAGES) {
+                URL resource = BackgroundSource.class.getResource(path);
+                if (resource == null) {
+                    LOG.log(Level.WARNING, "Skipping missing resource: {0}", path);
+                } else {
+                    sources.add(resource);
+                }
+            }
+        }
+
+        // Shuffle for variety
+        Collections.shuffle(sources);
+        return new BackgroundSource(sources, cache);
+    }
+
+    private static boolean isImage(Path file) {
+        String name = file.getFileName().toString().toLowerCase();
+        return name.endsWith(".jpg") || name.endsWith(".jpeg") || name.endsWith(".png");
+    }
+
+    public int size() {
+        return sources.size();
+    }
+
+    // Worker thread: decodes the first usable image so startup has something to show
+    public BackgroundImageCache.Entry loadFirst() {
+        for (int i = 0; i < sources.size(); i++) {
+            BackgroundImageCache.Entry entry = cache.load(sources.get(i));
+            if (entry != null) {
+                index = i;
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    // FX thread: blurs an entry if it isn't cached yet
+    public Image finish(BackgroundImageCache.Entry entry) {
+        return cache.finish(entry);
+    }
+
+    // Starts decoding the image after the current one without waiting for it
+    public void prefetchNext() {
+        if (pending != null || sources.size() < 2) {
+            return;
+        }
+        pendingIndex = (index + 1) % sources.size();
+        URL next = sources.get(pendingIndex);
+        pending = CompletableFuture.supplyAsync(() -> cache.load(next), loader);
+    }
+
+    // FX thread: returns the prefetched image if it's ready, or null so the caller tries again next cycle
+    public Image takeNext() {
+        if (pending == null || !pending.isDone()) {
+            return null;
+        }
+        BackgroundImageCache.Entry entry = pending.exceptionally(ex -> null).join();
+        pending = null;
+        index = pendingIndex;
+        if (entry == null) {
+            // Skip unreadable files and move on to the one after
+            prefetchNext();
+            return null;
+        }
+        return cache.finish(entry);
+    }
+}
@@ -0,0 +1,443 @@
+package JavaFX;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.System.Logger.Level;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Incremental snapshots of the three data files in a local backup directory:
+//   objects/ab/abcd....gz   gzipped chunks of lines, named by the SHA-256 of their content
+//   snapshots/<id>.txt      one line per file listing its chunks in order
+// The compressed archive of old past events is stored as an extra "archive" entry whose chunks are its
+// block files, copied as they are since they are already gzipped.
+// Files are cut into chunks where a line's hash hits a pattern rather than at fixed offsets, so an
+// insert or delete only changes the chunks around it and every other chunk is shared with earlier
+// snapshots. Data is taken from the service's immutable caches, so a snapshot holds the service lock
+// only long enough to pick up three list references and never delays a save.
+public class BackupService {
+    private static final System.Logger LOG = PlannerLog.getLogger(BackupService.class);
+    public static final String DIRECTORY = "backups";
+    private static final int MAX_SNAPSHOTS = 50;
+    private static final int MIN_CHUNK_LINES = 64;
+    private static final int MAX_CHUNK_LINES = 4096;
+    private static final int CHUNK_MASK = 0xFF; // A cut after roughly one line in 256
+    private static final DateTimeFormatter ID_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+    private static final String EVENTS = "planner.txt";
+    private static final String CLASSES = "classes.txt";
+    private static final String PAST_EVENTS = "past_events.txt";
+    private static final String ARCHIVE = "archive";
+
+    private final PlannerService plannerService;
+    private final Path objectDir;
+    private final Path snapshotDir;
+    private final Set<String> knownObjects = new HashSet<>(); // Loaded lazily from objectDir
+    private boolean objectsListed;
+    private final ChunkedFile events = new ChunkedFile();
+    private final ChunkedFile classes = new ChunkedFile();
+    private final ChunkedFile pastEvents = new ChunkedFile();
+    private List<ColdArchive.Block> archiveBlocks; // Archive blocks as of the last snapshot
+    private final Map<ColdArchive.Block, String> blockHashes = new HashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    public BackupService(PlannerService plannerService, Path directory) {
+        this.plannerService = plannerService;
+        this.objectDir = directory.resolve("objects");
+        this.snapshotDir = directory.resolve("snapshots");
+    }
+
+    // Snapshots every interval on a background thread and before the archive is cleared
+    public void start(Duration interval) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "planner-backup");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                snapshot();
+            } catch (IOException | RuntimeException e) {
+                LOG.log(Level.ERROR, "Scheduled backup failed", e);
+            }
+        }, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+        plannerService.setBeforeClearPastEvents(() -> {
+            try {
+                snapshot();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not back up past events before clearing them", e);
+            }
+        });
+    }
+
+    public void stop() {
+        plannerService.setBeforeClearPastEvents(null);
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    // Stores whatever changed since the last snapshot; returns the new snapshot id, or null if nothing changed
+    public String snapshot() throws IOException {
+        // Picked up before taking this lock: clearPastEvents() calls in here holding the service's lock,
+        // so waiting for the service while holding this one could deadlock
+        return store(plannerService.currentData());
+    }
+
+    private synchronized String store(PlannerService.DataView data) throws IOException {
+        if (events.isFrom(data.getEvents()) && classes.isFrom(data.getClasses())
+                && pastEvents.isFrom(data.getPastEvents()) && archiveBlocks == data.getColdBlocks()) {
+            return null;
+        }
+        try (PlannerMetrics.Timer timer = plannerService.getMetrics().start("backupSnapshot")) {
+            listObjects();
+            List<String> manifest = new ArrayList<>();
+            manifest.add(entry(EVENTS, events.update(data.getEvents(), TimeSlot::toString, timer)));
+            manifest.add(entry(CLASSES, classes.update(data.getClasses(), Function.identity(), timer)));
+            manifest.add(entry(PAST_EVENTS, pastEvents.update(data.getPastEvents(), TimeSlot::toString, timer)));
+            manifest.add(archiveEntry(data));
+
+            String id = LocalDateTime.now().format(ID_FORMAT);
+            Files.createDirectories(snapshotDir);
+            Path temp = snapshotDir.resolve(id + ".tmp");
+            Files.write(temp, manifest);
+            Files.move(temp, snapshotDir.resolve(id + ".txt"), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            LOG.log(Level.DEBUG, "Backup {0}: {1} events, {2} past events", id,
+                    data.getEvents().size(), data.getPastEvents().size());
+            prune();
+            return id;
+        } catch (IOException e) {
+            // Chunk lists may be ahead of what was written; start over next time
+            events.reset();
+            classes.reset();
+            pastEvents.reset();
+            archiveBlocks = null;
+            throw e;
+        }
+    }
+
+    private static String entry(String file, ChunkedFile chunked) {
+        return file + "|" + chunked.lineCount + "|" + String.join(",", chunked.hashes);
+    }
+
+    // Archive blocks never change, so each is hashed once and stored by copying its file
+    private String archiveEntry(PlannerService.DataView data) throws IOException {
+        List<String> hashes = new ArrayList<>();
+        int count = 0;
+        Map<ColdArchive.Block, String> current = new HashMap<>();
+        for (ColdArchive.Block block : data.getColdBlocks()) {
+            String hash = blockHashes.get(block);
+            if (hash == null) {
+                hash = storeCompressed(data.coldBlockPath(block));
+            }
+            current.put(block, hash);
+            hashes.add(hash);
+            count += block.getCount();
+        }
+        blockHashes.clear();
+        blockHashes.putAll(current);
+        archiveBlocks = data.getColdBlocks();
+        return ARCHIVE + "|" + count + "|" + String.join(",", hashes);
+    }
+
+    private String storeCompressed(Path gzipFile) throws IOException {
+        byte[] content;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(gzipFile))) {
+            content = in.readAllBytes();
+        }
+        String hash = sha256(content);
+        if (!knownObjects.contains(hash)) {
+            Path path = objectPath(hash);
+            Files.createDirectories(path.getParent());
+            Path temp = path.resolveSibling(hash + ".tmp");
+            Files.copy(gzipFile, temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            knownObjects.add(hash);
+        }
+        return hash;
+    }
+
+    // Snapshot ids, newest first
+    public List<String> listSnapshots() throws IOException {
+        List<String> ids = new ArrayList<>();
+        if (!Files.isDirectory(snapshotDir)) return ids;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(snapshotDir, "*.txt")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                ids.add(name.substring(0, name.length() - 4));
+            }
+        }
+        ids.sort(Collections.reverseOrder());
+        return ids;
+    }
+
+    // When the snapshot was taken, parsed back from its id
+    public static LocalDateTime timeOf(String id) {
+        return LocalDateTime.parse(id, ID_FORMAT);
+    }
+
+    // How many events a snapshot holds, read from its manifest without touching any chunk
+    public int eventCount(String id) throws IOException {
+        int count = 0;
+        for (String line : Files.readAllLines(snapshotDir.resolve(id + ".txt"))) {
+            String[] parts = line.split("\\|", -1);
+            if (parts[0].equals(EVENTS) || parts[0].equals(PAST_EVENTS) || parts[0].equals(ARCHIVE)) {
+                count += Integer.parseInt(parts[1]);
+            }
+        }
+        return count;
+    }
+
+    // The lines of one file as it was in the snapshot
+    public List<String> readFile(String id, String file) throws IOException {
+        List<String> lines = readEntry(id, file);
+        if (lines == null) {
+            throw new IOException("Snapshot " + id + " has no " + file);
+        }
+        return lines;
+    }
+
+    // Null if the snapshot has no such entry, as for the archive in snapshots taken before it existed
+    private List<String> readEntry(String id, String file) throws IOException {
+        for (String line : Files.readAllLines(snapshotDir.resolve(id + ".txt"))) {
+            String[] parts = line.split("\\|", -1);
+            if (!parts[0].equals(file)) continue;
+            List<String> lines = new ArrayList<>(Integer.parseInt(parts[1]));
+            if (!parts[2].isEmpty()) {
+                for (String hash : parts[2].split(",")) {
+                    readChunk(hash, lines);
+                }
+            }
+            return lines;
+        }
+        return null;
+    }
+
+    // Puts the planner back to the snapshot. The current state is backed up first, so a restore can itself be undone.
+    public void restore(String id) throws IOException {
+        List<String> restoredClasses;
+        List<TimeSlot> restoredEvents;
+        List<TimeSlot> restoredPast;
+        synchronized (this) { // So prune() can't delete chunks halfway through
+            restoredClasses = readFile(id, CLASSES);
+            restoredEvents = parse(readFile(id, EVENTS));
+            restoredPast = parse(readFile(id, PAST_EVENTS));
+            List<String> archived = readEntry(id, ARCHIVE);
+            if (archived != null) {
+                restoredPast.addAll(0, parse(archived));
+            }
+        }
+        snapshot();
+        plannerService.replaceData(restoredClasses, restoredEvents, restoredPast);
+        LOG.log(Level.INFO, "Restored backup {0}", id);
+    }
+
+    private static List<TimeSlot> parse(List<String> lines) {
+        List<TimeSlot> events = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            if (line.trim().isEmpty()) continue;
+            try {
+                events.add(TimeSlot.fromString(line));
+            } catch (Exception e) {
+                LOG.log(Level.WARNING, () -> "Skipping unreadable line in backup: " + line);
+            }
+        }
+        return events;
+    }
+
+    private void listObjects() throws IOException {
+        if (objectsListed) return;
+        if (Files.isDirectory(objectDir)) {
+            try (DirectoryStream<Path> prefixes = Files.newDirectoryStream(objectDir)) {
+                for (Path prefix : prefixes) {
+                    try (DirectoryStream<Path> objects = Files.newDirectoryStream(prefix, "*.gz")) {
+                        for (Path object : objects) {
+                            String name = object.getFileName().toString();
+                            knownObjects.add(name.substring(0, name.length() - 3));
+                        }
+                    }
+                }
+            }
+        }
+        objectsListed = true;
+    }
+
+    private Path objectPath(String hash) {
+        return objectDir.resolve(hash.substring(0, 2)).resolve(hash + ".gz");
+    }
+
+    // Writes the chunk unless an identical one is already stored; returns its hash
+    private String storeChunk(byte[] content) throws IOException {
+        String hash = sha256(content);
+        if (knownObjects.contains(hash)) {
+            return hash;
+        }
+        Path path = objectPath(hash);
+        Files.createDirectories(path.getParent());
+        Path temp = path.resolveSibling(hash + ".tmp");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp))) {
+            out.write(content);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        knownObjects.add(hash);
+        return hash;
+    }
+
+    private void readChunk(String hash, List<String> lines) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(objectPath(hash)));
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // Keeps the newest MAX_SNAPSHOTS manifests and deletes chunks none of them refer to
+    private void prune() throws IOException {
+        List<String> ids = listSnapshots();
+        if (ids.size() <= MAX_SNAPSHOTS) return;
+        for (String id : ids.subList(MAX_SNAPSHOTS, ids.size())) {
+            Files.deleteIfExists(snapshotDir.resolve(id + ".txt"));
+        }
+        Set<String> referenced = new HashSet<>();
+        for (String id : ids.subList(0, MAX_SNAPSHOTS)) {
+            for (String line : Files.readAllLines(snapshotDir.resolve(id + ".txt"))) {
+                String[] parts = line.split("\\|", -1);
+                if (parts.length == 3 && !parts[2].isEmpty()) {
+                    Collections.addAll(referenced, parts[2].split(","));
+                }
+            }
+        }
+        // Chunks held for the next snapshot must survive too
+        referenced.addAll(events.hashes);
+        referenced.addAll(classes.hashes);
+        referenced.addAll(pastEvents.hashes);
+        referenced.addAll(blockHashes.values());
+        for (String hash : new ArrayList<>(knownObjects)) {
+            if (!referenced.contains(hash)) {
+                Files.deleteIfExists(objectPath(hash));
+                knownObjects.remove(hash);
+            }
+        }
+    }
+
+    // The chunks of one file as of the last snapshot, with the list they were cut from. The caches are
+    // never modified in place, so the part of a new list whose elements are the same objects as before
+    // is known to be unchanged and its chunks are reused without being serialized or hashed again.
+    private class ChunkedFile {
+        private List<?> source;
+        private final List<String> hashes = new ArrayList<>();
+        private final List<Integer> starts = new ArrayList<>(); // First line of each chunk
+        private int lineCount;
+        private boolean openTail; // The last chunk was cut by the end of the list, not by its content
+
+        boolean isFrom(List<?> list) {
+            return source == list;
+        }
+
+        void reset() {
+            source = null;
+            hashes.clear();
+            starts.clear();
+            lineCount = 0;
+            openTail = false;
+        }
+
+        <T> ChunkedFile update(List<T> list, Function<T, String> toLine, PlannerMetrics.Timer timer) throws IOException {
+            if (list == source) return this;
+            int same = 0;
+            if (source != null) {
+                int limit = Math.min(source.size(), list.size());
+                while (same < limit && source.get(same) == list.get(same)) {
+                    same++;
+                }
+            }
+            // Chunks ending inside the unchanged prefix stay; chunking restarts at the first one that doesn't.
+            // An open tail is always redone so that appends grow it instead of leaving a trail of tiny chunks.
+            int reusable = openTail ? starts.size() - 1 : starts.size();
+            int keep = 0;
+            while (keep < reusable && chunkEnd(keep) <= same) {
+                keep++;
+            }
+            int from = keep < starts.size() ? starts.get(keep) : lineCount;
+            hashes.subList(keep, hashes.size()).clear();
+            starts.subList(keep, starts.size()).clear();
+
+            ByteArrayOutputStream chunk = new ByteArrayOutputStream();
+            int chunkStart = from;
+            int chunkLines = 0;
+            for (int i = from; i < list.size(); i++) {
+                String line = toLine.apply(list.get(i));
+                byte[] bytes = (line + "\n").getBytes(StandardCharsets.UTF_8);
+                chunk.write(bytes, 0, bytes.length);
+                timer.wrote(line);
+                chunkLines++;
+                if (chunkLines >= MAX_CHUNK_LINES
+                        || (chunkLines >= MIN_CHUNK_LINES && (mix(line.hashCode()) & CHUNK_MASK) == 0)) {
+                    starts.add(chunkStart);
+                    hashes.add(storeChunk(chunk.toByteArray()));
+                    chunk.reset();
+                    chunkStart = i + 1;
+                    chunkLines = 0;
+                }
+            }
+            openTail = chunkLines > 0;
+            if (openTail) {
+                starts.add(chunkStart);
+                hashes.add(storeChunk(chunk.toByteArray()));
+            }
+            source = list;
+            lineCount = list.size();
+            return this;
+        }
+
+        private int chunkEnd(int chunk) {
+            return chunk + 1 < starts.size() ? starts.get(chunk + 1) : lineCount;
+        }
+    }
+
+    // Spreads String.hashCode so its low bits are usable for picking cut points
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        return hash;
+    }
+}
@@ -0,0 +1,493 @@
+package JavaFX;
+
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.geometry.Orientation;
+import javafx.geometry.Pos;
+import javafx.geometry.VPos;
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.input.MouseButton;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.TextAlignment;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+// Day, week and month calendar painted on a single Canvas. Only the rows inside the viewport are
+// queried from the service and drawn, so scrolling cost doesn't depend on how many years of data exist.
+public class CalendarView {
+    public enum Mode { DAY, WEEK, MONTH }
+
+    private static final double HEADER_HEIGHT = 24;
+    private static final double WEEK_ROW_HEIGHT = 96;
+    private static final double HOUR_HEIGHT = 48;
+    private static final double TIME_GUTTER = 44;
+    private static final double LINE_HEIGHT = 15;
+    private static final double CHIP_HEIGHT = 22; // Events only have a start time, so each gets a fixed-height chip
+    private static final long MONTH_SCROLL_WEEKS = 52L * 50; // Month mode scrolls 50 years either side of today
+    private static final Font CHIP_FONT = Font.font("System", 11);
+    private static final Font HEADER_FONT = Font.font("System", FontWeight.BOLD, 12);
+    private static final Color TEXT = Color.WHITE;
+    private static final Color GRID = Color.rgb(255, 255, 255, 0.25);
+    private static final Color TODAY = Color.rgb(255, 255, 255, 0.18);
+    private static final Color ALTERNATE_MONTH = Color.rgb(0, 0, 0, 0.12);
+    private static final DateTimeFormatter MONTH_TITLE = DateTimeFormatter.ofPattern("MMMM yyyy");
+    private static final DateTimeFormatter DAY_TITLE = DateTimeFormatter.ofPattern("EEE, MMM d, yyyy");
+    private static final DateTimeFormatter SHORT_DAY = DateTimeFormatter.ofPattern("MMM d");
+    private static final DateTimeFormatter COLUMN_DAY = DateTimeFormatter.ofPattern("EEE d");
+
+    private final PlannerService plannerService;
+    private final BorderPane layout = new BorderPane();
+    private final Pane viewport = new Pane();
+    private final Canvas canvas = new Canvas();
+    private final ScrollBar scrollBar = new ScrollBar();
+    private final Label rangeLabel = new Label();
+    private final Map<Mode, Button> modeButtons = new HashMap<>();
+    private final Map<String, Color> classColors = new HashMap<>();
+    private final List<Hit> hits = new ArrayList<>(); // What was drawn where in the last frame, for clicks
+    private Consumer<TimeSlot> onEventSelected = event -> { };
+    private Mode mode = Mode.MONTH;
+    private LocalDate monthAnchor; // Monday of the week at scroll position 0 in month mode
+    private LocalDate firstDay;    // First day shown in day and week mode
+    private boolean redrawQueued;
+
+    public CalendarView(PlannerService plannerService) {
+        this.plannerService = plannerService;
+
+        Button previousBtn = new Button("<");
+        previousBtn.setOnAction(e -> previous());
+        Button todayBtn = new Button("Today");
+        todayBtn.setOnAction(e -> today());
+        Button nextBtn = new Button(">");
+        nextBtn.setOnAction(e -> next());
+
+        rangeLabel.getStyleClass().add("dialog-label");
+        rangeLabel.setStyle("-fx-font-size: 16px;");
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+
+        HBox toolbar = new HBox(8, previousBtn, todayBtn, nextBtn, rangeLabel, spacer);
+        for (Mode m : Mode.values()) {
+            String name = m.name().charAt(0) + m.name().substring(1).toLowerCase();
+            Button modeBtn = new Button(name);
+            modeBtn.setOnAction(e -> setMode(m));
+            modeButtons.put(m, modeBtn);
+            toolbar.getChildren().add(modeBtn);
+        }
+        toolbar.setAlignment(Pos.CENTER_LEFT);
+        toolbar.setPadding(new Insets(0, 0, 10, 0));
+
+        // The canvas always matches the viewport, so its cost is bounded by the window, not by the data
+        viewport.setMinSize(0, 0);
+        viewport.setPrefSize(560, 480);
+        viewport.getChildren().add(canvas);
+        canvas.widthProperty().bind(viewport.widthProperty());
+        canvas.heightProperty().bind(viewport.heightProperty());
+        canvas.widthProperty().addListener((obs, oldValue, newValue) -> requestRedraw());
+        canvas.heightProperty().addListener((obs, oldValue, newValue) -> {
+            updateScrollRange();
+            requestRedraw();
+        });
+
+        scrollBar.setOrientation(Orientation.VERTICAL);
+        scrollBar.valueProperty().addListener((obs, oldValue, newValue) -> requestRedraw());
+        viewport.setOnScroll(e -> scrollBy(-e.getDeltaY()));
+        canvas.setOnMouseClicked(e -> {
+            if (e.getButton() == MouseButton.PRIMARY) {
+                handleClick(e.getX(), e.getY(), e.getClickCount());
+            }
+        });
+
+        layout.setTop(toolbar);
+        layout.setCenter(viewport);
+        layout.setRight(scrollBar);
+
+        modeButtons.get(mode).setDisable(true);
+        today();
+    }
+
+    public Node getNode() {
+        return layout;
+    }
+
+    public void setOnEventSelected(Consumer<TimeSlot> onEventSelected) {
+        this.onEventSelected = onEventSelected;
+    }
+
+    // Re-queries the visible range, e.g. after the service reports a change
+    public void refresh() {
+        requestRedraw();
+    }
+
+    public void setMode(Mode newMode) {
+        switchMode(newMode, focusedDay());
+    }
+
+    private void switchMode(Mode newMode, LocalDate day) {
+        boolean fromMonth = mode == Mode.MONTH;
+        mode = newMode;
+        modeButtons.forEach((m, button) -> button.setDisable(m == newMode));
+        showDay(day);
+        if (fromMonth && newMode != Mode.MONTH) {
+            // Start the working day in view
+            scrollBar.setValue(clamp(8 * HOUR_HEIGHT));
+        }
+    }
+
+    public void today() {
+        monthAnchor = LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        showDay(LocalDate.now());
+    }
+
+    public void previous() {
+        page(-1);
+    }
+
+    public void next() {
+        page(1);
+    }
+
+    private void page(int direction) {
+        switch (mode) {
+            case DAY:
+                showDay(firstDay.plusDays(direction));
+                break;
+            case WEEK:
+                showDay(firstDay.plusWeeks(direction));
+                break;
+            default:
+                showDay(focusedDay().plusMonths(direction).withDayOfMonth(1));
+                break;
+        }
+    }
+
+    // Positions the current mode so the given day is in view
+    private void showDay(LocalDate day) {
+        if (mode == Mode.MONTH) {
+            firstDay = day;
+            updateScrollRange();
+            long week = ChronoUnit.WEEKS.between(monthAnchor, day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)));
+            scrollBar.setValue(clamp(week * WEEK_ROW_HEIGHT));
+        } else {
+            // Paging between days or weeks keeps the hour the user scrolled to
+            firstDay = mode == Mode.WEEK ? day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)) : day;
+            updateScrollRange();
+            scrollBar.setValue(clamp(scrollBar.getValue()));
+        }
+        requestRedraw();
+    }
+
+    // The day the user is looking at: the first day in day/week mode, the middle of the viewport in month mode
+    private LocalDate focusedDay() {
+        if (mode != Mode.MONTH || firstDay == null || monthAnchor == null) {
+            return firstDay != null ? firstDay : LocalDate.now();
+        }
+        double middle = scrollBar.getValue() + Math.max(0, canvas.getHeight() - HEADER_HEIGHT) / 2;
+        return monthAnchor.plusDays((long) Math.floor(middle / WEEK_ROW_HEIGHT * 7));
+    }
+
+    private void updateScrollRange() {
+        double visible = Math.max(1, canvas.getHeight() - HEADER_HEIGHT);
+        if (mode == Mode.MONTH) {
+            scrollBar.setMin(-MONTH_SCROLL_WEEKS * WEEK_ROW_HEIGHT);
+            scrollBar.setMax(MONTH_SCROLL_WEEKS * WEEK_ROW_HEIGHT);
+            scrollBar.setUnitIncrement(WEEK_ROW_HEIGHT / 4);
+            scrollBar.setBlockIncrement(WEEK_ROW_HEIGHT * 4);
+            scrollBar.setVisibleAmount(visible);
+        } else {
+            scrollBar.setMin(0);
+            scrollBar.setMax(Math.max(0, 24 * HOUR_HEIGHT - visible));
+            scrollBar.setUnitIncrement(HOUR_HEIGHT / 4);
+            scrollBar.setBlockIncrement(HOUR_HEIGHT * 4);
+            scrollBar.setVisibleAmount(Math.min(visible, 24 * HOUR_HEIGHT));
+        }
+    }
+
+    private void scrollBy(double pixels) {
+        scrollBar.setValue(clamp(scrollBar.getValue() + pixels));
+    }
+
+    private double clamp(double value) {
+        return Math.max(scrollBar.getMin(), Math.min(scrollBar.getMax(), value));
+    }
+
+    // Scroll events can arrive several times per pulse; draw at most once per pulse
+    private void requestRedraw() {
+        if (!redrawQueued) {
+            redrawQueued = true;
+            Platform.runLater(() -> {
+                redrawQueued = false;
+                draw();
+            });
+        }
+    }
+
+    private void draw() {
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        double width = canvas.getWidth();
+        double height = canvas.getHeight();
+        gc.clearRect(0, 0, width, height);
+        hits.clear();
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        gc.setTextBaseline(VPos.CENTER);
+        if (mode == Mode.MONTH) {
+            drawMonth(gc, width, height);
+        } else {
+            drawDays(gc, width, height, mode == Mode.DAY ? 1 : 7);
+        }
+    }
+
+    private void drawMonth(GraphicsContext gc, double width, double height) {
+        double columnWidth = width / 7;
+        double value = scrollBar.getValue();
+        long firstRow = (long) Math.floor(value / WEEK_ROW_HEIGHT);
+        double top = HEADER_HEIGHT - (value - firstRow * WEEK_ROW_HEIGHT);
+        int rows = (int) Math.ceil((height - HEADER_HEIGHT) / WEEK_ROW_HEIGHT) + 1;
+        LocalDate start = monthAnchor.plusWeeks(firstRow);
+        LocalDate today = LocalDate.now();
+        int maxLines = (int) ((WEEK_ROW_HEIGHT - 20) / LINE_HEIGHT);
+
+        // Events come in time order, so one pass takes each day's as the days are painted in order
+        Groups events = new Groups(plannerService.eventsBetween(start.atStartOfDay(), start.plusWeeks(rows).atStartOfDay()));
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < 7; column++) {
+                LocalDate day = start.plusDays(row * 7L + column);
+                double x = column * columnWidth;
+                double y = top + row * WEEK_ROW_HEIGHT;
+                events.take(event -> event.getDateTime().toLocalDate(), day, maxLines);
+
+                if (day.equals(today)) {
+                    gc.setFill(TODAY);
+                    gc.fillRect(x, y, columnWidth, WEEK_ROW_HEIGHT);
+                } else if (day.getMonthValue() % 2 == 0) {
+                    gc.setFill(ALTERNATE_MONTH);
+                    gc.fillRect(x, y, columnWidth, WEEK_ROW_HEIGHT);
+                }
+                gc.setStroke(GRID);
+                gc.strokeRect(x, y, columnWidth, WEEK_ROW_HEIGHT);
+                hits.add(new Hit(x, y, columnWidth, WEEK_ROW_HEIGHT, null, day));
+
+                gc.setFont(HEADER_FONT);
+                gc.setFill(TEXT);
+                gc.setTextAlign(TextAlignment.LEFT);
+                String dayLabel = day.getDayOfMonth() == 1 ? day.format(SHORT_DAY) : String.valueOf(day.getDayOfMonth());
+                gc.fillText(dayLabel, x + 4, y + 9);
+
+                int count = events.count;
+                int shown = count > maxLines ? maxLines - 1 : count;
+                gc.setFont(CHIP_FONT);
+                for (int i = 0; i < shown; i++) {
+                    TimeSlot event = events.first.get(i);
+                    double lineY = y + 18 + i * LINE_HEIGHT;
+                    drawChip(gc, event, x + 2, lineY, columnWidth - 4, LINE_HEIGHT - 2,
+                            event.getTimeFormatted() + " " + event.getEventName());
+                }
+                if (count > shown) {
+                    gc.setFill(TEXT);
+                    gc.fillText("+" + (count - shown) + " more", x + 4, y + 18 + shown * LINE_HEIGHT + LINE_HEIGHT / 2);
+                }
+            }
+        }
+
+        // Header last, so rows scrolled up underneath it are hidden
+        gc.clearRect(0, 0, width, HEADER_HEIGHT);
+        gc.setFont(HEADER_FONT);
+        gc.setFill(TEXT);
+        gc.setTextAlign(TextAlignment.CENTER);
+        for (int column = 0; column < 7; column++) {
+            String name = DayOfWeek.MONDAY.plus(column).name();
+            gc.fillText(name.charAt(0) + name.substring(1, 3).toLowerCase(), column * columnWidth + columnWidth / 2, HEADER_HEIGHT / 2);
+        }
+        rangeLabel.setText(focusedDay().format(MONTH_TITLE));
+    }
+
+    private void drawDays(GraphicsContext gc, double width, double height, int days) {
+        double columnWidth = (width - TIME_GUTTER) / days;
+        double value = scrollBar.getValue();
+        LocalDate today = LocalDate.now();
+
+        // Hour grid, only for the hours in view
+        int firstHour = Math.max(0, (int) Math.floor(value / HOUR_HEIGHT));
+        int lastHour = Math.min(23, (int) Math.ceil((value + height - HEADER_HEIGHT) / HOUR_HEIGHT));
+        for (int d = 0; d < days; d++) {
+            if (firstDay.plusDays(d).equals(today)) {
+                gc.setFill(TODAY);
+                gc.fillRect(TIME_GUTTER + d * columnWidth, HEADER_HEIGHT, columnWidth, height - HEADER_HEIGHT);
+            }
+        }
+        gc.setStroke(GRID);
+        gc.setFont(CHIP_FONT);
+        gc.setFill(TEXT);
+        gc.setTextAlign(TextAlignment.RIGHT);
+        for (int hour = firstHour; hour <= lastHour; hour++) {
+            double y = HEADER_HEIGHT + hour * HOUR_HEIGHT - value;
+            gc.strokeLine(TIME_GUTTER, y, width, y);
+            gc.fillText(String.format("%02d:00", hour), TIME_GUTTER - 4, y + 7);
+        }
+        for (int d = 0; d <= days; d++) {
+            double x = TIME_GUTTER + d * columnWidth;
+            gc.strokeLine(x, HEADER_HEIGHT, x, height);
+        }
+
+        // Events sharing an hour split the column; past a few per hour the rest collapse into a "+n" chip
+        int perHour = Math.max(1, (int) (columnWidth / 40));
+        Groups events = new Groups(plannerService.eventsBetween(firstDay.atStartOfDay(), firstDay.plusDays(days).atStartOfDay()));
+        while (events.next != null) {
+            LocalDateTime slot = events.next.getDateTime().truncatedTo(ChronoUnit.HOURS);
+            events.take(event -> event.getDateTime().truncatedTo(ChronoUnit.HOURS), slot, perHour);
+            double slotTop = HEADER_HEIGHT + slot.getHour() * HOUR_HEIGHT - value;
+            if (slotTop + HOUR_HEIGHT + CHIP_HEIGHT < HEADER_HEIGHT || slotTop > height) {
+                continue;
+            }
+            int count = events.count;
+            int shown = count > perHour ? perHour - 1 : count;
+            int lanes = count > perHour ? perHour : count;
+            double laneWidth = columnWidth / lanes;
+            double x = TIME_GUTTER + ChronoUnit.DAYS.between(firstDay, slot.toLocalDate()) * columnWidth;
+            for (int i = 0; i < shown; i++) {
+                TimeSlot event = events.first.get(i);
+                double y = slotTop + event.getDateTime().getMinute() / 60.0 * HOUR_HEIGHT;
+                drawChip(gc, event, x + i * laneWidth + 1, y + 1, laneWidth - 2, CHIP_HEIGHT - 2, event.getEventName());
+            }
+            if (count > shown) {
+                gc.setFill(Color.rgb(255, 255, 255, 0.3));
+                gc.fillRoundRect(x + shown * laneWidth + 1, slotTop + 1, laneWidth - 2, CHIP_HEIGHT - 2, 6, 6);
+                gc.setFill(TEXT);
+                gc.setTextAlign(TextAlignment.LEFT);
+                gc.fillText("+" + (count - shown), x + shown * laneWidth + 4, slotTop + CHIP_HEIGHT / 2);
+                hits.add(new Hit(x + shown * laneWidth, slotTop, laneWidth, CHIP_HEIGHT, null, slot.toLocalDate()));
+            }
+        }
+
+        gc.clearRect(0, 0, width, HEADER_HEIGHT);
+        gc.setFont(HEADER_FONT);
+        gc.setFill(TEXT);
+        gc.setTextAlign(TextAlignment.CENTER);
+        for (int d = 0; d < days; d++) {
+            LocalDate day = firstDay.plusDays(d);
+            gc.fillText(day.format(COLUMN_DAY), TIME_GUTTER + d * columnWidth + columnWidth / 2, HEADER_HEIGHT / 2);
+        }
+        if (days == 1) {
+            rangeLabel.setText(firstDay.format(DAY_TITLE));
+        } else {
+            LocalDate lastDay = firstDay.plusDays(days - 1);
+            rangeLabel.setText(firstDay.format(SHORT_DAY) + " - " + lastDay.format(SHORT_DAY) + ", " + lastDay.getYear());
+        }
+    }
+
+    private void drawChip(GraphicsContext gc, TimeSlot event, double x, double y, double width, double height, String text) {
+        if (width <= 0 || y + height < HEADER_HEIGHT || y > canvas.getHeight()) {
+            return;
+        }
+        gc.setFill(colorFor(event.getClassName()));
+        gc.fillRoundRect(x, y, width, height, 6, 6);
+        gc.setFill(TEXT);
+        gc.setTextAlign(TextAlignment.LEFT);
+        gc.fillText(fit(text, width - 6), x + 3, y + height / 2);
+        hits.add(new Hit(x, y, width, height, event, event.getDateTime().toLocalDate()));
+    }
+
+    // Cuts text to roughly what fits, instead of measuring every string on every frame
+    private static String fit(String text, double width) {
+        int chars = (int) (width / 6);
+        if (chars <= 3) return "";
+        return text.length() <= chars ? text : text.substring(0, chars - 3) + "...";
+    }
+
+    private Color colorFor(String className) {
+        return classColors.computeIfAbsent(className,
+                name -> Color.hsb(Math.floorMod(name.hashCode(), 360), 0.55, 0.75, 0.85));
+    }
+
+    // Later hits were drawn on top, so search from the end
+    private void handleClick(double x, double y, int clickCount) {
+        for (int i = hits.size() - 1; i >= 0; i--) {
+            Hit hit = hits.get(i);
+            if (!hit.contains(x, y)) continue;
+            if (hit.event != null) {
+                onEventSelected.accept(hit.event);
+            } else if (clickCount == 2 || mode != Mode.MONTH) {
+                // Double-clicking a month cell, or clicking a "+n" chip, opens that day
+                switchMode(Mode.DAY, hit.day);
+            }
+            return;
+        }
+    }
+
+    // Events in time order taken one run at a time (a day, an hour), keeping only the first few of
+    // each run; the rest are just counted for the "+n" chips, so a busy day is never held whole
+    private static final class Groups {
+        private final Iterator<TimeSlot> events;
+        private TimeSlot next; // The first event not yet taken, or null at the end
+        private final List<TimeSlot> first = new ArrayList<>();
+        private int count;
+
+        Groups(Stream<TimeSlot> events) {
+            this.events = events.iterator();
+            advance();
+        }
+
+        private void advance() {
+            next = events.hasNext() ? events.next() : null;
+        }
+
+        // Takes the run of events whose key is the given value
+        void take(Function<TimeSlot, ?> key, Object value, int keep) {
+            first.clear();
+            count = 0;
+            while (next != null && key.apply(next).equals(value)) {
+                if (first.size() < keep) first.add(next);
+                count++;
+                advance();
+            }
+        }
+    }
+
+    private static class Hit {
+        final double x;
+        final double y;
+        final double width;
+        final double height;
+        final TimeSlot event;
+        final LocalDate day;
+
+        Hit(double x, double y, double width, double height, TimeSlot event, LocalDate day) {
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+            this.event = event;
+            this.day = day;
+        }
+
+        boolean contains(double px, double py) {
+            return px >= x && px < x + width && py >= y && py < y + height && py >= HEADER_HEIGHT;
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package JavaFX;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.lang.System.Logger.Level;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Archived events old enough that they are rarely looked at, kept as gzipped blocks of BLOCK_EVENTS
+// events sorted by time. index.txt lists each block with its first and last event time, one line per
+// block, so a date range only decompresses the blocks that overlap it. Blocks are never modified:
+// a change writes a replacement block and swaps it in the index.
+class ColdArchive {
+    private static final System.Logger LOG = PlannerLog.getLogger(ColdArchive.class);
+    private static final int BLOCK_EVENTS = 2048;
+    private static final int CACHED_BLOCKS = 8;
+    private static final String INDEX_FILE = "index.txt";
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final Path directory;
+    private volatile List<Block> blocks; // Immutable, in time order of their first event; null until the index is read
+    private long nextBlock;
+    // Recently decompressed blocks, for paging back and forth through old history
+    private final Map<Block, List<TimeSlot>> decoded = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Block, List<TimeSlot>> eldest) {
+            return size() > CACHED_BLOCKS;
+        }
+    };
+
+    ColdArchive(Path directory) {
+        this.directory = directory;
+    }
+
+    // One compressed block; the list of them is replaced, never changed, so it can be handed out as is
+    static final class Block {
+        private final String fileName;
+        private final int count;
+        private final LocalDateTime first;
+        private final LocalDateTime last;
+
+        Block(String fileName, int count, LocalDateTime first, LocalDateTime last) {
+            this.fileName = fileName;
+            this.count = count;
+            this.first = first;
+            this.last = last;
+        }
+
+        String getFileName() {
+            return fileName;
+        }
+
+        int getCount() {
+            return count;
+        }
+
+        LocalDateTime getFirst() {
+            return first;
+        }
+
+        LocalDateTime getLast() {
+            return last;
+        }
+
+        boolean overlaps(LocalDateTime from, LocalDateTime to) {
+            return first.isBefore(to) && !last.isBefore(from);
+        }
+    }
+
+    List<Block> blocks() {
+        List<Block> current = blocks;
+        return current != null ? current : loadIndex();
+    }
+
+    Path blockPath(Block block) {
+        return directory.resolve(block.fileName);
+    }
+
+    int size() {
+        int size = 0;
+        for (Block block : blocks()) {
+            size += block.count;
+        }
+        return size;
+    }
+
+    private synchronized List<Block> loadIndex() {
+        if (blocks != null) return blocks;
+        List<Block> loaded = new ArrayList<>();
+        try {
+            for (String line : Files.readAllLines(directory.resolve(INDEX_FILE))) {
+                String[] parts = line.split("\\|", -1);
+                if (parts.length != 4) continue;
+                loaded.add(new Block(parts[0], Integer.parseInt(parts[1]),
+                        LocalDateTime.parse(parts[2], TIME_FORMAT), LocalDateTime.parse(parts[3], TIME_FORMAT)));
+                nextBlock = Math.max(nextBlock, blockNumber(parts[0]) + 1);
+            }
+        } catch (NoSuchFileException e) {
+            // Nothing compacted yet
+        } catch (IOException e) {
+            LOG.log(Level.ERROR, "Could not read the archive index in " + directory, e);
+        }
+        loaded.sort(Comparator.comparing(Block::getFirst));
+        blocks = Collections.unmodifiableList(loaded);
+        return blocks;
+    }
+
+    private static long blockNumber(String fileName) {
+        try {
+            return Long.parseLong(fileName.substring("block-".length(), fileName.length() - ".gz".length()));
+        } catch (RuntimeException e) {
+            return 0;
+        }
+    }
+
+    // Decompresses one block, or returns it from the small cache of recent ones
+    List<TimeSlot> read(Block block) {
+        synchronized (decoded) {
+            List<TimeSlot> events = decoded.get(block);
+            if (events != null) return events;
+        }
+        List<TimeSlot> events = Collections.unmodifiableList(decode(block));
+        synchronized (decoded) {
+            decoded.put(block, events);
+        }
+        return events;
+    }
+
+    // One block decompressed without going through the cache, for a single pass over it
+    List<TimeSlot> readOnce(Block block) {
+        return decode(block);
+    }
+
+    private List<TimeSlot> decode(Block block) {
+        List<TimeSlot> events = new ArrayList<>(block.count);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(blockPath(block))), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) continue;
+                try {
+                    events.add(TimeSlot.fromString(line));
+                } catch (Exception e) {
+                    String bad = line;
+                    LOG.log(Level.WARNING, () -> "Failed to parse archived event: " + bad);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read archive block " + block.fileName, e);
+        }
+        return events;
+    }
+
+    void trimMemory() {
+        synchronized (decoded) {
+            decoded.clear();
+        }
+    }
+
+    // Events with from <= time < to, in time order, decompressing only the blocks that overlap
+    List<TimeSlot> between(LocalDateTime from, LocalDateTime to) {
+        List<TimeSlot> result = new ArrayList<>();
+        for (Block block : blocks()) {
+            if (!block.overlaps(from, to)) continue;
+            for (TimeSlot event : read(block)) {
+                if (!event.getDateTime().isBefore(from) && event.getDateTime().isBefore(to)) {
+                    result.add(event);
+                }
+            }
+        }
+        result.sort(Comparator.comparing(TimeSlot::getDateTime));
+        return result;
+    }
+
+    // Streams every block once without filling the cache, for whole-history scans
+    void forEach(Consumer<TimeSlot> consumer) {
+        for (Block block : blocks()) {
+            decode(block).forEach(consumer);
+        }
+    }
+
+    Stream<TimeSlot> parallelStream() {
+        return blocks().parallelStream().flatMap(block -> decode(block).stream());
+    }
+
+    // The given blocks decompressed in parallel. A few go through the cache, as a filter typed a letter
+    // at a time reads them again and again; more bypass it so they don't push out the pages being browsed.
+    Stream<TimeSlot> parallelStream(List<Block> selected) {
+        if (fitsCache(selected)) {
+            return selected.parallelStream().flatMap(block -> read(block).stream());
+        }
+        return selected.parallelStream().flatMap(block -> decode(block).stream());
+    }
+
+    // Whether reading these blocks through the cache keeps them all there; a calendar page or a narrow
+    // filter fits and is read again on every repaint, a scan of years of history doesn't
+    boolean fitsCache(List<Block> selected) {
+        return selected.size() <= CACHED_BLOCKS;
+    }
+
+    // Compresses events into new block files that are not yet part of the archive; commit() adds them
+    synchronized Pending write(List<TimeSlot> events) throws IOException {
+        List<TimeSlot> sorted = new ArrayList<>(events);
+        sorted.sort(Comparator.comparing(TimeSlot::getDateTime));
+        blocks();
+        Files.createDirectories(directory);
+        List<Block> written = new ArrayList<>();
+        try {
+            for (int start = 0; start < sorted.size(); start += BLOCK_EVENTS) {
+                written.add(writeBlock(sorted.subList(start, Math.min(sorted.size(), start + BLOCK_EVENTS))));
+            }
+        } catch (IOException e) {
+            deleteFiles(written);
+            throw e;
+        }
+        return new Pending(written);
+    }
+
+    private Block writeBlock(List<TimeSlot> events) throws IOException {
+        String fileName = String.format("block-%06d.gz", nextBlock++);
+        Path temp = directory.resolve(fileName + ".tmp");
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(temp)), StandardCharsets.UTF_8))) {
+            for (TimeSlot event : events) {
+                writer.write(event.toString());
+                writer.newLine();
+            }
+        }
+        Files.move(temp, directory.resolve(fileName), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return new Block(fileName, events.size(), events.get(0).getDateTime(), events.get(events.size() - 1).getDateTime());
+    }
+
+    // Blocks written by write() and waiting to be added to the index, or thrown away
+    final class Pending {
+        private final List<Block> written;
+
+        private Pending(List<Block> written) {
+            this.written = written;
+        }
+
+        void commit() throws IOException {
+            synchronized (ColdArchive.this) {
+                List<Block> updated = new ArrayList<>(blocks());
+                updated.addAll(written);
+                saveIndex(updated);
+            }
+        }
+
+        // Takes committed blocks back out, for when the events could not be removed from past_events.txt
+        void rollback() {
+            synchronized (ColdArchive.this) {
+                List<Block> updated = new ArrayList<>(blocks());
+                updated.removeAll(written);
+                try {
+                    saveIndex(updated);
+                } catch (IOException e) {
+                    LOG.log(Level.ERROR, "Could not roll back the archive index", e);
+                    return;
+                }
+                deleteFiles(written);
+            }
+        }
+
+        void discard() {
+            deleteFiles(written);
+        }
+    }
+
+    // Rewrites the index through a temp file, then makes the new block list current
+    private void saveIndex(List<Block> updated) throws IOException {
+        updated.sort(Comparator.comparing(Block::getFirst));
+        List<String> lines = new ArrayList<>(updated.size());
+        for (Block block : updated) {
+            lines.add(block.fileName + "|" + block.count + "|" + block.first.format(TIME_FORMAT) + "|" + block.last.format(TIME_FORMAT));
+        }
+        Files.createDirectories(directory);
+        Path temp = directory.resolve(INDEX_FILE + ".tmp");
+        Files.write(temp, lines);
+        Files.move(temp, directory.resolve(INDEX_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        blocks = Collections.unmodifiableList(updated);
+    }
+
+    // Removes matching events by rewriting only the blocks that contain one; returns what was removed
+    synchronized List<TimeSlot> removeIf(Predicate<TimeSlot> filter) throws IOException {
+        List<TimeSlot> removed = new ArrayList<>();
+        List<Block> updated = new ArrayList<>();
+        List<Block> replaced = new ArrayList<>();
+        for (Block block : blocks()) {
+            List<TimeSlot> kept = new ArrayList<>();
+            for (TimeSlot event : read(block)) {
+                if (filter.test(event)) {
+                    removed.add(event);
+                } else {
+                    kept.add(event);
+                }
+            }
+            if (kept.size() == block.count) {
+                updated.add(block);
+                continue;
+            }
+            replaced.add(block);
+            if (!kept.isEmpty()) {
+                updated.add(writeBlock(kept));
+            }
+        }
+        if (!replaced.isEmpty()) {
+            saveIndex(updated);
+            deleteFiles(replaced);
+        }
+        return removed;
+    }
+
+    // Drops every block
+    synchronized void clear() throws IOException {
+        List<Block> old = blocks();
+        if (old.isEmpty()) return;
+        saveIndex(new ArrayList<>());
+        deleteFiles(old);
+    }
+
+    private void deleteFiles(List<Block> dropped) {
+        for (Block block : dropped) {
+            synchronized (decoded) {
+                decoded.remove(block);
+            }
+            try {
+                Files.deleteIfExists(blockPath(block));
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "Could not delete archive block " + block.fileName, e);
+            }
+        }
+    }
+}
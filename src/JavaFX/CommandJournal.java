@@ -0,0 +1,381 @@
+package JavaFX;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.System.Logger.Level;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+
+// Undo and redo history for PlannerService. Each command keeps only what it changed: the event lines
+// and class names it removed and added. Once the history holds more than MEMORY_BUDGET lines the oldest
+// payloads are moved to files in the spill directory and read back only if that command is undone.
+// Several planners can work on one folder at once (the app, PlannerCli, another workspace), so each
+// journal spills into its own session directory next to a lock file it holds for as long as it runs.
+class CommandJournal {
+    private static final System.Logger LOG = PlannerLog.getLogger(CommandJournal.class);
+    private static final int MAX_COMMANDS = 100;
+    private static final int MEMORY_BUDGET = 50_000;
+
+    private final Path spillRoot;
+    private Path spillDir; // This session's, created on the first spill
+    private FileLock sessionLock; // Held until the process exits; marks spillDir as in use
+    private final Deque<Command> undoStack = new ArrayDeque<>();
+    private final Deque<Command> redoStack = new ArrayDeque<>();
+    private final ThreadLocal<Command> open = new ThreadLocal<>(); // Commands being grouped, per thread
+    private int inMemoryLines;
+    private long nextId;
+    private boolean replaying;
+
+    // The history lasts one session, so sessions whose process has ended are removed. Those still
+    // running keep their lock and are left alone.
+    CommandJournal(Path spillRoot) {
+        this.spillRoot = spillRoot;
+        if (Files.isDirectory(spillRoot)) {
+            try (DirectoryStream<Path> locks = Files.newDirectoryStream(spillRoot, "*.lock")) {
+                for (Path lock : locks) {
+                    removeIfAbandoned(lock);
+                }
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "Could not clear old journal files in " + spillRoot, e);
+            }
+        }
+    }
+
+    private static void removeIfAbandoned(Path lock) {
+        String name = lock.getFileName().toString();
+        Path session = lock.resolveSibling(name.substring(0, name.length() - ".lock".length()));
+        try (FileChannel channel = FileChannel.open(lock, StandardOpenOption.WRITE)) {
+            FileLock held;
+            try {
+                held = channel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                return; // Another planner in this process
+            }
+            if (held == null) return; // Another process
+            try {
+                deleteSession(session);
+            } finally {
+                held.release();
+            }
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Could not clear old journal files in " + session, e);
+            return;
+        }
+        try {
+            Files.deleteIfExists(lock);
+        } catch (IOException e) {
+            LOG.log(Level.DEBUG, "Could not delete " + lock, e);
+        }
+    }
+
+    private static void deleteSession(Path session) throws IOException {
+        if (!Files.isDirectory(session)) return;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(session)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(session);
+    }
+
+    // Locks a new session before creating its directory, so a cleanup can never take one in use. If a
+    // cleanup wins the race for the lock file, the directory just stays behind unused.
+    private Path sessionDir() throws IOException {
+        if (spillDir == null) {
+            Files.createDirectories(spillRoot);
+            while (sessionLock == null) {
+                String id = UUID.randomUUID().toString();
+                FileChannel channel = FileChannel.open(spillRoot.resolve(id + ".lock"),
+                        StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                FileLock lock = channel.tryLock();
+                if (lock == null) {
+                    channel.close();
+                    continue;
+                }
+                sessionLock = lock;
+                spillDir = Files.createDirectories(spillRoot.resolve(id));
+            }
+        }
+        return spillDir;
+    }
+
+    // Changes recorded on this thread until the matching end() become one command; calls nest
+    synchronized void begin(String description) {
+        Command command = open.get();
+        if (command == null) {
+            open.set(new Command(nextId++, description));
+        } else {
+            command.depth++;
+        }
+    }
+
+    synchronized void end() {
+        Command command = open.get();
+        if (command == null) return;
+        if (--command.depth == 0) {
+            open.remove();
+            if (!command.isEmpty()) {
+                push(command);
+            }
+        }
+    }
+
+    synchronized void recordEvents(Collection<TimeSlot> removed, Collection<TimeSlot> added, String description) {
+        if (replaying || (removed.isEmpty() && added.isEmpty())) return;
+        Command command = current(description);
+        for (TimeSlot event : removed) command.removedEvents.add(event.toString());
+        for (TimeSlot event : added) command.addedEvents.add(event.toString());
+        finishRecord(command);
+    }
+
+    synchronized void recordClasses(Collection<String> removed, Collection<String> added, String description) {
+        if (replaying || (removed.isEmpty() && added.isEmpty())) return;
+        Command command = current(description);
+        command.removedClasses.addAll(removed);
+        command.addedClasses.addAll(added);
+        finishRecord(command);
+    }
+
+    private Command current(String description) {
+        Command command = open.get();
+        return command != null ? command : new Command(nextId++, description);
+    }
+
+    private void finishRecord(Command command) {
+        if (open.get() != command) {
+            push(command);
+        } else if (command.inMemorySize() > MEMORY_BUDGET) {
+            // A long import grows its open command; keep writing it out rather than holding it all
+            spill(command);
+        }
+    }
+
+    // A new command makes the redo history meaningless
+    private void push(Command command) {
+        for (Command dropped : redoStack) {
+            discard(dropped);
+        }
+        redoStack.clear();
+        undoStack.push(command);
+        track(command);
+        while (undoStack.size() > MAX_COMMANDS) {
+            discard(undoStack.removeLast());
+        }
+    }
+
+    boolean isRecording() {
+        return !replaying;
+    }
+
+    // The next command to undo, with its payload loaded, or null. Nothing is recorded until undone() or redone().
+    synchronized Command takeUndo() {
+        return take(undoStack);
+    }
+
+    synchronized Command takeRedo() {
+        return take(redoStack);
+    }
+
+    private Command take(Deque<Command> stack) {
+        Command command = stack.poll();
+        if (command == null) return null;
+        inMemoryLines -= command.inMemorySize();
+        command.load();
+        replaying = true;
+        return command;
+    }
+
+    synchronized void undone(Command command) {
+        replaying = false;
+        redoStack.push(command);
+        track(command);
+    }
+
+    synchronized void redone(Command command) {
+        replaying = false;
+        undoStack.push(command);
+        track(command);
+    }
+
+    synchronized String peekUndo() {
+        Command command = undoStack.peek();
+        return command == null ? null : command.description;
+    }
+
+    synchronized String peekRedo() {
+        Command command = redoStack.peek();
+        return command == null ? null : command.description;
+    }
+
+    // Moves every payload to disk, for a planner that is going idle
+    synchronized void spillAll() {
+        for (Command command : undoStack) {
+            spillTracked(command);
+        }
+        for (Command command : redoStack) {
+            spillTracked(command);
+        }
+    }
+
+    private void track(Command command) {
+        inMemoryLines += command.inMemorySize();
+        // Oldest undo entries go to disk first, then the far end of the redo history
+        Iterator<Command> oldestFirst = undoStack.descendingIterator();
+        while (inMemoryLines > MEMORY_BUDGET && oldestFirst.hasNext()) {
+            spillTracked(oldestFirst.next());
+        }
+        Iterator<Command> redoOldest = redoStack.descendingIterator();
+        while (inMemoryLines > MEMORY_BUDGET && redoOldest.hasNext()) {
+            spillTracked(redoOldest.next());
+        }
+    }
+
+    private void spillTracked(Command command) {
+        int before = command.inMemorySize();
+        if (before == 0) return;
+        spill(command);
+        inMemoryLines -= before - command.inMemorySize();
+    }
+
+    private void spill(Command command) {
+        try {
+            command.spill(sessionDir().resolve(command.id + ".cmd"));
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Could not spill journal entry to disk; keeping it in memory", e);
+        }
+    }
+
+    private void discard(Command command) {
+        inMemoryLines -= command.inMemorySize();
+        if (command.spillFile != null) {
+            try {
+                Files.deleteIfExists(command.spillFile);
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "Could not delete " + command.spillFile, e);
+            }
+        }
+    }
+
+    // One undoable step. Lines are stored exactly as they appear in planner.txt.
+    static class Command {
+        private final long id;
+        private final String description;
+        private final List<String> removedEvents = new ArrayList<>();
+        private final List<String> addedEvents = new ArrayList<>();
+        private final List<String> removedClasses = new ArrayList<>();
+        private final List<String> addedClasses = new ArrayList<>();
+        private Path spillFile;
+        private int depth = 1;
+
+        Command(long id, String description) {
+            this.id = id;
+            this.description = description;
+        }
+
+        String getDescription() {
+            return description;
+        }
+
+        List<String> getRemovedEvents() {
+            return removedEvents;
+        }
+
+        List<String> getAddedEvents() {
+            return addedEvents;
+        }
+
+        List<String> getRemovedClasses() {
+            return removedClasses;
+        }
+
+        List<String> getAddedClasses() {
+            return addedClasses;
+        }
+
+        boolean isEmpty() {
+            return spillFile == null && inMemorySize() == 0;
+        }
+
+        int inMemorySize() {
+            return removedEvents.size() + addedEvents.size() + removedClasses.size() + addedClasses.size();
+        }
+
+        // Appends the in-memory lines to the spill file, tagged with the list they came from
+        void spill(Path file) throws IOException {
+            try (BufferedWriter writer = Files.newBufferedWriter(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                write(writer, "-e ", removedEvents);
+                write(writer, "+e ", addedEvents);
+                write(writer, "-c ", removedClasses);
+                write(writer, "+c ", addedClasses);
+            }
+            spillFile = file;
+            removedEvents.clear();
+            addedEvents.clear();
+            removedClasses.clear();
+            addedClasses.clear();
+        }
+
+        private static void write(BufferedWriter writer, String tag, List<String> lines) throws IOException {
+            for (String line : lines) {
+                writer.write(tag);
+                writer.write(line);
+                writer.newLine();
+            }
+        }
+
+        // Brings a spilled payload back into memory and removes its file
+        void load() {
+            if (spillFile == null) return;
+            List<String> removedE = new ArrayList<>();
+            List<String> addedE = new ArrayList<>();
+            List<String> removedC = new ArrayList<>();
+            List<String> addedC = new ArrayList<>();
+            try (BufferedReader reader = Files.newBufferedReader(spillFile)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.length() < 3) continue;
+                    String value = line.substring(3);
+                    switch (line.substring(0, 3)) {
+                        case "-e ": removedE.add(value); break;
+                        case "+e ": addedE.add(value); break;
+                        case "-c ": removedC.add(value); break;
+                        case "+c ": addedC.add(value); break;
+                        default: break;
+                    }
+                }
+                Files.deleteIfExists(spillFile);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read journal entry " + spillFile, e);
+            }
+            // Spilled lines are older than anything still in memory
+            removedE.addAll(removedEvents);
+            addedE.addAll(addedEvents);
+            removedC.addAll(removedClasses);
+            addedC.addAll(addedClasses);
+            removedEvents.clear();
+            removedEvents.addAll(removedE);
+            addedEvents.clear();
+            addedEvents.addAll(addedE);
+            removedClasses.clear();
+            removedClasses.addAll(removedC);
+            addedClasses.clear();
+            addedClasses.addAll(addedC);
+            spillFile = null;
+        }
+    }
+}
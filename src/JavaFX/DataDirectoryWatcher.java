@@ -0,0 +1,92 @@
+package JavaFX;
+
+import java.io.IOException;
+import java.lang.System.Logger.Level;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+// Watches a planner's data directory so edits made by other programs, like a script appending to
+// planner.txt, show up without waiting for the next reload. The service works out what changed;
+// events caused by its own writes cost it one stat per file.
+public class DataDirectoryWatcher {
+    private static final System.Logger LOG = PlannerLog.getLogger(DataDirectoryWatcher.class);
+    private static final long SETTLE_MILLIS = 200; // A burst of writes is checked once, after it settles
+
+    private final PlannerService plannerService;
+    private WatchService watchService;
+
+    public DataDirectoryWatcher(PlannerService plannerService) {
+        this.plannerService = plannerService;
+    }
+
+    public synchronized void start() {
+        if (watchService != null) return;
+        Path directory = plannerService.getDataDirectory().toAbsolutePath();
+        WatchService service;
+        try {
+            service = FileSystems.getDefault().newWatchService();
+            directory.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Could not watch " + directory + "; outside edits show up after a restart", e);
+            return;
+        }
+        watchService = service;
+        Thread thread = new Thread(() -> watch(service), "planner-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        if (watchService == null) return;
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Could not close the file watcher", e);
+        }
+        watchService = null;
+    }
+
+    private void watch(WatchService service) {
+        try {
+            while (true) {
+                boolean relevant = drain(service.take());
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SETTLE_MILLIS);
+                long left;
+                while ((left = deadline - System.nanoTime()) > 0) {
+                    WatchKey more = service.poll(left, TimeUnit.NANOSECONDS);
+                    if (more == null) break;
+                    relevant |= drain(more);
+                }
+                if (relevant) {
+                    try {
+                        plannerService.checkForExternalChanges();
+                    } catch (RuntimeException e) {
+                        LOG.log(Level.ERROR, "Could not pick up outside changes", e);
+                    }
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // Stopped
+        }
+    }
+
+    // Whether any of the key's events touched a data file; an overflow means events were lost, so check anyway
+    private boolean drain(WatchKey key) {
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                    || (event.context() instanceof Path && plannerService.isDataFile((Path) event.context()))) {
+                relevant = true;
+            }
+        }
+        key.reset();
+        return relevant;
+    }
+}
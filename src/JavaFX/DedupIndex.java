@@ -0,0 +1,183 @@
+package JavaFX;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+
+// Which events a planner already holds, by a 64-bit hash of what makes two events the same: class,
+// name and minute. Kept as an open-addressing table of keys and counts (about 24 bytes per event)
+// so saving checks for a duplicate in O(1). Different events can share a hash, so a hit is only a
+// candidate: the events stored at that minute, found through the time index, settle it. Built on
+// first use from every event, including the compressed archive, then kept current from the
+// service's change deltas. Every method runs with the service lock held.
+class DedupIndex implements EventChangeListener {
+    private static final long EMPTY = 0;
+    private static final long ZERO_KEY = 0x9E3779B97F4A7C15L; // Stands in for a key that hashes to EMPTY
+
+    private final PlannerService plannerService;
+    private long[] keys;
+    private int[] counts;
+    private int used; // Slots holding a key, including ones whose count dropped to zero
+    private boolean stale = true;
+
+    DedupIndex(PlannerService plannerService) {
+        this.plannerService = plannerService;
+    }
+
+    // What makes two events the same, compared exactly; key() is a hash of it
+    static final class Identity {
+        private final String className;
+        private final String eventName;
+        private final LocalDateTime minute;
+
+        private Identity(TimeSlot event) {
+            this.className = event.getClassName();
+            this.eventName = event.getEventName();
+            this.minute = event.getDateTime().truncatedTo(ChronoUnit.MINUTES);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Identity)) return false;
+            Identity that = (Identity) other;
+            return minute.equals(that.minute) && eventName.equals(that.eventName) && className.equals(that.className);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(className, eventName, minute);
+        }
+    }
+
+    static Identity identity(TimeSlot event) {
+        return new Identity(event);
+    }
+
+    static long key(TimeSlot event) {
+        long hash = 1125899906842597L;
+        String className = event.getClassName();
+        for (int i = 0; i < className.length(); i++) {
+            hash = 31 * hash + className.charAt(i);
+        }
+        hash = 31 * hash + '|';
+        String eventName = event.getEventName();
+        for (int i = 0; i < eventName.length(); i++) {
+            hash = 31 * hash + eventName.charAt(i);
+        }
+        hash = 31 * hash + event.getDateTime().toEpochSecond(ZoneOffset.UTC) / 60;
+        return hash == EMPTY ? ZERO_KEY : hash;
+    }
+
+    boolean contains(TimeSlot event) {
+        build();
+        int slot = find(key(event));
+        if (slot < 0 || counts[slot] == 0) {
+            return false;
+        }
+        Identity identity = identity(event);
+        LocalDateTime minute = identity.minute;
+        for (TimeSlot stored : plannerService.loadEventsBetween(minute, minute.plusMinutes(1))) {
+            if (identity.equals(identity(stored))) return true;
+        }
+        return false;
+    }
+
+    // Releases the table; it is rebuilt on the next check
+    void clear() {
+        stale = true;
+        keys = null;
+        counts = null;
+        used = 0;
+    }
+
+    private void build() {
+        if (!stale) return;
+        keys = new long[1024];
+        counts = new int[1024];
+        used = 0;
+        stale = false;
+        plannerService.forEachEvent(event -> add(key(event), 1));
+        plannerService.forEachPastEvent(event -> add(key(event), 1));
+    }
+
+    @Override
+    public void eventsAdded(Collection<TimeSlot> events) {
+        if (stale) return;
+        for (TimeSlot event : events) add(key(event), 1);
+    }
+
+    @Override
+    public void eventsRemoved(Collection<TimeSlot> events) {
+        if (stale) return;
+        for (TimeSlot event : events) add(key(event), -1);
+    }
+
+    @Override
+    public void reloaded() {
+        clear();
+    }
+
+    // Linear probing; slot of the key, or -1 if it was never added
+    private int find(long key) {
+        int mask = keys.length - 1;
+        for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) return slot;
+            if (keys[slot] == EMPTY) return -1;
+        }
+    }
+
+    private void add(long key, int delta) {
+        int slot = find(key);
+        if (slot >= 0) {
+            counts[slot] = Math.max(0, counts[slot] + delta);
+            return;
+        }
+        if (delta < 0) return;
+        if (used + 1 > keys.length * 3 / 5) {
+            resize();
+        }
+        int mask = keys.length - 1;
+        slot = mix(key) & mask;
+        while (keys[slot] != EMPTY) slot = (slot + 1) & mask;
+        keys[slot] = key;
+        counts[slot] = delta;
+        used++;
+    }
+
+    // Doubles when the live keys need it; otherwise just sweeps out keys whose events are all gone
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        int live = 0;
+        for (int count : oldCounts) {
+            if (count > 0) live++;
+        }
+        int capacity = live + 1 > oldKeys.length * 3 / 10 ? oldKeys.length * 2 : oldKeys.length;
+        keys = new long[capacity];
+        counts = new int[capacity];
+        used = 0;
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldCounts[i] <= 0) continue;
+            int slot = mix(oldKeys[i]) & mask;
+            while (keys[slot] != EMPTY) slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            counts[slot] = oldCounts[i];
+            used++;
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return stale ? "DedupIndex[stale]" : "DedupIndex[" + used + " of " + keys.length + " slots, "
+                + Arrays.stream(counts).filter(count -> count > 1).count() + " duplicated keys]";
+    }
+}
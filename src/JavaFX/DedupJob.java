@@ -0,0 +1,240 @@
+package JavaFX;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.System.Logger.Level;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Consumer;
+
+// Removes duplicate events from data files of any size in bounded memory. One pass over the files
+// spreads every line, tagged with its position, over bucket files by its DedupIndex key, so all
+// copies of an event land in the same bucket. Each bucket is then small enough to deduplicate with
+// a hash set of the events' identities (the key is only a hash, and distinct events can share it),
+// keeping the copy that came first, and a k-way merge of the survivors by position writes every
+// file back in its original order. Lines that don't parse are kept as they are.
+final class DedupJob {
+    private static final System.Logger LOG = PlannerLog.getLogger(DedupJob.class);
+    // Events per bucket, which bounds how many identities (class, name and minute) are held in memory at once
+    private static final long BUCKET_EVENTS = Long.getLong("planner.dedup.bucketEvents", 250_000);
+    private static final long BYTES_PER_EVENT = 64; // A typical stored line, for sizing the buckets up front
+    private static final int MAX_BUCKETS = 256;     // Each is open for writing during the first pass
+    private static final String KEEP = "-";         // Key of a line that is kept without comparing
+
+    private DedupJob() {
+    }
+
+    static final class Result {
+        private final Path workDir;
+        private final List<Path> outputs;
+        private final Path removedFile;
+        private final long removed;
+
+        Result(Path workDir, List<Path> outputs, Path removedFile, long removed) {
+            this.workDir = workDir;
+            this.outputs = outputs;
+            this.removedFile = removedFile;
+            this.removed = removed;
+        }
+
+        long getRemoved() {
+            return removed;
+        }
+
+        // The deduplicated copy of the input file at the same position
+        Path output(int file) {
+            return outputs.get(file);
+        }
+
+        // Hands the removed events to the consumer a batch at a time
+        void forEachRemoved(int batchSize, Consumer<List<TimeSlot>> consumer) throws IOException {
+            List<TimeSlot> batch = new ArrayList<>(batchSize);
+            try (BufferedReader reader = Files.newBufferedReader(removedFile)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    batch.add(TimeSlot.fromString(line));
+                    if (batch.size() == batchSize) {
+                        consumer.accept(batch);
+                        batch = new ArrayList<>(batchSize);
+                    }
+                }
+            }
+            if (!batch.isEmpty()) consumer.accept(batch);
+        }
+
+        void cleanUp() {
+            deleteQuietly(workDir);
+        }
+    }
+
+    // Earlier files win: a copy in the first file is kept over one in the second
+    static Result run(List<Path> files, Path workDir) throws IOException {
+        deleteQuietly(workDir);
+        Files.createDirectories(workDir);
+        long bytes = 0;
+        for (Path file : files) {
+            if (Files.exists(file)) bytes += Files.size(file);
+        }
+        int buckets = (int) Math.min(MAX_BUCKETS, Math.max(1, bytes / BYTES_PER_EVENT / BUCKET_EVENTS + 1));
+        LOG.log(Level.DEBUG, "Looking for duplicates in {0} bytes using {1} buckets", bytes, buckets);
+
+        partition(files, workDir, buckets);
+        Path removedFile = workDir.resolve("removed.txt");
+        long removed = 0;
+        try (BufferedWriter removedWriter = Files.newBufferedWriter(removedFile)) {
+            for (int bucket = 0; bucket < buckets; bucket++) {
+                removed += dedupe(workDir, bucket, removedWriter);
+            }
+        }
+        List<Path> outputs = new ArrayList<>(files.size());
+        for (int file = 0; file < files.size(); file++) {
+            outputs.add(workDir.resolve("out-" + file + ".txt"));
+        }
+        if (removed > 0) {
+            merge(workDir, buckets, outputs);
+        }
+        return new Result(workDir, outputs, removedFile, removed);
+    }
+
+    // Bucket lines are position|file|key|line, in position order
+    private static void partition(List<Path> files, Path workDir, int buckets) throws IOException {
+        BufferedWriter[] writers = new BufferedWriter[buckets];
+        try {
+            for (int bucket = 0; bucket < buckets; bucket++) {
+                writers[bucket] = Files.newBufferedWriter(workDir.resolve("bucket-" + bucket + ".txt"));
+            }
+            long position = 0;
+            for (int file = 0; file < files.size(); file++) {
+                if (!Files.exists(files.get(file))) continue;
+                try (BufferedReader reader = Files.newBufferedReader(files.get(file))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (line.trim().isEmpty()) continue;
+                        String key = KEEP;
+                        int bucket = (int) (position % buckets);
+                        try {
+                            long hash = DedupIndex.key(TimeSlot.fromString(line));
+                            key = Long.toHexString(hash);
+                            bucket = Math.floorMod(Long.hashCode(hash * 0x9E3779B97F4A7C15L), buckets);
+                        } catch (Exception e) {
+                            // Malformed; PlannerFsck reports these
+                        }
+                        BufferedWriter writer = writers[bucket];
+                        writer.write(Long.toString(position++));
+                        writer.write('|');
+                        writer.write(Integer.toString(file));
+                        writer.write('|');
+                        writer.write(key);
+                        writer.write('|');
+                        writer.write(line);
+                        writer.newLine();
+                    }
+                }
+            }
+        } finally {
+            for (BufferedWriter writer : writers) {
+                if (writer != null) writer.close();
+            }
+        }
+    }
+
+    // Writes the bucket's first copies as position|file|line to its survivors file and every later
+    // copy to the removed file; returns how many were removed
+    private static long dedupe(Path workDir, int bucket, BufferedWriter removedWriter) throws IOException {
+        Path bucketFile = workDir.resolve("bucket-" + bucket + ".txt");
+        Set<DedupIndex.Identity> seen = new HashSet<>();
+        long removed = 0;
+        try (BufferedReader reader = Files.newBufferedReader(bucketFile);
+             BufferedWriter writer = Files.newBufferedWriter(workDir.resolve("survivors-" + bucket + ".txt"))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int fileEnd = line.indexOf('|', line.indexOf('|') + 1);
+                int keyEnd = line.indexOf('|', fileEnd + 1);
+                String key = line.substring(fileEnd + 1, keyEnd);
+                if (key.equals(KEEP) || seen.add(DedupIndex.identity(TimeSlot.fromString(line.substring(keyEnd + 1))))) {
+                    writer.write(line, 0, fileEnd + 1);
+                    writer.write(line, keyEnd + 1, line.length() - keyEnd - 1);
+                    writer.newLine();
+                } else {
+                    removedWriter.write(line, keyEnd + 1, line.length() - keyEnd - 1);
+                    removedWriter.newLine();
+                    removed++;
+                }
+            }
+        }
+        Files.delete(bucketFile);
+        return removed;
+    }
+
+    private static final class Cursor {
+        final BufferedReader reader;
+        long position;
+        int file;
+        String line;
+
+        Cursor(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        boolean advance() throws IOException {
+            String next = reader.readLine();
+            if (next == null) return false;
+            int positionEnd = next.indexOf('|');
+            int fileEnd = next.indexOf('|', positionEnd + 1);
+            position = Long.parseLong(next, 0, positionEnd, 10);
+            file = Integer.parseInt(next, positionEnd + 1, fileEnd, 10);
+            line = next.substring(fileEnd + 1);
+            return true;
+        }
+    }
+
+    private static void merge(Path workDir, int buckets, List<Path> outputs) throws IOException {
+        PriorityQueue<Cursor> queue = new PriorityQueue<>(Comparator.comparingLong((Cursor cursor) -> cursor.position));
+        List<BufferedReader> readers = new ArrayList<>(buckets);
+        BufferedWriter[] writers = new BufferedWriter[outputs.size()];
+        try {
+            for (int bucket = 0; bucket < buckets; bucket++) {
+                BufferedReader reader = Files.newBufferedReader(workDir.resolve("survivors-" + bucket + ".txt"));
+                readers.add(reader);
+                Cursor cursor = new Cursor(reader);
+                if (cursor.advance()) queue.add(cursor);
+            }
+            for (int file = 0; file < outputs.size(); file++) {
+                writers[file] = Files.newBufferedWriter(outputs.get(file));
+            }
+            while (!queue.isEmpty()) {
+                Cursor cursor = queue.poll();
+                writers[cursor.file].write(cursor.line);
+                writers[cursor.file].newLine();
+                if (cursor.advance()) queue.add(cursor);
+            }
+        } finally {
+            for (BufferedWriter writer : writers) {
+                if (writer != null) writer.close();
+            }
+            for (BufferedReader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    private static void deleteQuietly(Path dir) {
+        if (!Files.isDirectory(dir)) return;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(dir);
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Could not delete " + dir, e);
+        }
+    }
+}
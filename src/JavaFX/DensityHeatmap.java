@@ -0,0 +1,235 @@
+package JavaFX;
+
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.geometry.VPos;
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.TextAlignment;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Heatmap of events per day or per week, one band per year. Reads pre-aggregated counts from
+// EventDensity, so a repaint is a few thousand fillRects no matter how many events exist.
+public class DensityHeatmap {
+    private static final double YEAR_LABEL_WIDTH = 44;
+    private static final double DAY_CELL = 10;
+    private static final double WEEK_CELL_HEIGHT = 18;
+    private static final double BAND_GAP = 10;
+    private static final int MAX_YEARS = 30; // Bands drawn at most, the years nearest to this one
+    private static final Font LABEL_FONT = Font.font("System", FontWeight.BOLD, 12);
+    private static final Color EMPTY = Color.rgb(255, 255, 255, 0.08);
+    // Busier cells get brighter; levels are log-scaled against the busiest cell in view
+    private static final Color[] LEVELS = {
+            Color.rgb(120, 200, 255, 0.35),
+            Color.rgb(90, 170, 255, 0.55),
+            Color.rgb(60, 130, 245, 0.75),
+            Color.rgb(255, 170, 60, 0.85),
+            Color.rgb(255, 90, 60, 0.95)
+    };
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("EEE, MMM d, yyyy");
+
+    private final EventDensity density;
+    private final VBox layout = new VBox(10);
+    private final Canvas canvas = new Canvas();
+    private final Label detailLabel = new Label(" ");
+    private boolean weekly;
+    private boolean redrawQueued;
+    private int[] years = new int[0]; // The year of each band, in order
+    private int[] counts = new int[0];  // Per day or per week for the years drawn, in band order
+    private int weeksPerYear;
+
+    public DensityHeatmap(EventDensity density) {
+        this.density = density;
+
+        Button dayBtn = new Button("Days");
+        Button weekBtn = new Button("Weeks");
+        dayBtn.setDisable(true);
+        dayBtn.setOnAction(e -> {
+            weekly = false;
+            dayBtn.setDisable(true);
+            weekBtn.setDisable(false);
+            requestRedraw();
+        });
+        weekBtn.setOnAction(e -> {
+            weekly = true;
+            weekBtn.setDisable(true);
+            dayBtn.setDisable(false);
+            requestRedraw();
+        });
+        HBox toolbar = new HBox(8, dayBtn, weekBtn);
+        toolbar.setAlignment(Pos.CENTER_LEFT);
+
+        ScrollPane scrollPane = new ScrollPane(canvas);
+        scrollPane.setPrefViewportHeight(440);
+        scrollPane.setPrefViewportWidth(YEAR_LABEL_WIDTH + 53 * DAY_CELL + 10);
+        scrollPane.setStyle("-fx-background: transparent; -fx-background-color: transparent;");
+
+        detailLabel.getStyleClass().add("dialog-label");
+        canvas.setOnMouseMoved(e -> describe(e.getX(), e.getY()));
+        canvas.setOnMouseExited(e -> detailLabel.setText(" "));
+
+        layout.getChildren().addAll(toolbar, scrollPane, detailLabel);
+        layout.setPadding(new Insets(0));
+        density.setOnChange(this::requestRedraw);
+    }
+
+    public Node getNode() {
+        return layout;
+    }
+
+    // Safe to call from any thread; repaints at most once per pulse
+    public void requestRedraw() {
+        if (!Platform.isFxApplicationThread()) {
+            Platform.runLater(this::requestRedraw);
+            return;
+        }
+        if (!redrawQueued) {
+            redrawQueued = true;
+            Platform.runLater(() -> {
+                redrawQueued = false;
+                draw();
+            });
+        }
+    }
+
+    private void draw() {
+        // Weeks run Monday to Sunday; each year's band starts at the Monday on or before January 1
+        weeksPerYear = 54;
+        int cellsPerYear = weekly ? weeksPerYear : weeksPerYear * 7;
+        years = yearsToDraw();
+        counts = new int[years.length * cellsPerYear];
+        for (int y = 0; y < years.length; y++) {
+            LocalDate start = bandStart(years[y]);
+            int[] days = density.countsFrom(start, weeksPerYear * 7);
+            for (int d = 0; d < days.length; d++) {
+                if (!inYear(start.plusDays(d), years[y])) continue;
+                int cell = weekly ? d / 7 : d;
+                counts[y * cellsPerYear + cell] += days[d];
+            }
+        }
+        int max = 0;
+        for (int count : counts) {
+            max = Math.max(max, count);
+        }
+
+        double bandHeight = weekly ? WEEK_CELL_HEIGHT : DAY_CELL * 7;
+        double cellWidth = DAY_CELL;
+        canvas.setWidth(YEAR_LABEL_WIDTH + weeksPerYear * cellWidth);
+        canvas.setHeight(years.length * (bandHeight + BAND_GAP));
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        gc.setFont(LABEL_FONT);
+        gc.setTextAlign(TextAlignment.LEFT);
+        gc.setTextBaseline(VPos.CENTER);
+
+        double logMax = Math.log(max + 1);
+        for (int y = 0; y < years.length; y++) {
+            double top = y * (bandHeight + BAND_GAP);
+            gc.setFill(Color.WHITE);
+            gc.fillText(String.valueOf(years[y]), 0, top + bandHeight / 2);
+            LocalDate start = bandStart(years[y]);
+            for (int week = 0; week < weeksPerYear; week++) {
+                double x = YEAR_LABEL_WIDTH + week * cellWidth;
+                if (weekly) {
+                    if (!inYear(start.plusWeeks(week), years[y]) && !inYear(start.plusWeeks(week).plusDays(6), years[y])) continue;
+                    gc.setFill(colorFor(counts[y * cellsPerYear + week], logMax));
+                    gc.fillRect(x, top, cellWidth - 1, bandHeight);
+                } else {
+                    for (int day = 0; day < 7; day++) {
+                        int index = week * 7 + day;
+                        if (!inYear(start.plusDays(index), years[y])) continue;
+                        gc.setFill(colorFor(counts[y * cellsPerYear + index], logMax));
+                        gc.fillRect(x, top + day * DAY_CELL, cellWidth - 1, DAY_CELL - 1);
+                    }
+                }
+            }
+        }
+    }
+
+    // This year and every year with events, or the MAX_YEARS of them nearest to this year. Years without
+    // events are skipped, so one mistyped date (0202, 2999) adds a band rather than centuries of them.
+    private int[] yearsToDraw() {
+        int thisYear = LocalDate.now().getYear();
+        LocalDate first = density.firstDay();
+        LocalDate last = density.lastDay();
+        int from = first == null ? thisYear : Math.min(first.getYear(), thisYear);
+        int to = last == null ? thisYear : Math.max(last.getYear(), thisYear);
+        List<Integer> found = new ArrayList<>();
+        for (int year = from; year <= to; year++) {
+            if (year == thisYear || hasEvents(year)) found.add(year);
+        }
+        found.sort(Comparator.comparingInt(year -> Math.abs(year - thisYear)));
+        return found.stream().limit(MAX_YEARS).mapToInt(Integer::intValue).sorted().toArray();
+    }
+
+    private boolean hasEvents(int year) {
+        LocalDate start = LocalDate.of(year, 1, 1);
+        for (int count : density.countsFrom(start, start.lengthOfYear())) {
+            if (count > 0) return true;
+        }
+        return false;
+    }
+
+    private static LocalDate bandStart(int year) {
+        return LocalDate.of(year, 1, 1).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    private static boolean inYear(LocalDate day, int year) {
+        return day.getYear() == year;
+    }
+
+    private static Color colorFor(int count, double logMax) {
+        if (count == 0 || logMax == 0) {
+            return EMPTY;
+        }
+        int level = (int) (Math.log(count + 1) / logMax * (LEVELS.length - 1) + 0.5);
+        return LEVELS[Math.max(0, Math.min(LEVELS.length - 1, level))];
+    }
+
+    // Shows the day or week under the pointer and its count, from the counts already drawn
+    private void describe(double x, double y) {
+        double bandHeight = weekly ? WEEK_CELL_HEIGHT : DAY_CELL * 7;
+        int band = (int) (y / (bandHeight + BAND_GAP));
+        double inBand = y - band * (bandHeight + BAND_GAP);
+        int week = (int) ((x - YEAR_LABEL_WIDTH) / DAY_CELL);
+        if (x < YEAR_LABEL_WIDTH || band < 0 || band >= years.length || inBand >= bandHeight
+                || week < 0 || week >= weeksPerYear) {
+            detailLabel.setText(" ");
+            return;
+        }
+        int year = years[band];
+        LocalDate start = bandStart(year);
+        int cellsPerYear = weekly ? weeksPerYear : weeksPerYear * 7;
+        if (weekly) {
+            LocalDate monday = start.plusWeeks(week);
+            int count = counts[band * cellsPerYear + week];
+            detailLabel.setText("Week of " + monday.format(DAY_FORMAT) + ": " + count + (count == 1 ? " event" : " events"));
+        } else {
+            int index = week * 7 + (int) (inBand / DAY_CELL);
+            LocalDate day = start.plusDays(index);
+            if (!inYear(day, year)) {
+                detailLabel.setText(" ");
+                return;
+            }
+            int count = counts[band * cellsPerYear + index];
+            detailLabel.setText(day.format(DAY_FORMAT) + ": " + count + (count == 1 ? " event" : " events"));
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package JavaFX;
+
+import java.util.Collection;
+
+// Fine-grained change notifications from PlannerService, for views that keep their own aggregates.
+// Called on the writing thread while the service lock is held, so implementations must be quick
+// and must not call back into the service's write methods.
+public interface EventChangeListener {
+    // New events in planner.txt or the archive
+    default void eventsAdded(Collection<TimeSlot> events) {
+    }
+
+    // Events deleted from planner.txt or the archive; updated events arrive as a removal plus an addition
+    default void eventsRemoved(Collection<TimeSlot> events) {
+    }
+
+    // One write that removed some events and added others; edits keep their event's id (TimeSlot.getId()),
+    // so an id on both sides is an update. By default reported as a removal followed by an addition.
+    default void eventsChanged(Collection<TimeSlot> removed, Collection<TimeSlot> added) {
+        if (!removed.isEmpty()) {
+            eventsRemoved(removed);
+        }
+        if (!added.isEmpty()) {
+            eventsAdded(added);
+        }
+    }
+
+    // Events moved unchanged from planner.txt to past_events.txt
+    default void eventsArchived(Collection<TimeSlot> events) {
+    }
+
+    // The data changed in a way the service can't describe as a delta; rebuild from scratch.
+    // Also called once when the listener is registered, with no writes in between.
+    default void reloaded() {
+    }
+}
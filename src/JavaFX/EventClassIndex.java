@@ -0,0 +1,78 @@
+package JavaFX;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Upcoming and archived events grouped by class, each group sorted by time, so the events of one class
+// in a date range are two binary searches into that class alone. Classes compare ignoring case, as the
+// rest of the app does.
+class EventClassIndex {
+    private static final TimeSlot[] NONE = new TimeSlot[0];
+
+    private final List<TimeSlot> sourceEvents;
+    private final List<TimeSlot> sourcePastEvents;
+    private final Map<String, TimeSlot[]> byClass = new HashMap<>();
+
+    EventClassIndex(List<TimeSlot> events, List<TimeSlot> pastEvents) {
+        this.sourceEvents = events;
+        this.sourcePastEvents = pastEvents;
+        Map<String, List<TimeSlot>> groups = new HashMap<>();
+        for (List<TimeSlot> source : List.of(events, pastEvents)) {
+            for (TimeSlot event : source) {
+                if (event.getDateTime() == null) continue;
+                groups.computeIfAbsent(key(event.getClassName()), name -> new ArrayList<>()).add(event);
+            }
+        }
+        for (Map.Entry<String, List<TimeSlot>> group : groups.entrySet()) {
+            TimeSlot[] sorted = group.getValue().toArray(NONE);
+            Arrays.sort(sorted, Comparator.comparing(TimeSlot::getDateTime));
+            byClass.put(group.getKey(), sorted);
+        }
+    }
+
+    // The service swaps in new cache lists on every write, so identity tells us whether the index is stale
+    boolean isBuiltFrom(List<TimeSlot> events, List<TimeSlot> pastEvents) {
+        return sourceEvents == events && sourcePastEvents == pastEvents;
+    }
+
+    // Events of the class with from <= time < to, in time order
+    List<TimeSlot> between(String className, LocalDateTime from, LocalDateTime to) {
+        TimeSlot[] sorted = byClass.getOrDefault(key(className), NONE);
+        int start = firstAtOrAfter(sorted, from);
+        int end = firstAtOrAfter(sorted, to);
+        if (start >= end) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(Arrays.asList(Arrays.copyOfRange(sorted, start, end)));
+    }
+
+    int count(String className, LocalDateTime from, LocalDateTime to) {
+        TimeSlot[] sorted = byClass.getOrDefault(key(className), NONE);
+        return Math.max(0, firstAtOrAfter(sorted, to) - firstAtOrAfter(sorted, from));
+    }
+
+    private static String key(String className) {
+        return className.toLowerCase(Locale.ROOT);
+    }
+
+    private static int firstAtOrAfter(TimeSlot[] sorted, LocalDateTime time) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid].getDateTime().isBefore(time)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,143 @@
+package JavaFX;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.stream.Collector;
+
+// Event counts per day across planner.txt and the archive. Built once with a parallel pass over both
+// stores, then kept current from the service's change notifications instead of being recounted.
+public class EventDensity implements EventChangeListener {
+    private final PlannerService plannerService;
+    private volatile Runnable onChange = () -> { };
+    private DayCounts counts = new DayCounts();
+
+    public EventDensity(PlannerService plannerService) {
+        this.plannerService = plannerService;
+    }
+
+    // Called from whichever thread wrote the change
+    public void setOnChange(Runnable onChange) {
+        this.onChange = onChange;
+    }
+
+    // Counts for the given number of consecutive days starting at start
+    public synchronized int[] countsFrom(LocalDate start, int days) {
+        int[] result = new int[days];
+        long first = start.toEpochDay();
+        for (int i = 0; i < days; i++) {
+            result[i] = counts.get(first + i);
+        }
+        return result;
+    }
+
+    // First and last day with any events, or null when there are none
+    public synchronized LocalDate firstDay() {
+        long day = counts.firstNonZero();
+        return day == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(day);
+    }
+
+    public synchronized LocalDate lastDay() {
+        long day = counts.lastNonZero();
+        return day == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(day);
+    }
+
+    @Override
+    public void reloaded() {
+        DayCounts fresh = plannerService.collectAllEvents(
+                Collector.of(DayCounts::new, DayCounts::add, DayCounts::merge));
+        synchronized (this) {
+            counts = fresh;
+        }
+        onChange.run();
+    }
+
+    @Override
+    public void eventsAdded(Collection<TimeSlot> events) {
+        synchronized (this) {
+            events.forEach(event -> counts.add(event, 1));
+        }
+        onChange.run();
+    }
+
+    @Override
+    public void eventsRemoved(Collection<TimeSlot> events) {
+        synchronized (this) {
+            events.forEach(event -> counts.add(event, -1));
+        }
+        onChange.run();
+    }
+
+    // Archiving moves events between files without changing the count on any day
+    @Override
+    public void eventsArchived(Collection<TimeSlot> events) {
+    }
+
+    // Growable array of counts indexed by epoch day, extended in either direction as needed
+    private static class DayCounts {
+        private int[] values = new int[0];
+        private long base;
+
+        void add(TimeSlot event) {
+            add(event, 1);
+        }
+
+        void add(TimeSlot event, int delta) {
+            if (event.getDateTime() == null) return;
+            long day = event.getDateTime().toLocalDate().toEpochDay();
+            ensure(day);
+            int index = (int) (day - base);
+            values[index] = Math.max(0, values[index] + delta);
+        }
+
+        int get(long day) {
+            long index = day - base;
+            return index < 0 || index >= values.length ? 0 : values[(int) index];
+        }
+
+        DayCounts merge(DayCounts other) {
+            for (int i = 0; i < other.values.length; i++) {
+                if (other.values[i] != 0) {
+                    long day = other.base + i;
+                    ensure(day);
+                    values[(int) (day - base)] += other.values[i];
+                }
+            }
+            return this;
+        }
+
+        long firstNonZero() {
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != 0) return base + i;
+            }
+            return Long.MIN_VALUE;
+        }
+
+        long lastNonZero() {
+            for (int i = values.length - 1; i >= 0; i--) {
+                if (values[i] != 0) return base + i;
+            }
+            return Long.MIN_VALUE;
+        }
+
+        // Grows by at least a year at a time so a run of nearby days doesn't copy the array repeatedly
+        private void ensure(long day) {
+            if (values.length == 0) {
+                base = day - 183;
+                values = new int[366];
+                return;
+            }
+            if (day < base) {
+                long newBase = Math.min(day, base - 366);
+                int[] grown = new int[(int) (base - newBase) + values.length];
+                System.arraycopy(values, 0, grown, (int) (base - newBase), values.length);
+                values = grown;
+                base = newBase;
+            } else if (day >= base + values.length) {
+                long newLength = Math.max(day - base + 1, values.length + 366L);
+                int[] grown = new int[(int) newLength];
+                System.arraycopy(values, 0, grown, 0, values.length);
+                values = grown;
+            }
+        }
+    }
+}
@@ -16,6 +16,7 @@ import java.util.List;
 import java.util.function.Consumer;
 
 public class EventDialog {
+    private final PlannerService plannerService;
     private ComboBox<String> classDropdown;
     public TextField newClassField, eventNameField, monthField, dayField, yearField, hourField, minuteField;
     private ComboBox<String> amPmDropdown;
@@ -23,11 +24,21 @@ public class EventDialog {
     public StackPane root;
     public Consumer<TimeSlot> resultHandler;
 
-    public EventDialog(List<String> classList) {
-        this(classList, null);
+    public EventDialog(PlannerService plannerService, List<String> classList) {
+        this(plannerService, classList, null);
     }
 
-    public EventDialog(List<String> classList, String preselectedClass) {
+    // A dialog for adding an event, offering the planner's classes
+    public static EventDialog create(PlannerService plannerService) {
+        return new EventDialog(plannerService, plannerService.loadClasses());
+    }
+
+    public static EventDialog createForClass(PlannerService plannerService, String className) {
+        return new EventDialog(plannerService, plannerService.loadClasses(), className);
+    }
+
+    public EventDialog(PlannerService plannerService, List<String> classList, String preselectedClass) {
+        this.plannerService = plannerService;
         root = new StackPane();
 
         GridPane formGrid = new GridPane();
@@ -221,13 +232,12 @@ public class EventDialog {
             LocalDateTime dateTime = LocalDateTime.of(year, month, day, hour, minute);
 
             if (!newClassField.getText().trim().isEmpty()) {
-                PlannerService plannerService = new PlannerService();
                 if (!plannerService.classExists(finalClass)) {
                     plannerService.addNewClass(finalClass);
                 }
             }
 
-            return new TimeSlot(finalClass, eventName, dateTime, descField.getText().trim());
+            return new TimeSlot(finalClass, eventName, dateTime, descField.getText().trim(), LocalDateTime.now());
         } catch (Exception e) {
             showAlert("Invalid Input", "Failed to create event: " + e.getMessage());
             return null;
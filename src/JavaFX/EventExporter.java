@@ -0,0 +1,107 @@
+package JavaFX;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+
+// Writes events straight from the planner files to .csv or .ics, one event at a time
+public class EventExporter {
+    private static final DateTimeFormatter STORE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final DateTimeFormatter ICS_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    private final PlannerService plannerService;
+
+    public EventExporter(PlannerService plannerService) {
+        this.plannerService = plannerService;
+    }
+
+    public int exportFile(Path file, boolean includePast) throws IOException {
+        String name = file.getFileName().toString().toLowerCase();
+        if (name.endsWith(".ics")) {
+            return exportIcs(file, includePast);
+        }
+        if (name.endsWith(".csv")) {
+            return exportCsv(file, includePast);
+        }
+        throw new IllegalArgumentException("Unsupported file type: " + file.getFileName());
+    }
+
+    public int exportCsv(Path file, boolean includePast) throws IOException {
+        int[] count = {0};
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("class,event,date,description");
+            writer.newLine();
+            streamEvents(includePast, event -> {
+                writer.write(csvField(event.getClassName()) + "," + csvField(event.getEventName()) + ","
+                        + event.getDateTime().format(STORE_FORMAT) + "," + csvField(event.getDescription()));
+                writer.newLine();
+                count[0]++;
+            });
+        }
+        return count[0];
+    }
+
+    public int exportIcs(Path file, boolean includePast) throws IOException {
+        int[] count = {0};
+        String stamp = LocalDateTime.now().format(ICS_DATE_TIME);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("BEGIN:VCALENDAR\r\nVERSION:2.0\r\nPRODID:-//Planner App//EN\r\n");
+            streamEvents(includePast, event -> {
+                String uid = UUID.nameUUIDFromBytes(event.toString().getBytes(StandardCharsets.UTF_8)) + "@planner";
+                writer.write("BEGIN:VEVENT\r\n");
+                writer.write("UID:" + uid + "\r\n");
+                writer.write("DTSTAMP:" + stamp + "\r\n");
+                writer.write("DTSTART:" + event.getDateTime().format(ICS_DATE_TIME) + "\r\n");
+                writer.write("SUMMARY:" + escapeIcs(event.getEventName()) + "\r\n");
+                writer.write("CATEGORIES:" + escapeIcs(event.getClassName()) + "\r\n");
+                if (!event.getDescription().isEmpty()) {
+                    writer.write("DESCRIPTION:" + escapeIcs(event.getDescription()) + "\r\n");
+                }
+                writer.write("END:VEVENT\r\n");
+                count[0]++;
+            });
+            writer.write("END:VCALENDAR\r\n");
+        }
+        return count[0];
+    }
+
+    private interface EventWriter {
+        void write(TimeSlot event) throws IOException;
+    }
+
+    private void streamEvents(boolean includePast, EventWriter eventWriter) throws IOException {
+        try {
+            if (includePast) {
+                plannerService.forEachPastEvent(event -> write(eventWriter, event));
+            }
+            plannerService.forEachEvent(event -> write(eventWriter, event));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void write(EventWriter eventWriter, TimeSlot event) {
+        try {
+            eventWriter.write(event);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String csvField(String value) {
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    private static String escapeIcs(String value) {
+        return value.replace("\\", "\\\\").replace(";", "\\;").replace(",", "\\,");
+    }
+}
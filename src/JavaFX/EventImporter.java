@@ -0,0 +1,369 @@
+package JavaFX;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Streams .csv and .ics files into the planner in fixed-size batches so memory stays flat
+public class EventImporter {
+    private static final int BATCH_SIZE = 10_000;
+    private static final int MAX_RECORD_LINES = 100; // A quoted CSV field spanning more lines is taken as unclosed
+    private static final String DEFAULT_CLASS = "Imported";
+    private static final DateTimeFormatter STORE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final DateTimeFormatter ICS_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final DateTimeFormatter ICS_DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final PlannerService plannerService;
+
+    public EventImporter(PlannerService plannerService) {
+        this.plannerService = plannerService;
+    }
+
+    // Result of an import: how many events were stored, how many records were rejected and how
+    // many events the planner already had
+    public static class ImportResult {
+        private final int imported;
+        private final int rejected;
+        private final int duplicates;
+
+        ImportResult(int imported, int rejected, int duplicates) {
+            this.imported = imported;
+            this.rejected = rejected;
+            this.duplicates = duplicates;
+        }
+
+        public int getImported() {
+            return imported;
+        }
+
+        public int getRejected() {
+            return rejected;
+        }
+
+        public int getDuplicates() {
+            return duplicates;
+        }
+    }
+
+    // The whole import is one undo step, however many batches it was written in
+    public ImportResult importFile(Path file) throws IOException {
+        String name = file.getFileName().toString().toLowerCase();
+        if (!name.endsWith(".ics") && !name.endsWith(".csv")) {
+            throw new IllegalArgumentException("Unsupported file type: " + file.getFileName());
+        }
+        plannerService.beginCommand("Import " + file.getFileName());
+        try {
+            return name.endsWith(".ics") ? importIcs(file) : importCsv(file);
+        } finally {
+            plannerService.endCommand();
+        }
+    }
+
+    // CSV layout: class,event,date (yyyy-MM-dd HH:mm),description with an optional header row
+    public ImportResult importCsv(Path file) throws IOException {
+        Batcher<List<String>> batcher = new Batcher<>(this::fromCsvRecord);
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            Deque<String> reread = new ArrayDeque<>(); // Lines of a rejected record, read again as records
+            String line;
+            boolean first = true;
+            while ((line = reread.isEmpty() ? reader.readLine() : reread.poll()) != null) {
+                // A quoted field may span lines, so keep reading while one is open, up to MAX_RECORD_LINES.
+                // Past that the quote is taken as unclosed: the first line is rejected and the others read
+                // again, so one stray quote costs one record rather than the rest of the file.
+                List<String> lines = new ArrayList<>();
+                lines.add(line);
+                boolean quoted = quoteOpenAfter(line, false);
+                while (quoted && lines.size() < MAX_RECORD_LINES
+                        && (line = reread.isEmpty() ? reader.readLine() : reread.poll()) != null) {
+                    lines.add(line);
+                    quoted = quoteOpenAfter(line, true);
+                }
+                if (quoted && lines.size() == MAX_RECORD_LINES) {
+                    batcher.reject();
+                    for (int i = lines.size() - 1; i > 0; i--) reread.push(lines.get(i));
+                    first = false;
+                    continue;
+                }
+                StringBuilder record = new StringBuilder(lines.get(0));
+                for (int i = 1; i < lines.size(); i++) record.append('\n').append(lines.get(i));
+                if (first) {
+                    first = false;
+                    if (record.toString().toLowerCase().startsWith("class,")) continue;
+                }
+                if (record.toString().trim().isEmpty()) continue;
+                batcher.add(parseCsvRecord(record.toString()));
+            }
+        }
+        return batcher.finish();
+    }
+
+    // Reads VEVENT blocks, unfolding continuation lines as it goes
+    public ImportResult importIcs(Path file) throws IOException {
+        Batcher<Map<String, String>> batcher = new Batcher<>(this::fromIcsEvent);
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            Map<String, String> current = null;
+            String pending = null;
+            String line;
+            while (true) {
+                line = reader.readLine();
+                if (line != null && pending != null && (line.startsWith(" ") || line.startsWith("\t"))) {
+                    pending += line.substring(1);
+                    continue;
+                }
+                if (pending != null) {
+                    if (pending.equals("BEGIN:VEVENT")) {
+                        current = new HashMap<>();
+                    } else if (pending.equals("END:VEVENT")) {
+                        if (current != null) batcher.add(current);
+                        current = null;
+                    } else if (current != null) {
+                        int colon = pending.indexOf(':');
+                        if (colon > 0) {
+                            current.putIfAbsent(pending.substring(0, colon).toUpperCase(), pending.substring(colon + 1));
+                        }
+                    }
+                }
+                if (line == null) break;
+                pending = line;
+            }
+        }
+        return batcher.finish();
+    }
+
+    // Collects raw records and validates each full batch in parallel before committing it
+    private class Batcher<R> {
+        private final Function<R, TimeSlot> mapper;
+        private final List<R> pending = new ArrayList<>(BATCH_SIZE);
+        private int imported;
+        private int rejected;
+        private int duplicates;
+
+        Batcher(Function<R, TimeSlot> mapper) {
+            this.mapper = mapper;
+        }
+
+        void reject() {
+            rejected++;
+        }
+
+        void add(R record) {
+            pending.add(record);
+            if (pending.size() >= BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (pending.isEmpty()) return;
+            List<TimeSlot> events = pending.parallelStream()
+                    .map(this::mapSafely)
+                    .filter(event -> event != null && event.getDateTime() != null)
+                    .collect(Collectors.toList());
+            rejected += pending.size() - events.size();
+            pending.clear();
+            // Importing the same file twice, or overlapping exports, adds nothing the second time
+            List<TimeSlot> fresh = plannerService.withoutDuplicates(events);
+            duplicates += events.size() - fresh.size();
+            events = fresh;
+
+            Set<String> classes = new LinkedHashSet<>();
+            for (TimeSlot event : events) {
+                classes.add(event.getClassName());
+            }
+            plannerService.addClasses(classes);
+            plannerService.appendEvents(events);
+            imported += events.size();
+        }
+
+        private TimeSlot mapSafely(R record) {
+            try {
+                return mapper.apply(record);
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+
+        ImportResult finish() {
+            flush();
+            // One archive pass and one listener notification for the whole file
+            plannerService.movePastEventsToStorage();
+            return new ImportResult(imported, rejected, duplicates);
+        }
+    }
+
+    private TimeSlot fromCsvRecord(List<String> fields) {
+        if (fields.size() < 3) return null;
+        String className = clean(fields.get(0));
+        String eventName = clean(fields.get(1));
+        String description = fields.size() > 3 ? clean(fields.get(3)) : "";
+        String dateText = fields.get(2).trim().replace('T', ' ');
+        if (className.isEmpty() || eventName.isEmpty()) return null;
+
+        LocalDateTime dateTime;
+        try {
+            dateTime = dateText.length() == 10
+                    ? LocalDate.parse(dateText).atStartOfDay()
+                    : LocalDateTime.parse(dateText.substring(0, Math.min(16, dateText.length())), STORE_FORMAT);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+        return new TimeSlot(className, eventName, dateTime, description);
+    }
+
+    private TimeSlot fromIcsEvent(Map<String, String> properties) {
+        String summary = null;
+        String categories = null;
+        String description = "";
+        LocalDateTime dateTime = null;
+
+        for (Map.Entry<String, String> entry : properties.entrySet()) {
+            String key = entry.getKey();
+            String name = key.contains(";") ? key.substring(0, key.indexOf(';')) : key;
+            switch (name) {
+                case "SUMMARY":
+                    summary = unescapeIcs(entry.getValue());
+                    break;
+                case "CATEGORIES":
+                    categories = unescapeIcs(entry.getValue().split("(?<!\\\\),")[0]);
+                    break;
+                case "DESCRIPTION":
+                    description = unescapeIcs(entry.getValue());
+                    break;
+                case "DTSTART":
+                    dateTime = parseIcsDate(key, entry.getValue().trim());
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        String className = clean(categories == null ? DEFAULT_CLASS : categories);
+        String eventName = clean(summary == null ? "" : summary);
+        if (dateTime == null || eventName.isEmpty() || className.isEmpty()) return null;
+        return new TimeSlot(className, eventName, dateTime, clean(description));
+    }
+
+    private LocalDateTime parseIcsDate(String key, String value) {
+        try {
+            if (value.length() == 8) {
+                return LocalDate.parse(value, ICS_DATE).atStartOfDay();
+            }
+            if (value.endsWith("Z")) {
+                LocalDateTime utc = LocalDateTime.parse(value.substring(0, value.length() - 1), ICS_DATE_TIME);
+                return utc.atZone(ZoneId.of("UTC")).withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+            }
+            LocalDateTime local = LocalDateTime.parse(value, ICS_DATE_TIME);
+            int tzIndex = key.indexOf("TZID=");
+            if (tzIndex >= 0) {
+                String zone = key.substring(tzIndex + 5).split(";")[0];
+                try {
+                    ZonedDateTime zoned = local.atZone(ZoneId.of(zone));
+                    return zoned.withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+                } catch (Exception ignored) {
+                    // Unknown zone ids fall back to local time
+                }
+            }
+            return local;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    // Splits one CSV record, honouring quoted fields and doubled quotes. A quote only opens a field at
+    // its start; elsewhere, as in 5" ruler, it is an ordinary character.
+    static List<String> parseCsvRecord(String record) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean fieldStart = true;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"' && fieldStart) {
+                quoted = true;
+                fieldStart = false;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                fieldStart = true;
+            } else {
+                field.append(c);
+                fieldStart = false;
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // Whether a quoted field is still open at the end of a line, by the same rules as parseCsvRecord;
+    // quoted tells whether one was open at its start
+    static boolean quoteOpenAfter(String line, boolean quoted) {
+        boolean fieldStart = !quoted;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                }
+            } else if (c == '"' && fieldStart) {
+                quoted = true;
+                fieldStart = false;
+            } else {
+                fieldStart = c == ',';
+            }
+        }
+        return quoted;
+    }
+
+    // In one pass, so an escaped backslash followed by n stays a backslash and an n
+    static String unescapeIcs(String value) {
+        StringBuilder out = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            char next = i + 1 < value.length() ? value.charAt(i + 1) : 0;
+            if (c == '\\' && (next == 'n' || next == 'N')) {
+                out.append(' ');
+                i++;
+            } else if (c == '\\' && (next == '\\' || next == ',' || next == ';')) {
+                out.append(next);
+                i++;
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    // planner.txt is pipe-delimited and line-based, so neither may appear inside a field
+    private static String clean(String value) {
+        return value.replace('|', '/').replace('\r', ' ').replace('\n', ' ').trim();
+    }
+}
@@ -0,0 +1,205 @@
+package JavaFX;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+
+// A filter typed as a line of terms, as in the filter bars and `PlannerCli query`:
+//   class:Math after:2025-01-01 before:2025-06-01 text:exam
+// class:  the event's class, ignoring case; several class: terms match any of them
+// name:   text in the event's name
+// text:   text in the name or description; a bare word means the same
+// after:  at or after a date (yyyy-MM-dd) or time (yyyy-MM-ddTHH:mm); before: strictly before one
+// on:     during one day
+// Values with spaces go in double quotes, e.g. class:"Computer Science". All terms must match.
+// As a Predicate it filters any list; PlannerService.query runs it through the indexes instead.
+public final class EventQuery implements Predicate<TimeSlot> {
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    // Which events a query looks at: upcoming means from now on, past means before now
+    public enum Scope {
+        UPCOMING, PAST, ALL
+    }
+
+    private final LocalDateTime from;  // Inclusive; null for no lower bound
+    private final LocalDateTime to;    // Exclusive; null for no upper bound
+    private final List<String> classes; // As typed
+    private final List<String> names;  // Lower case
+    private final List<String> words;  // Lower case
+
+    private EventQuery(LocalDateTime from, LocalDateTime to, List<String> classes, List<String> names, List<String> words) {
+        this.from = from;
+        this.to = to;
+        this.classes = Collections.unmodifiableList(classes);
+        this.names = Collections.unmodifiableList(names);
+        this.words = Collections.unmodifiableList(words);
+    }
+
+    // Throws IllegalArgumentException, with a message fit for the user, for terms it doesn't understand
+    public static EventQuery parse(String text) {
+        LocalDateTime from = null;
+        LocalDateTime to = null;
+        List<String> classes = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        List<String> words = new ArrayList<>();
+        for (String token : tokenize(text)) {
+            int colon = token.indexOf(':');
+            String key = colon > 0 ? token.substring(0, colon) : "";
+            if (key.isEmpty() || !key.chars().allMatch(Character::isLetter)) {
+                words.add(unquote(token).toLowerCase(Locale.ROOT));
+                continue;
+            }
+            String value = unquote(token.substring(colon + 1));
+            if (value.isEmpty()) {
+                throw new IllegalArgumentException("Nothing after " + key + ":");
+            }
+            switch (key.toLowerCase(Locale.ROOT)) {
+                case "class":
+                    if (classes.stream().noneMatch(value::equalsIgnoreCase)) classes.add(value);
+                    break;
+                case "name":
+                    names.add(value.toLowerCase(Locale.ROOT));
+                    break;
+                case "text":
+                    words.add(value.toLowerCase(Locale.ROOT));
+                    break;
+                case "after":
+                    from = later(from, time(value));
+                    break;
+                case "before":
+                    to = earlier(to, time(value));
+                    break;
+                case "on":
+                    LocalDateTime day = date(value).atStartOfDay();
+                    from = later(from, day);
+                    to = earlier(to, day.plusDays(1));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown filter " + key + ": (use class:, name:, text:, after:, before: or on:)");
+            }
+        }
+        return new EventQuery(from, to, classes, names, words);
+    }
+
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+                token.append(c);
+            } else if (Character.isWhitespace(c) && !quoted) {
+                if (token.length() > 0) tokens.add(token.toString());
+                token.setLength(0);
+            } else {
+                token.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Missing closing quote");
+        }
+        if (token.length() > 0) tokens.add(token.toString());
+        return tokens;
+    }
+
+    private static String unquote(String value) {
+        return value.replace("\"", "");
+    }
+
+    private static LocalDate date(String value) {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Not a date: " + value + " (use yyyy-MM-dd)");
+        }
+    }
+
+    private static LocalDateTime time(String value) {
+        if (value.length() == 10) {
+            return date(value).atStartOfDay();
+        }
+        try {
+            return LocalDateTime.parse(value.replace('T', ' '), DATE_TIME);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Not a date: " + value + " (use yyyy-MM-dd or yyyy-MM-ddTHH:mm)");
+        }
+    }
+
+    private static LocalDateTime later(LocalDateTime a, LocalDateTime b) {
+        return a == null || b.isAfter(a) ? b : a;
+    }
+
+    private static LocalDateTime earlier(LocalDateTime a, LocalDateTime b) {
+        return a == null || b.isBefore(a) ? b : a;
+    }
+
+    @Override
+    public boolean test(TimeSlot event) {
+        LocalDateTime time = event.getDateTime();
+        if (from != null && (time == null || time.isBefore(from))) return false;
+        if (to != null && (time == null || !time.isBefore(to))) return false;
+        if (!classes.isEmpty() && classes.stream().noneMatch(event.getClassName()::equalsIgnoreCase)) return false;
+        if (names.isEmpty() && words.isEmpty()) return true;
+        String name = event.getEventName().toLowerCase(Locale.ROOT);
+        for (String part : names) {
+            if (!name.contains(part)) return false;
+        }
+        String description = event.getDescription() == null ? "" : event.getDescription().toLowerCase(Locale.ROOT);
+        for (String word : words) {
+            if (!name.contains(word) && !description.contains(word)) return false;
+        }
+        return true;
+    }
+
+    // True for a query without terms, which matches everything
+    public boolean isEmpty() {
+        return from == null && to == null && classes.isEmpty() && names.isEmpty() && words.isEmpty();
+    }
+
+    LocalDateTime getFrom() {
+        return from;
+    }
+
+    LocalDateTime getTo() {
+        return to;
+    }
+
+    List<String> getClasses() {
+        return classes;
+    }
+
+    // The terms no index can answer, as they would be typed
+    String describeTextTerms() {
+        List<String> terms = new ArrayList<>();
+        names.forEach(part -> terms.add("name:" + quote(part)));
+        words.forEach(word -> terms.add("text:" + quote(word)));
+        return String.join(" ", terms);
+    }
+
+    boolean hasTextTerms() {
+        return !names.isEmpty() || !words.isEmpty();
+    }
+
+    private static String quote(String value) {
+        return value.contains(" ") ? "\"" + value + "\"" : value;
+    }
+
+    // The query in canonical form
+    @Override
+    public String toString() {
+        List<String> terms = new ArrayList<>();
+        classes.forEach(className -> terms.add("class:" + quote(className)));
+        if (from != null) terms.add("after:" + from.format(DATE_TIME).replace(' ', 'T'));
+        if (to != null) terms.add("before:" + to.format(DATE_TIME).replace(' ', 'T'));
+        if (hasTextTerms()) terms.add(describeTextTerms());
+        return String.join(" ", terms);
+    }
+}
@@ -0,0 +1,173 @@
+package JavaFX;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+// The events of a time range in time order, produced one at a time for PlannerService.eventsBetween.
+// Upcoming events and past_events.txt come from the time index's sorted array, walked in place.
+// Compressed blocks are merged in as the walk reaches their first event and dropped once used up, so
+// only the blocks spanning the current time are in memory, usually just one. A range of only a few
+// blocks reads them through the archive's cache instead, as views repaint it. trySplit cuts the range
+// at a time near the middle of what is left, giving parallel streams halves that never overlap.
+final class EventRangeSpliterator implements Spliterator<TimeSlot> {
+    private static final int MIN_SPLIT = 4096; // Below this many events a split costs more than it saves
+    private static final Comparator<TimeSlot> BY_TIME = Comparator.comparing(TimeSlot::getDateTime);
+
+    private final TimeSlot[] hot; // Sorted by time, shared and never modified
+    private int hotPos;
+    private final int hotEnd;
+    private List<ColdArchive.Block> blocks; // Overlapping [from, to), in order of their first event
+    private int nextBlock;
+    private final ColdArchive coldArchive;
+    private final boolean cached;
+    private LocalDateTime from;
+    private final LocalDateTime to;
+    private final List<BlockCursor> open = new ArrayList<>();
+
+    // A decompressed block, read from its first event at or after from
+    private static final class BlockCursor {
+        final List<TimeSlot> events;
+        int pos;
+
+        BlockCursor(List<TimeSlot> events, int pos) {
+            this.events = events;
+            this.pos = pos;
+        }
+    }
+
+    EventRangeSpliterator(TimeSlot[] hot, int hotPos, int hotEnd, List<ColdArchive.Block> blocks,
+                          ColdArchive coldArchive, boolean cached, LocalDateTime from, LocalDateTime to) {
+        this.hot = hot;
+        this.hotPos = hotPos;
+        this.hotEnd = hotEnd;
+        this.blocks = blocks;
+        this.coldArchive = coldArchive;
+        this.cached = cached;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super TimeSlot> action) {
+        while (true) {
+            TimeSlot next = hotPos < hotEnd ? hot[hotPos] : null;
+            BlockCursor nextCursor = null;
+            for (BlockCursor cursor : open) {
+                TimeSlot head = cursor.events.get(cursor.pos);
+                if (next == null || head.getDateTime().isBefore(next.getDateTime())) {
+                    next = head;
+                    nextCursor = cursor;
+                }
+            }
+            // A block starting no later than the next event may hold something earlier; merge it in first
+            if (nextBlock < blocks.size()
+                    && (next == null || !blocks.get(nextBlock).getFirst().isAfter(next.getDateTime()))) {
+                openBlock(blocks.get(nextBlock++));
+                continue;
+            }
+            if (next == null) {
+                return false;
+            }
+            if (nextCursor == null) {
+                hotPos++;
+            } else if (++nextCursor.pos == nextCursor.events.size()
+                    || !nextCursor.events.get(nextCursor.pos).getDateTime().isBefore(to)) {
+                open.remove(nextCursor);
+            }
+            action.accept(next);
+            return true;
+        }
+    }
+
+    private void openBlock(ColdArchive.Block block) {
+        List<TimeSlot> events = cached ? coldArchive.read(block) : coldArchive.readOnce(block);
+        int pos = 0;
+        while (pos < events.size() && events.get(pos).getDateTime().isBefore(from)) pos++;
+        if (pos < events.size() && events.get(pos).getDateTime().isBefore(to)) {
+            open.add(new BlockCursor(events, pos));
+        }
+    }
+
+    // Hands the part of the range before a middle time to a new spliterator and keeps the rest.
+    // Only before traversal has opened a block, which is how streams split.
+    @Override
+    public Spliterator<TimeSlot> trySplit() {
+        if (!open.isEmpty() || estimateSize() < MIN_SPLIT) {
+            return null;
+        }
+        int hotCount = hotEnd - hotPos;
+        int unopened = blocks.size() - nextBlock;
+        if (hotCount == 0 && unopened < 2) {
+            return null;
+        }
+        LocalDateTime middle;
+        if (hotCount >= coldEvents() || unopened < 2) {
+            middle = hot[hotPos + hotCount / 2].getDateTime();
+        } else {
+            middle = blocks.get(nextBlock + unopened / 2).getFirst();
+        }
+        if (!middle.isAfter(from) || !middle.isBefore(to)) {
+            return null;
+        }
+        int hotSplit = firstAtOrAfter(middle);
+        List<ColdArchive.Block> before = new ArrayList<>();
+        List<ColdArchive.Block> after = new ArrayList<>();
+        for (ColdArchive.Block block : blocks.subList(nextBlock, blocks.size())) {
+            // A block spanning the middle goes to both halves, each reading its own part
+            if (block.getFirst().isBefore(middle)) before.add(block);
+            if (!block.getLast().isBefore(middle)) after.add(block);
+        }
+        Spliterator<TimeSlot> prefix = new EventRangeSpliterator(hot, hotPos, hotSplit, before, coldArchive, cached, from, middle);
+        hotPos = hotSplit;
+        blocks = after;
+        nextBlock = 0;
+        from = middle;
+        return prefix;
+    }
+
+    private int firstAtOrAfter(LocalDateTime time) {
+        int low = hotPos;
+        int high = hotEnd;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (hot[mid].getDateTime().isBefore(time)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private long coldEvents() {
+        long count = 0;
+        for (int i = nextBlock; i < blocks.size(); i++) {
+            count += blocks.get(i).getCount();
+        }
+        return count;
+    }
+
+    // Counts whole blocks, so it runs high where a block only partly overlaps the range
+    @Override
+    public long estimateSize() {
+        long remaining = hotEnd - hotPos + coldEvents();
+        for (BlockCursor cursor : open) {
+            remaining += cursor.events.size() - cursor.pos;
+        }
+        return remaining;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | SORTED | NONNULL | IMMUTABLE;
+    }
+
+    @Override
+    public Comparator<? super TimeSlot> getComparator() {
+        return BY_TIME;
+    }
+}
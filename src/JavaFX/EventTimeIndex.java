@@ -0,0 +1,72 @@
+package JavaFX;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+// Upcoming and archived events sorted by time, so a date range is two binary searches instead of a full scan
+class EventTimeIndex {
+    private final List<TimeSlot> sourceEvents;
+    private final List<TimeSlot> sourcePastEvents;
+    private final TimeSlot[] sorted;
+
+    EventTimeIndex(List<TimeSlot> events, List<TimeSlot> pastEvents) {
+        this.sourceEvents = events;
+        this.sourcePastEvents = pastEvents;
+        List<TimeSlot> all = new ArrayList<>(events.size() + pastEvents.size());
+        for (TimeSlot event : events) {
+            if (event.getDateTime() != null) all.add(event);
+        }
+        for (TimeSlot event : pastEvents) {
+            if (event.getDateTime() != null) all.add(event);
+        }
+        sorted = all.toArray(new TimeSlot[0]);
+        Arrays.sort(sorted, Comparator.comparing(TimeSlot::getDateTime));
+    }
+
+    // The service swaps in new cache lists on every write, so identity tells us whether the index is stale
+    boolean isBuiltFrom(List<TimeSlot> events, List<TimeSlot> pastEvents) {
+        return sourceEvents == events && sourcePastEvents == pastEvents;
+    }
+
+    // Events with from <= time < to, in time order
+    List<TimeSlot> between(LocalDateTime from, LocalDateTime to) {
+        int start = firstAtOrAfter(from);
+        int end = firstAtOrAfter(to);
+        if (start >= end) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(Arrays.asList(Arrays.copyOfRange(sorted, start, end)));
+    }
+
+    // How many events between() would return, without copying them
+    int count(LocalDateTime from, LocalDateTime to) {
+        return Math.max(0, firstAtOrAfter(to) - firstAtOrAfter(from));
+    }
+
+    int size() {
+        return sorted.length;
+    }
+
+    // The sorted events themselves, for walking a range without copying it; never modify them
+    TimeSlot[] sortedEvents() {
+        return sorted;
+    }
+
+    int firstAtOrAfter(LocalDateTime time) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid].getDateTime().isBefore(time)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,169 @@
+package JavaFX;
+
+import javafx.animation.Animation;
+import javafx.animation.AnimationTimer;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.control.Label;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+// Frame-time overlay driven by the JavaFX pulse; only does work while it is visible
+public class PerformanceOverlay {
+    private static final int TRACE_SIZE = 3600; // About a minute of frames at 60 fps
+    private static final long REFRESH_NANOS = 250_000_000L;
+
+    private final Parent observedRoot;
+    private final VBox panel = new VBox(2);
+    private final Label fpsLabel = new Label();
+    private final Label frameLabel = new Label();
+    private final Label nodesLabel = new Label();
+    private final Label animationsLabel = new Label();
+    private final Label heapLabel = new Label();
+    private final Set<Animation> runningAnimations = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    // Ring buffer of recent frames: pulse timestamp, frame time, running animations, heap in use
+    private final long[] pulseTimes = new long[TRACE_SIZE];
+    private final long[] frameTimes = new long[TRACE_SIZE];
+    private final int[] animationCounts = new int[TRACE_SIZE];
+    private final long[] heapUsed = new long[TRACE_SIZE];
+    private int frameCount;
+    private long lastPulse;
+    private long lastRefresh;
+
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            recordFrame(now);
+        }
+    };
+
+    public PerformanceOverlay(Parent observedRoot) {
+        this.observedRoot = observedRoot;
+        panel.getChildren().addAll(fpsLabel, frameLabel, nodesLabel, animationsLabel, heapLabel);
+        panel.setPadding(new Insets(8));
+        panel.setMaxSize(260, 120);
+        panel.setStyle("-fx-background-color: rgba(0, 0, 0, 0.6); -fx-background-radius: 8;");
+        for (Node label : panel.getChildren()) {
+            label.setStyle("-fx-font-family: monospace; -fx-font-size: 12px; -fx-text-fill: #7CFC00;");
+        }
+        panel.setMouseTransparent(true);
+        panel.setVisible(false);
+        StackPane.setAlignment(panel, Pos.TOP_LEFT);
+        StackPane.setMargin(panel, new Insets(10));
+    }
+
+    public Node getNode() {
+        return panel;
+    }
+
+    public void toggle() {
+        if (panel.isVisible()) {
+            timer.stop();
+            panel.setVisible(false);
+        } else {
+            frameCount = 0;
+            lastPulse = 0;
+            panel.setVisible(true);
+            timer.start();
+        }
+    }
+
+    // Keeps a live count of running animations without polling them every frame
+    public void track(Animation animation) {
+        animation.statusProperty().addListener((obs, oldStatus, newStatus) -> {
+            if (newStatus == Animation.Status.RUNNING) {
+                runningAnimations.add(animation);
+            } else {
+                runningAnimations.remove(animation);
+            }
+        });
+    }
+
+    private void recordFrame(long now) {
+        if (lastPulse != 0) {
+            Runtime runtime = Runtime.getRuntime();
+            int slot = frameCount % TRACE_SIZE;
+            pulseTimes[slot] = now;
+            frameTimes[slot] = now - lastPulse;
+            animationCounts[slot] = runningAnimations.size();
+            heapUsed[slot] = runtime.totalMemory() - runtime.freeMemory();
+            frameCount++;
+        }
+        lastPulse = now;
+
+        if (now - lastRefresh >= REFRESH_NANOS && frameCount > 0) {
+            lastRefresh = now;
+            refreshLabels(now);
+        }
+    }
+
+    private void refreshLabels(long now) {
+        int samples = Math.min(frameCount, TRACE_SIZE);
+        long[] sorted = Arrays.copyOf(frameTimes, samples);
+        Arrays.sort(sorted);
+
+        int framesLastSecond = 0;
+        for (int i = 0; i < samples; i++) {
+            if (now - pulseTimes[i] <= 1_000_000_000L) framesLastSecond++;
+        }
+
+        Runtime runtime = Runtime.getRuntime();
+        long used = runtime.totalMemory() - runtime.freeMemory();
+        fpsLabel.setText(String.format("FPS        %d", framesLastSecond));
+        frameLabel.setText(String.format("frame ms   p50 %.1f  p95 %.1f  p99 %.1f",
+                percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99)));
+        nodesLabel.setText(String.format("nodes      %d", countNodes(observedRoot)));
+        animationsLabel.setText(String.format("animations %d", runningAnimations.size()));
+        heapLabel.setText(String.format("heap       %d / %d MB", used >> 20, runtime.maxMemory() >> 20));
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.min(sorted.length - 1, Math.round(p * (sorted.length - 1)));
+        return sorted[index] / 1_000_000.0;
+    }
+
+    private static int countNodes(Node node) {
+        int count = 1;
+        if (node instanceof Parent) {
+            for (Node child : ((Parent) node).getChildrenUnmodifiable()) {
+                count += countNodes(child);
+            }
+        }
+        return count;
+    }
+
+    // Writes the recorded frames, oldest first, as CSV and returns the file
+    public Path dumpTrace() throws IOException {
+        String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Path file = Paths.get("perf_trace_" + stamp + ".csv");
+        int samples = Math.min(frameCount, TRACE_SIZE);
+        int first = frameCount - samples;
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("pulse_nanos,frame_ms,running_animations,heap_bytes");
+            writer.newLine();
+            for (int i = first; i < frameCount; i++) {
+                int slot = i % TRACE_SIZE;
+                writer.write(pulseTimes[slot] + "," + (frameTimes[slot] / 1_000_000.0) + ","
+                        + animationCounts[slot] + "," + heapUsed[slot]);
+                writer.newLine();
+            }
+        }
+        return file;
+    }
+}
@@ -11,127 +11,353 @@ import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.scene.effect.GaussianBlur;
 import javafx.scene.image.Image;
 import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.text.TextAlignment;
+import javafx.stage.DirectoryChooser;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import javafx.util.Duration;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.System.Logger.Level;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.DateTimeException;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 public class PlannerApp extends Application {
+    private static final System.Logger LOG = PlannerLog.getLogger(PlannerApp.class);
+    private static final int WINDOW_WIDTH = 700;
+    private static final int WINDOW_HEIGHT = 750;
+    private static final double BACKGROUND_BLUR = 20;
+    private static final String BACKGROUND_DIR = "backgrounds"; // Optional folder of user-supplied images
+    private static final int VIEW_CACHE_SIZE = 4; // Views kept alive between navigations
+    private static final java.time.Duration BACKUP_INTERVAL = java.time.Duration.ofMinutes(10);
     private static PlannerApp instance;
     private PlannerService plannerService;
     private ListView<String> upcomingEventsList;
+    private EventQuery upcomingFilter; // From the main view's filter bar; null shows every upcoming event
     private StackPane root; // Single root container for all views
     private Stage primaryStage; // Single stage reference
     private Region backLayer; // Background layer 1
     private Region frontLayer; // Background layer 2
     private Timeline backgroundTimeline; // Timeline for background fading
-    private List<BackgroundImage> backgrounds; // Preloaded background images
+    private BackgroundSource backgroundSource; // Decodes backgrounds on demand, two at a time
+    private final BackgroundImageCache backgroundCache = new BackgroundImageCache(WINDOW_WIDTH, WINDOW_HEIGHT, BACKGROUND_BLUR);
     private Node previousView; // Store the previous view to restore it
+    private boolean startupComplete; // Set once the first upcoming events have been shown
+    private PerformanceOverlay performanceOverlay; // FPS / frame-time overlay toggled with F3
+    private final ViewCache viewCache = new ViewCache(VIEW_CACHE_SIZE); // Built views, re-bound on navigation
+    private ToastHost toastHost;
+    private ReminderScheduler reminderScheduler;
+    private BackupService backupService;
+    private DataDirectoryWatcher dataWatcher;
+    private WorkspaceManager workspaces;
 
     @Override
     public void start(Stage primaryStage) {
         instance = this;
+        PlannerService.setDefaultNotifier(Platform::runLater);
         this.primaryStage = primaryStage;
-        plannerService = new PlannerService();
-
-        // Preload background images synchronously
-        preloadBackgroundImages();
 
         root = new StackPane();
         root.setStyle("-fx-background-color: #474747 ;");
-        // Set up the background once at startup and persist it across views
-        initializeBackground();
 
-        showMainView();
+        // Show a skeleton right away; data, images and classes load in the background
+        showLoadingView();
 
-        Scene scene = new Scene(root, 700, 750);
+        // The overlays sit above root so view switches never remove them
+        performanceOverlay = new PerformanceOverlay(root);
+        toastHost = new ToastHost(this::play);
+        StackPane sceneRoot = new StackPane(root, toastHost.getNode(), performanceOverlay.getNode());
+        Scene scene = new Scene(sceneRoot, WINDOW_WIDTH, WINDOW_HEIGHT);
         scene.setFill(Color.TRANSPARENT);
         String cssFile = getClass().getResource("styles.css").toExternalForm();
         if (cssFile == null) {
-            System.err.println("CSS file not found!");
+            LOG.log(Level.WARNING, "CSS file not found!");
         } else {
-            System.out.println("CSS file loaded: " + cssFile);
+            LOG.log(Level.DEBUG, "CSS file loaded: {0}", cssFile);
             scene.getStylesheets().add(cssFile);
         }
 
+        // F3 toggles the performance overlay, Shift+F3 writes its frame trace to disk
+        scene.addEventFilter(KeyEvent.KEY_PRESSED, keyEvent -> {
+            if (keyEvent.getCode() != KeyCode.F3) return;
+            if (keyEvent.isShiftDown()) {
+                try {
+                    showAlert("Trace Saved", "Frame trace written to " + performanceOverlay.dumpTrace());
+                } catch (IOException ex) {
+                    showAlert("Trace Failed", ex.getMessage());
+                }
+            } else {
+                performanceOverlay.toggle();
+            }
+            keyEvent.consume();
+        });
+
+        // Ctrl+Z undoes the last change to the planner, Ctrl+Y or Ctrl+Shift+Z redoes it; text fields keep their own
+        scene.addEventFilter(KeyEvent.KEY_PRESSED, keyEvent -> {
+            if (plannerService == null || !keyEvent.isShortcutDown()
+                    || scene.getFocusOwner() instanceof TextInputControl) return;
+            if (keyEvent.getCode() == KeyCode.Z && !keyEvent.isShiftDown()) {
+                runUndo(true);
+            } else if (keyEvent.getCode() == KeyCode.Y || keyEvent.getCode() == KeyCode.Z) {
+                runUndo(false);
+            } else {
+                return;
+            }
+            keyEvent.consume();
+        });
+
         primaryStage.setTitle("Planner App");
         primaryStage.setScene(scene);
         primaryStage.show();
+
+        new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                LOG.log(Level.INFO, "Startup: first frame after {0} ms", millisSinceLaunch());
+                stop();
+            }
+        }.start();
+
+        ExecutorService startupExecutor = Executors.newFixedThreadPool(3, runnable -> {
+            Thread thread = new Thread(runnable, "startup-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        CompletableFuture.runAsync(PlannerApp::preloadClasses, startupExecutor);
+
+        CompletableFuture.supplyAsync(() -> {
+                    backgroundSource = BackgroundSource.create(Paths.get(BACKGROUND_DIR), backgroundCache);
+                    return backgroundSource.loadFirst();
+                }, startupExecutor)
+                // Set up the background once and persist it across views
+                .thenAcceptAsync(this::initializeBackground, Platform::runLater);
+
+        CompletableFuture.supplyAsync(() -> {
+                    workspaces = WorkspaceManager.load(Paths.get(WorkspaceManager.FILE));
+                    PlannerService service = workspaces.open(workspaces.getActiveName());
+                    service.movePastEventsToStorage();
+                    return service;
+                }, startupExecutor)
+                .thenAcceptAsync(service -> {
+                    plannerService = service;
+                    showMainView();
+                    startWorkspaceServices();
+                }, Platform::runLater)
+                .exceptionally(ex -> {
+                    LOG.log(Level.ERROR, "Startup failed", ex);
+                    return null;
+                });
+
+        startupExecutor.shutdown();
     }
 
-    public static PlannerApp getInstance() {
-        return instance;
+    // Reminders, backups and archive compaction run for the active workspace only
+    private void startWorkspaceServices() {
+        startReminders();
+        backupService = new BackupService(plannerService, plannerService.getDataDirectory().resolve(BackupService.DIRECTORY));
+        backupService.start(BACKUP_INTERVAL);
+        dataWatcher = new DataDirectoryWatcher(plannerService);
+        dataWatcher.start();
+        CompletableFuture.runAsync(plannerService::compactArchive);
     }
 
-    private void preloadBackgroundImages() {
-        String[] imagePaths = {
-                "/JavaFX/pexels-eberhardgross-1670187.jpg",
-                "/JavaFX/pexels-katja-79053-592077.jpg",
-                "/JavaFX/pexels-mattdvphotography-3082313.jpg",
-                "/JavaFX/pexels-pixabay-33109.jpg",
-                "/JavaFX/pexels-todd-trapani-488382-2754200.jpg",
-        };
+    private void stopWorkspaceServices() {
+        reminderScheduler.stop();
+        backupService.stop();
+        dataWatcher.stop();
+        plannerService.saveSyncState();
+    }
 
-        backgrounds = new ArrayList<>();
-        for (String path : imagePaths) {
+    @Override
+    public void stop() {
+        if (plannerService != null) {
+            stopWorkspaceServices();
+        }
+    }
+
+    private void syncWith(Path directory) {
+        PlannerService service = plannerService;
+        CompletableFuture.supplyAsync(() -> PlannerSync.sync(service, workspaces.serviceFor(directory)))
+                .thenAcceptAsync(result -> toastHost.show("Sync", "Synced with " + directory.getFileName() + ": "
+                        + result.getReceived() + " changes received, " + result.getSent() + " sent", null), Platform::runLater)
+                .exceptionally(ex -> {
+                    LOG.log(Level.ERROR, "Could not sync with " + directory, ex);
+                    Platform.runLater(() -> showAlert("Sync Failed", "Could not sync with " + directory + "."));
+                    return null;
+                });
+    }
+
+    // Opening a workspace may read its files, so that happens off the FX thread. Cached views hold
+    // listeners on the old service, so they are disposed and rebuilt for the new one.
+    private void switchWorkspace(String name) {
+        if (name.equals(workspaces.getActiveName())) return;
+        CompletableFuture.supplyAsync(() -> {
+                    PlannerService service = workspaces.open(name);
+                    service.movePastEventsToStorage();
+                    return service;
+                })
+                .thenAcceptAsync(service -> {
+                    stopWorkspaceServices();
+                    viewCache.clear(); // Disposers still see the old service
+                    plannerService = service;
+                    startWorkspaceServices();
+                    showMainView();
+                    toastHost.show("Workspace", "Switched to " + name, null);
+                }, Platform::runLater)
+                .exceptionally(ex -> {
+                    LOG.log(Level.ERROR, "Could not open workspace " + name, ex);
+                    Platform.runLater(() -> showAlert("Workspace Error", "Could not open workspace " + name + "."));
+                    return null;
+                });
+    }
+
+    // Reminders are queued from the time index off the FX thread and shown as toasts when due
+    private void startReminders() {
+        ReminderSettings settings = ReminderSettings.load(plannerService.getDataDirectory().resolve(ReminderSettings.FILE));
+        reminderScheduler = new ReminderScheduler(plannerService, settings,
+                reminder -> Platform.runLater(() -> showReminder(reminder)));
+        CompletableFuture.runAsync(reminderScheduler::start);
+    }
+
+    private void showReminder(ReminderScheduler.Reminder reminder) {
+        TimeSlot event = reminder.getEvent();
+        long minutes = Math.max(0, java.time.Duration.between(LocalDateTime.now(), event.getDateTime()).toMinutes());
+        String when = minutes < 60 ? "in " + minutes + " min" :
+                minutes < 24 * 60 ? "in " + (minutes / 60) + " h" : "in " + (minutes / (24 * 60)) + " days";
+        toastHost.show("Reminder: " + event.getEventName(),
+                event.getClassName() + " - " + when + " (" + event.getTimeFormatted() + ")",
+                () -> showEventDetailsView(event));
+    }
+
+    // Large undos rewrite files, so they run off the FX thread and report back with a toast
+    private void runUndo(boolean undo) {
+        CompletableFuture.supplyAsync(() -> undo ? plannerService.undo() : plannerService.redo())
+                .thenAcceptAsync(description -> toastHost.show(undo ? "Undo" : "Redo",
+                        description == null ? "Nothing to " + (undo ? "undo" : "redo")
+                                : (undo ? "Undid: " : "Redid: ") + description, null), Platform::runLater)
+                .exceptionally(ex -> {
+                    LOG.log(Level.ERROR, undo ? "Undo failed" : "Redo failed", ex);
+                    return null;
+                });
+    }
+
+    // Starts an animation and lets the performance overlay count it while it runs
+    private void play(Animation animation) {
+        performanceOverlay.track(animation);
+        animation.play();
+    }
+
+    private static long millisSinceLaunch() {
+        return ProcessHandle.current().info().startInstant()
+                .map(start -> java.time.Duration.between(start, Instant.now()).toMillis())
+                .orElse(-1L);
+    }
+
+    // Loads (without initializing) classes the first real views need, so the FX thread doesn't pay for it
+    private static void preloadClasses() {
+        String[] classNames = {
+                "javafx.scene.control.skin.ListViewSkin",
+                "javafx.scene.control.skin.ListCellSkin",
+                "javafx.scene.control.skin.ComboBoxListViewSkin",
+                "javafx.scene.control.skin.TextFieldSkin",
+                "javafx.scene.control.skin.TextAreaSkin",
+                "javafx.scene.control.skin.ScrollPaneSkin",
+                "javafx.scene.control.skin.ButtonSkin",
+                "javafx.scene.control.skin.VirtualFlow",
+                "javafx.animation.FadeTransition",
+                "javafx.animation.Timeline",
+                "JavaFX.EventImporter",
+                "JavaFX.EventExporter",
+        };
+        ClassLoader loader = PlannerApp.class.getClassLoader();
+        for (String className : classNames) {
             try {
-                System.out.println("Loading image: " + path);
-                Image image = new Image(getClass().getResource(path).toExternalForm(), true);
-                if (!image.isError()) {
-                    backgrounds.add(new BackgroundImage(
-                            image,
-                            BackgroundRepeat.NO_REPEAT,
-                            BackgroundRepeat.NO_REPEAT,
-                            BackgroundPosition.CENTER,
-                            new BackgroundSize(BackgroundSize.AUTO, BackgroundSize.AUTO, false, false, true, true)
-                    ));
-                }
-            } catch (NullPointerException e) {
-                System.err.println("Skipping missing resource: " + path);
+                Class.forName(className, false, loader);
+            } catch (ClassNotFoundException | LinkageError e) {
+                LOG.log(Level.DEBUG, "Could not preload class: {0}", className);
             }
         }
+    }
 
-        if (backgrounds.isEmpty()) {
-            System.err.println("No background images loaded. Using fallback.");
-        } else {
-            System.out.println("Successfully preloaded " + backgrounds.size() + " background images.");
-        }
+    // Placeholder shown until the planner data has loaded
+    private void showLoadingView() {
+        Label title = new Label("Upcoming Events");
+        title.setStyle("-fx-font-size: 40px;" +
+                "-fx-font-family: Oswald ");
+        title.getStyleClass().add("dialog-label");
+
+        ProgressIndicator progress = new ProgressIndicator();
+        progress.setMaxSize(60, 60);
+
+        Label loadingLabel = new Label("Loading events...");
+        loadingLabel.getStyleClass().add("card-label-value");
+
+        VBox skeleton = new VBox(20, title, progress, loadingLabel);
+        skeleton.setAlignment(Pos.CENTER);
+
+        Region translucentBox = new Region();
+        translucentBox.setStyle("-fx-background-color: rgba(150, 150, 150, 0.4);" +
+                "-fx-background-radius: 30;");
+        translucentBox.setMaxSize(500, 700);
+        translucentBox.setMinSize(500, 700);
+
+        root.getChildren().add(new StackPane(translucentBox, skeleton));
+        root.setAlignment(Pos.CENTER);
+    }
+
+    // Removes the current view while keeping the background layers
+    private void clearViews() {
+        root.getChildren().removeIf(node -> node != backLayer && node != frontLayer);
     }
 
-    private void initializeBackground() {
-        if (backgrounds == null || backgrounds.isEmpty()) {
+    public static PlannerApp getInstance() {
+        return instance;
+    }
+
+    private void initializeBackground(BackgroundImageCache.Entry firstImage) {
+        if (firstImage == null) {
+            LOG.log(Level.WARNING, "No background images loaded. Using fallback.");
             root.setBackground(new Background(new BackgroundFill(Color.DARKGRAY, CornerRadii.EMPTY, Insets.EMPTY)));
             return;
         }
-
-        // Shuffle for variety
-        Collections.shuffle(backgrounds);
+        LOG.log(Level.DEBUG, "Background images available: {0}", backgroundSource.size());
 
         // Create background layers
         backLayer = new Region();
         frontLayer = new Region();
 
-        backLayer.setBackground(new Background(backgrounds.get(0))); // Start with first image
-        frontLayer.setBackground(new Background(backgrounds.get(1 % backgrounds.size()))); // Next image
+        // Images not yet in the disk cache are blurred once here, on the FX thread
+        backLayer.setBackground(toBackground(backgroundSource.finish(firstImage))); // Start with first image
         frontLayer.setOpacity(0); // Front layer starts invisible
+        backgroundSource.prefetchNext();
 
-        // Apply GaussianBlur to the background layers
-        GaussianBlur blur = new GaussianBlur(20); // Adjust blur radius as needed
-        backLayer.setEffect(blur);
-        frontLayer.setEffect(blur);
+        // The images are already blurred, so the layers need no per-frame effect
+        backLayer.setCache(true);
+        frontLayer.setCache(true);
 
         // Ensure layers fill the root
         backLayer.prefWidthProperty().bind(root.widthProperty());
@@ -139,17 +365,21 @@ public class PlannerApp extends Application {
         frontLayer.prefWidthProperty().bind(root.widthProperty());
         frontLayer.prefHeightProperty().bind(root.heightProperty());
 
-        // Add layers to the StackPane (root) at the bottom
-        root.getChildren().addAll(backLayer, frontLayer);
+        // Add layers to the StackPane (root) at the bottom, beneath whatever view is already showing
+        root.getChildren().addAll(0, List.of(backLayer, frontLayer));
 
         // Smooth background cycling with cross-fade
-        AtomicInteger currentIndex = new AtomicInteger(1); // Start at second image
         backgroundTimeline = new Timeline();
         backgroundTimeline.getKeyFrames().add(new KeyFrame(Duration.seconds(5), e -> {
-            int nextIndex = (currentIndex.get() + 1) % backgrounds.size(); // Move to next image, loop back
+            // The next image was prefetched during the last cycle; if it isn't decoded yet, wait for the next one
+            Image nextImage = backgroundSource.takeNext();
+            if (nextImage == null) {
+                backgroundSource.prefetchNext();
+                return;
+            }
 
             // Prepare the next image in the front layer
-            frontLayer.setBackground(new Background(backgrounds.get(nextIndex)));
+            frontLayer.setBackground(toBackground(nextImage));
 
             // Cross-fade: fade out backLayer while fading in frontLayer
             FadeTransition fadeOutBack = new FadeTransition(Duration.seconds(2), backLayer);
@@ -162,25 +392,56 @@ public class PlannerApp extends Application {
 
             // On completion, swap roles and prepare for next transition
             fadeInFront.setOnFinished(event -> {
+                // The previous image is no longer referenced by either layer and can be collected
                 backLayer.setBackground(frontLayer.getBackground());
+                frontLayer.setBackground(null);
                 backLayer.setOpacity(1); // Reset backLayer to full opacity
                 frontLayer.setOpacity(0); // Reset frontLayer to invisible
-                currentIndex.set(nextIndex);
+                backgroundSource.prefetchNext();
             });
 
             // Play both transitions simultaneously for a smoother cross-fade
-            fadeOutBack.play();
-            fadeInFront.play();
+            play(fadeOutBack);
+            play(fadeInFront);
         }));
         backgroundTimeline.setCycleCount(Timeline.INDEFINITE);
-        backgroundTimeline.play();
+        play(backgroundTimeline);
+    }
+
+    private static Background toBackground(Image image) {
+        return new Background(new BackgroundImage(
+                image,
+                BackgroundRepeat.NO_REPEAT,
+                BackgroundRepeat.NO_REPEAT,
+                BackgroundPosition.CENTER,
+                new BackgroundSize(BackgroundSize.AUTO, BackgroundSize.AUTO, false, false, true, true)
+        ));
     }
 
     private void showMainView() {
+        showCachedView("main", this::buildMainView, null);
+    }
+
+    // Swaps in the cached view for the key, re-binding it to current data before it fades in
+    private <A> void showCachedView(String key, Supplier<ViewCache.View<A>> builder, A argument) {
         // Clear the content except for the background layers
-        List<Node> childrenToKeep = List.of(backLayer, frontLayer);
-        root.getChildren().removeIf(node -> !childrenToKeep.contains(node));
+        clearViews();
+
+        ViewCache.View<A> view = viewCache.get(key, builder);
+        view.bind(argument);
+
+        Node node = view.getNode();
+        root.getChildren().add(node);
+        root.setAlignment(Pos.CENTER);
+        previousView = node;
+
+        FadeTransition fadeIn = new FadeTransition(Duration.millis(300), node);
+        fadeIn.setFromValue(0);
+        fadeIn.setToValue(1);
+        play(fadeIn);
+    }
 
+    private ViewCache.View<Void> buildMainView() {
         BorderPane uiLayout = new BorderPane();
         uiLayout.setPadding(new Insets(20));
 
@@ -192,14 +453,15 @@ public class PlannerApp extends Application {
 
         upcomingEventsList = new ListView<>();
         upcomingEventsList.setPrefWidth(400);
-        upcomingEventsList.setPrefHeight(500);
+        upcomingEventsList.setPrefHeight(380);
         upcomingEventsList.setMaxWidth(400);
-        upcomingEventsList.setMaxHeight(500);
+        upcomingEventsList.setMaxHeight(380);
         upcomingEventsList.setMinWidth(400);
-        upcomingEventsList.setMinHeight(500);
-        plannerService.addUpdateListener(() -> Platform.runLater(this::updateUpcomingEvents));
-        plannerService.movePastEventsToStorage();
-        updateUpcomingEvents();
+        upcomingEventsList.setMinHeight(380);
+        upcomingEventsList.setPlaceholder(new Label("Loading events..."));
+        // Registered once per built view and removed again if the view is evicted
+        Runnable refreshListener = () -> Platform.runLater(this::updateUpcomingEvents);
+        plannerService.addUpdateListener(refreshListener);
 
         // Customize the cell factory to disable hover and selection effects
         upcomingEventsList.setCellFactory(lv -> new ListCell<String>() {
@@ -239,7 +501,32 @@ public class PlannerApp extends Application {
         buttonRow.setAlignment(Pos.CENTER);
         buttonRow.setMaxWidth(400);
 
-        VBox listWithButtons = new VBox(15, upcomingEventsList, buttonRow);
+        Button calendarBtn = new Button("Calendar");
+        calendarBtn.getStyleClass().add("button");
+        calendarBtn.setPrefWidth(120);
+        calendarBtn.setOnAction(e -> showCalendarView());
+
+        Button timelineBtn = new Button("Timeline");
+        timelineBtn.getStyleClass().add("button");
+        timelineBtn.setPrefWidth(120);
+        timelineBtn.setOnAction(e -> showTimelineView());
+
+        Button statisticsBtn = new Button("Statistics");
+        statisticsBtn.getStyleClass().add("button");
+        statisticsBtn.setPrefWidth(120);
+        statisticsBtn.setOnAction(e -> showStatisticsView());
+
+        HBox secondButtonRow = new HBox(15, calendarBtn, timelineBtn, statisticsBtn);
+        secondButtonRow.setAlignment(Pos.CENTER);
+        secondButtonRow.setMaxWidth(400);
+
+        TextField upcomingFilterBar = filterBar(EventQuery.Scope.UPCOMING, query -> {
+            upcomingFilter = query;
+            updateUpcomingEvents();
+        });
+        upcomingFilterBar.setMaxWidth(400);
+
+        VBox listWithButtons = new VBox(15, upcomingFilterBar, upcomingEventsList, buttonRow, secondButtonRow);
         listWithButtons.setAlignment(Pos.CENTER);
 
         StackPane listPane = new StackPane(listWithButtons);
@@ -247,9 +534,52 @@ public class PlannerApp extends Application {
         listPane.setMaxWidth(400);
         listPane.setMaxHeight(560);
 
-        uiLayout.setTop(title);
-        BorderPane.setAlignment(title, Pos.CENTER);
-        BorderPane.setMargin(title, new Insets(40, 0, 0, 0));
+        // Workspace switcher; the last entry adds a workspace from a folder
+        String newWorkspace = "New Workspace...";
+        boolean[] fillingWorkspaces = {false};
+        // The service was just archived when it was opened, at startup or on a workspace switch
+        boolean[] archivedOnOpen = {true};
+        ComboBox<String> workspaceBox = new ComboBox<>();
+        workspaceBox.setPrefWidth(200);
+        workspaceBox.setOnAction(e -> {
+            String selected = workspaceBox.getValue();
+            if (fillingWorkspaces[0] || selected == null) return;
+            if (!selected.equals(newWorkspace)) {
+                switchWorkspace(selected);
+                return;
+            }
+            DirectoryChooser chooser = new DirectoryChooser();
+            chooser.setTitle("Choose a folder for the new workspace");
+            File directory = chooser.showDialog(primaryStage);
+            workspaceBox.setValue(workspaces.getActiveName());
+            if (directory == null) return;
+            String name = directory.getName();
+            for (int i = 2; workspaces.getNames().contains(name); i++) {
+                name = directory.getName() + " " + i;
+            }
+            workspaces.add(name, directory.toPath());
+            switchWorkspace(name);
+        });
+
+        // Merges the active workspace with another planner folder, such as a copy on a shared drive
+        Button syncBtn = new Button("Sync...");
+        syncBtn.getStyleClass().add("button");
+        syncBtn.setOnAction(e -> {
+            DirectoryChooser chooser = new DirectoryChooser();
+            chooser.setTitle("Choose a planner folder to sync with");
+            File directory = chooser.showDialog(primaryStage);
+            if (directory != null) {
+                syncWith(directory.toPath());
+            }
+        });
+
+        HBox workspaceRow = new HBox(10, workspaceBox, syncBtn);
+        workspaceRow.setAlignment(Pos.CENTER);
+        VBox header = new VBox(5, title, workspaceRow);
+        header.setAlignment(Pos.CENTER);
+        uiLayout.setTop(header);
+        BorderPane.setAlignment(header, Pos.CENTER);
+        BorderPane.setMargin(header, new Insets(20, 0, 0, 0));
         uiLayout.setCenter(listPane);
         BorderPane.setAlignment(listPane, Pos.CENTER);
 
@@ -268,15 +598,11 @@ public class PlannerApp extends Application {
         contentWithBackdrop.getChildren().addAll(translucentBox, uiLayout);
         StackPane.setAlignment(contentWithBackdrop, Pos.CENTER);
 
-        root.getChildren().add(contentWithBackdrop);
-        root.setAlignment(Pos.CENTER);
-        previousView = uiLayout;
-
         // Updated handler to ignore "No upcoming events" message
         upcomingEventsList.setOnMouseClicked(event -> {
             if (event.getClickCount() == 2) {
                 String selectedEvent = upcomingEventsList.getSelectionModel().getSelectedItem();
-                if (selectedEvent != null && !selectedEvent.equals("No upcoming events.")) {
+                if (selectedEvent != null && !selectedEvent.equals("No upcoming events.") && !selectedEvent.equals("No matching events.")) {
                     String[] parts = selectedEvent.split(" - ");
                     if (parts.length < 3) {
                         showAlert("Error", "Invalid event format.");
@@ -360,7 +686,7 @@ public class PlannerApp extends Application {
                                 new KeyValue(confirmationCard.opacityProperty(), 1, Interpolator.EASE_OUT)
                         )
                 );
-                timeline.play();
+                play(timeline);
 
                 // Ensure the confirmation card receives focus
                 Platform.runLater(() -> {
@@ -384,15 +710,28 @@ public class PlannerApp extends Application {
         });
         contentWithBackdrop.setFocusTraversable(true);
 
-        FadeTransition fadeIn = new FadeTransition(Duration.millis(300), contentWithBackdrop);
-        fadeIn.setFromValue(0);
-        fadeIn.setToValue(1);
-        fadeIn.play();
+        return new ViewCache.View<>(contentWithBackdrop, ignored -> {
+            isConfirmationCardOpen[0] = false; // A card left open is removed along with the view
+            fillingWorkspaces[0] = true;
+            workspaceBox.getItems().setAll(workspaces.getNames());
+            workspaceBox.getItems().add(newWorkspace);
+            workspaceBox.setValue(workspaces.getActiveName());
+            fillingWorkspaces[0] = false;
+            // Archive off the FX thread; the update listener refreshes the list once it's done
+            if (!archivedOnOpen[0]) {
+                CompletableFuture.runAsync(plannerService::movePastEventsToStorage);
+            }
+            archivedOnOpen[0] = false;
+        }, () -> plannerService.removeUpdateListener(refreshListener));
     }
 
     private void showAddEventView(String preselectedClass) {
-        List<Node> childrenToKeep = List.of(backLayer, frontLayer);
-        root.getChildren().removeIf(node -> !childrenToKeep.contains(node));
+        showCachedView("addEvent", this::buildAddEventView, preselectedClass);
+    }
+
+    private ViewCache.View<String> buildAddEventView() {
+        // Set on every bind; read by the Back and OK handlers
+        final String[] preselectedClass = {null};
 
         Label titleLabel = new Label("Add Event");
         titleLabel.getStyleClass().add("dialog-label");
@@ -410,9 +749,6 @@ public class PlannerApp extends Application {
         Label classLabel = new Label("Class:");
         classLabel.getStyleClass().add("card-label-key");
         ComboBox<String> classDropdown = new ComboBox<>();
-        classDropdown.getItems().addAll(plannerService.loadClasses());
-        classDropdown.getItems().add("Add New Class...");
-        classDropdown.setValue(preselectedClass != null ? preselectedClass : "Add New Class...");
         classDropdown.setPrefWidth(320);
         classDropdown.setStyle("-fx-text-fill: white; -fx-prompt-text-fill: #cccccc;");
 
@@ -424,19 +760,13 @@ public class PlannerApp extends Application {
         newClassField.setPrefWidth(320);
         newClassField.setStyle("-fx-prompt-text-fill: #ffffff;");
 
-        // Fix: Disable class selection when preselectedClass is not null
-        if (preselectedClass != null) {
-            classDropdown.setDisable(true);
-            newClassField.setDisable(true);
-        } else {
-            newClassField.setDisable(classDropdown.getValue() != "Add New Class...");
-            classDropdown.setOnAction(e -> {
-                newClassField.setDisable(!classDropdown.getValue().equals("Add New Class..."));
-                if (classDropdown.getValue().equals("Add New Class...")) {
-                    Platform.runLater(newClassField::requestFocus);
-                }
-            });
-        }
+        classDropdown.setOnAction(e -> {
+            boolean addingClass = "Add New Class...".equals(classDropdown.getValue());
+            newClassField.setDisable(!addingClass);
+            if (addingClass) {
+                Platform.runLater(newClassField::requestFocus);
+            }
+        });
 
         Label eventNameLabel = new Label("Event Name:");
         eventNameLabel.getStyleClass().add("card-label-key");
@@ -527,8 +857,8 @@ public class PlannerApp extends Application {
         backButton.getStyleClass().add("button");
         backButton.setPrefWidth(200);
         backButton.setOnAction(e -> {
-            if (preselectedClass != null) {
-                showEventsByClassView(preselectedClass);
+            if (preselectedClass[0] != null) {
+                showEventsByClassView(preselectedClass[0]);
             } else {
                 showMainView();
             }
@@ -576,23 +906,25 @@ public class PlannerApp extends Application {
                 if ("AM".equals(amPmValue) && hour == 12) hour = 0;
 
                 LocalDateTime dateTime = LocalDateTime.of(year, month, day, hour, minute);
-                TimeSlot event = new TimeSlot(className, eventName, dateTime, description);
+                TimeSlot event = new TimeSlot(className, eventName, dateTime, description, LocalDateTime.now());
 
                 // Fix: Add the new class if necessary and save the event using the main plannerService
                 if (classDropdown.getValue().equals("Add New Class...") && !newClassField.getText().trim().isEmpty()) {
                     String newClassName = newClassField.getText().trim();
                     if (!plannerService.classExists(newClassName)) {
                         plannerService.addNewClass(newClassName);
-                        System.out.println("Added new class: " + newClassName);
+                        LOG.log(Level.DEBUG, "Added new class: {0}", newClassName);
                     }
                 }
 
-                plannerService.saveEvent(event);
-                System.out.println("Event saved: " + event.toString());
-                plannerService.movePastEventsToStorage();
+                if (!plannerService.saveEvent(event)) {
+                    showAlert("Duplicate Event", "\"" + eventName + "\" is already planned for " + className + " at that time.");
+                    return;
+                }
+                LOG.log(Level.DEBUG, "Event saved: {0}", event);
 
-                if (preselectedClass != null) {
-                    showEventsByClassView(preselectedClass);
+                if (preselectedClass[0] != null) {
+                    showEventsByClassView(preselectedClass[0]);
                 } else {
                     showMainView();
                 }
@@ -632,10 +964,6 @@ public class PlannerApp extends Application {
         contentWithBackdrop.getChildren().addAll(translucentBox, mainLayout);
         StackPane.setAlignment(contentWithBackdrop, Pos.CENTER);
 
-        root.getChildren().add(contentWithBackdrop);
-        root.setAlignment(Pos.CENTER);
-        previousView = contentWithBackdrop;
-
         contentWithBackdrop.setOnKeyPressed(keyEvent -> {
             if (keyEvent.getCode() == KeyCode.ENTER) {
                 okButton.fire();
@@ -647,26 +975,33 @@ public class PlannerApp extends Application {
         });
         contentWithBackdrop.setFocusTraversable(true);
 
-        if (preselectedClass == null) {
-            Platform.runLater(() -> {
-                newClassField.setDisable(false);
-                newClassField.requestFocus();
-            });
-        }
+        return new ViewCache.View<>(contentWithBackdrop, preselected -> {
+            preselectedClass[0] = preselected;
+            classDropdown.getItems().setAll(plannerService.loadClasses());
+            classDropdown.getItems().add("Add New Class...");
+            classDropdown.setValue(preselected != null ? preselected : "Add New Class...");
+            for (TextInputControl field : List.of(newClassField, eventNameField, monthField, dayField,
+                    yearField, hourField, minuteField, descField)) {
+                field.clear();
+            }
+            amPmDropdown.setValue("AM");
 
-        Platform.runLater(() -> root.getScene().getWindow().requestFocus());
+            // Disable class selection when adding from a class's own view
+            classDropdown.setDisable(preselected != null);
+            newClassField.setDisable(preselected != null);
+            if (preselected == null) {
+                Platform.runLater(newClassField::requestFocus);
+            }
 
-        FadeTransition fadeIn = new FadeTransition(Duration.millis(300), contentWithBackdrop);
-        fadeIn.setFromValue(0);
-        fadeIn.setToValue(1);
-        fadeIn.play();
+            Platform.runLater(() -> root.getScene().getWindow().requestFocus());
+        });
     }
 
     private void showPastEventsView() {
-        // Clear the content except for the background layers
-        List<Node> childrenToKeep = List.of(backLayer, frontLayer);
-        root.getChildren().removeIf(node -> !childrenToKeep.contains(node));
+        showCachedView("pastEvents", this::buildPastEventsView, null);
+    }
 
+    private ViewCache.View<Void> buildPastEventsView() {
         // Create and style the title label
         Label title = new Label("Past Events");
         title.setStyle("-fx-font-size: 40px;");
@@ -679,8 +1014,7 @@ public class PlannerApp extends Application {
         content.setMaxWidth(450);
 
         ListView<TimeSlot> pastEventsList = new ListView<>();
-        pastEventsList.getItems().setAll(plannerService.loadPastEvents());
-        pastEventsList.setPrefHeight(300);
+        pastEventsList.setPrefHeight(260);
         pastEventsList.setCellFactory(lv -> new ListCell<>() {
             private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMMM d, yyyy");
             @Override
@@ -722,7 +1056,7 @@ public class PlannerApp extends Application {
             separator.getStyleClass().add("card-separator");
             separator.setPrefWidth(280);
 
-            Label message = new Label("Are you sure you want to delete ALL past events? This action cannot be undone.");
+            Label message = new Label("Are you sure you want to delete ALL past events? A backup is taken first and can be restored from Backups.");
             message.setWrapText(true);
             message.setMaxWidth(280);
             message.setAlignment(Pos.CENTER);
@@ -732,9 +1066,16 @@ public class PlannerApp extends Application {
             confirmButton.getStyleClass().add("card-button-delete"); // Reuse delete style for consistency
             confirmButton.setPrefWidth(100);
             confirmButton.setOnAction(evt -> {
-                plannerService.clearPastEvents();
-                pastEventsList.getItems().clear();
                 root.getChildren().remove(confirmationCard); // Remove card after confirmation
+                // Backing up a large archive takes a moment, so clear off the FX thread
+                CompletableFuture.runAsync(plannerService::clearPastEvents)
+                        .thenRunAsync(() -> pastEventsList.getItems().clear(), Platform::runLater)
+                        .exceptionally(ex -> {
+                            LOG.log(Level.ERROR, "Could not clear past events", ex);
+                            Platform.runLater(() -> showAlert("Clear Failed",
+                                    "Past events were kept because they could not be backed up first."));
+                            return null;
+                        });
             });
 
             Button cancelButton = new Button("Cancel");
@@ -762,7 +1103,7 @@ public class PlannerApp extends Application {
                             new KeyValue(confirmationCard.opacityProperty(), 1, Interpolator.EASE_OUT)
                     )
             );
-            timeline.play();
+            play(timeline);
         });
 
         Button backButton = new Button("Back");
@@ -773,7 +1114,86 @@ public class PlannerApp extends Application {
         HBox buttonBox = new HBox(15, backButton, clearPastEventsBtn);
         buttonBox.setAlignment(Pos.CENTER);
 
-        content.getChildren().addAll(pastEventsList, buttonBox);
+        Button backupsBtn = new Button("Backups");
+        backupsBtn.getStyleClass().add("button");
+        backupsBtn.setPrefWidth(140);
+        backupsBtn.setOnAction(e -> showBackupsView());
+
+        // Old history sits in compressed blocks; each press opens just the next older one
+        LocalDateTime[] oldestShown = {null};
+        Button showOlderBtn = new Button("Show Older");
+        showOlderBtn.getStyleClass().add("button");
+        showOlderBtn.setPrefWidth(140);
+        showOlderBtn.setOnAction(e -> {
+            showOlderBtn.setDisable(true);
+            CompletableFuture.supplyAsync(() -> plannerService.loadArchivedPage(oldestShown[0]))
+                    .thenAcceptAsync(page -> {
+                        if (page.isEmpty()) {
+                            showOlderBtn.setVisible(false);
+                        } else {
+                            oldestShown[0] = page.get(0).getDateTime();
+                            pastEventsList.getItems().addAll(0, page);
+                            showOlderBtn.setDisable(false);
+                        }
+                    }, Platform::runLater)
+                    .exceptionally(ex -> {
+                        LOG.log(Level.ERROR, "Could not load archived events", ex);
+                        return null;
+                    });
+        });
+
+        // A filter searches the compressed archive as well, so paging through it is off meanwhile
+        EventQuery[] pastFilter = {null};
+        Runnable refreshPastEvents = () -> {
+            EventQuery filter = pastFilter[0];
+            if (filter == null) {
+                pastEventsList.getItems().setAll(plannerService.loadPastEvents());
+                oldestShown[0] = null;
+                showOlderBtn.setDisable(false);
+                showOlderBtn.setVisible(plannerService.getArchivedEventCount() > 0);
+                return;
+            }
+            showOlderBtn.setVisible(false);
+            CompletableFuture.supplyAsync(() -> plannerService.query(filter, EventQuery.Scope.PAST))
+                    .thenAcceptAsync(events -> {
+                        if (filter == pastFilter[0]) pastEventsList.getItems().setAll(events);
+                    }, Platform::runLater)
+                    .exceptionally(ex -> {
+                        LOG.log(Level.ERROR, "Could not filter past events", ex);
+                        return null;
+                    });
+        };
+        TextField pastFilterBar = filterBar(EventQuery.Scope.PAST, query -> {
+            pastFilter[0] = query;
+            refreshPastEvents.run();
+        });
+
+        // Rewrites both event files, so it runs off the UI thread
+        Button duplicatesBtn = new Button("Duplicates");
+        duplicatesBtn.getStyleClass().add("button");
+        duplicatesBtn.setPrefWidth(140);
+        duplicatesBtn.setOnAction(e -> {
+            duplicatesBtn.setDisable(true);
+            CompletableFuture.supplyAsync(plannerService::removeDuplicates)
+                    .thenAcceptAsync(removed -> {
+                        duplicatesBtn.setDisable(false);
+                        if (removed > 0) {
+                            refreshPastEvents.run();
+                        }
+                        toastHost.show("Duplicates", removed == 0 ? "No duplicate events found."
+                                : "Removed " + removed + " duplicate events.", null);
+                    }, Platform::runLater)
+                    .exceptionally(ex -> {
+                        LOG.log(Level.ERROR, "Could not remove duplicate events", ex);
+                        Platform.runLater(() -> duplicatesBtn.setDisable(false));
+                        return null;
+                    });
+        });
+
+        HBox backupBox = new HBox(15, showOlderBtn, duplicatesBtn, backupsBtn);
+        backupBox.setAlignment(Pos.CENTER);
+
+        content.getChildren().addAll(pastFilterBar, pastEventsList, buttonBox, backupBox);
 
         // Create a new VBox to hold the title and the content
         VBox mainLayout = new VBox(10); // 10 pixels spacing between title and content
@@ -799,11 +1219,6 @@ public class PlannerApp extends Application {
         contentWithBackdrop.getChildren().addAll(translucentBox, mainLayout);
         StackPane.setAlignment(contentWithBackdrop, Pos.CENTER);
 
-        // Add the contentWithBackdrop to the root StackPane
-        root.getChildren().add(contentWithBackdrop);
-        root.setAlignment(Pos.CENTER); // Center the content in the window
-        previousView = contentWithBackdrop; // Store the contentWithBackdrop as the previous view
-
         // Add key event handlers for Enter and Escape
         contentWithBackdrop.setOnKeyPressed(keyEvent -> {
             if (keyEvent.getCode() == KeyCode.ENTER) {
@@ -816,17 +1231,393 @@ public class PlannerApp extends Application {
         });
         contentWithBackdrop.setFocusTraversable(true);
 
-        FadeTransition fadeIn = new FadeTransition(Duration.millis(300), contentWithBackdrop);
-        fadeIn.setFromValue(0);
-        fadeIn.setToValue(1);
-        fadeIn.play();
+        return new ViewCache.View<>(contentWithBackdrop, ignored -> {
+            pastFilterBar.clear(); // Each visit starts unfiltered
+            refreshPastEvents.run();
+        });
+    }
+
+    // A text field for the query language of EventQuery. Hands each valid query to onChange as it is
+    // typed, null once the field is blank; a term it can't read turns the border red with the reason as
+    // tooltip. With a scope the tooltip of a valid query shows the plan the service will follow.
+    private TextField filterBar(EventQuery.Scope scope, Consumer<EventQuery> onChange) {
+        TextField field = new TextField();
+        field.setPromptText("Filter, e.g. class:Math after:2025-01-01 text:exam");
+        Tooltip tooltip = new Tooltip();
+        tooltip.setWrapText(true);
+        tooltip.setMaxWidth(420);
+        EventQuery[] current = {null};
+        tooltip.setOnShowing(e -> {
+            if (current[0] != null && scope != null) tooltip.setText(plannerService.explain(current[0], scope));
+        });
+        field.textProperty().addListener((obs, oldText, text) -> {
+            if (text.trim().isEmpty()) {
+                current[0] = null;
+                field.setStyle("");
+                field.setTooltip(null);
+                onChange.accept(null);
+                return;
+            }
+            try {
+                current[0] = EventQuery.parse(text);
+            } catch (IllegalArgumentException ex) {
+                field.setStyle("-fx-border-color: #e06c6c;");
+                tooltip.setText(ex.getMessage());
+                field.setTooltip(tooltip);
+                return;
+            }
+            field.setStyle("");
+            field.setTooltip(scope != null ? tooltip : null);
+            onChange.accept(current[0]);
+        });
+        return field;
+    }
+
+    private static VBox descriptionBox(String description) {
+        Label titleLabel = new Label("Description");
+        titleLabel.setAlignment(Pos.CENTER);
+        Label descriptionLabel = new Label(description.isEmpty() ? "Description is empty" : description);
+        descriptionLabel.setAlignment(Pos.CENTER);
+        descriptionLabel.setWrapText(true);
+        VBox vBox = new VBox(10, titleLabel, new Separator(), descriptionLabel);
+        vBox.setAlignment(Pos.CENTER);
+        return vBox;
+    }
+
+    private void showBackupsView() {
+        showCachedView("backups", this::buildBackupsView, null);
+    }
+
+    private ViewCache.View<Void> buildBackupsView() {
+        Label title = new Label("Backups");
+        title.setStyle("-fx-font-size: 40px;");
+        title.setAlignment(Pos.CENTER);
+        title.getStyleClass().add("dialog-label");
+
+        VBox content = new VBox(15);
+        content.getStyleClass().add("glass-panel");
+        content.setPadding(new Insets(20));
+        content.setMaxWidth(450);
+
+        // Labels are read from the manifests in the background; the list holds snapshot ids
+        Map<String, String> labels = new ConcurrentHashMap<>();
+        ListView<String> backupList = new ListView<>();
+        backupList.setPrefHeight(300);
+        backupList.setCellFactory(lv -> new ListCell<>() {
+            @Override
+            protected void updateItem(String id, boolean empty) {
+                super.updateItem(id, empty);
+                setText(empty || id == null ? null : labels.getOrDefault(id, id));
+            }
+        });
+
+        Runnable reload = () -> CompletableFuture.supplyAsync(() -> {
+                    try {
+                        List<String> ids = backupService.listSnapshots();
+                        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMMM d, yyyy HH:mm:ss");
+                        for (String id : ids) {
+                            labels.computeIfAbsent(id, key -> {
+                                try {
+                                    return BackupService.timeOf(key).format(formatter) + " - " +
+                                            backupService.eventCount(key) + " events";
+                                } catch (IOException | DateTimeException ex) {
+                                    return key;
+                                }
+                            });
+                        }
+                        return ids;
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                })
+                .thenAcceptAsync(ids -> backupList.getItems().setAll(ids), Platform::runLater)
+                .exceptionally(ex -> {
+                    LOG.log(Level.ERROR, "Could not list backups", ex);
+                    return null;
+                });
+
+        Button backupNowBtn = new Button("Back Up Now");
+        backupNowBtn.getStyleClass().add("button");
+        backupNowBtn.setPrefWidth(125);
+        backupNowBtn.setOnAction(e -> CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return backupService.snapshot();
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                })
+                .thenAcceptAsync(id -> {
+                    toastHost.show("Backup", id == null ? "Nothing changed since the last backup" : "Backup taken", null);
+                    reload.run();
+                }, Platform::runLater)
+                .exceptionally(ex -> {
+                    LOG.log(Level.ERROR, "Backup failed", ex);
+                    Platform.runLater(() -> showAlert("Backup Failed", "Could not write the backup."));
+                    return null;
+                }));
+
+        Button restoreBtn = new Button("Restore");
+        restoreBtn.getStyleClass().add("button");
+        restoreBtn.setPrefWidth(125);
+        restoreBtn.disableProperty().bind(backupList.getSelectionModel().selectedItemProperty().isNull());
+        restoreBtn.setOnAction(e -> {
+            String id = backupList.getSelectionModel().getSelectedItem();
+            CompletableFuture.runAsync(() -> {
+                        try {
+                            backupService.restore(id);
+                        } catch (IOException ex) {
+                            throw new UncheckedIOException(ex);
+                        }
+                    })
+                    .thenRunAsync(() -> {
+                        toastHost.show("Backup restored", labels.getOrDefault(id, id) +
+                                ". The state before restoring was backed up too.", null);
+                        reload.run();
+                    }, Platform::runLater)
+                    .exceptionally(ex -> {
+                        LOG.log(Level.ERROR, "Restore failed", ex);
+                        Platform.runLater(() -> showAlert("Restore Failed", "The backup could not be read."));
+                        return null;
+                    });
+        });
+
+        Button backButton = new Button("Back");
+        backButton.getStyleClass().add("button");
+        backButton.setPrefWidth(125);
+        backButton.setOnAction(e -> showPastEventsView());
+
+        HBox buttonBox = new HBox(15, backButton, backupNowBtn, restoreBtn);
+        buttonBox.setAlignment(Pos.CENTER);
+
+        content.getChildren().addAll(backupList, buttonBox);
+
+        VBox mainLayout = new VBox(10);
+        mainLayout.setAlignment(Pos.CENTER);
+        mainLayout.getChildren().addAll(title, content);
+
+        Region translucentBox = new Region();
+        translucentBox.setStyle("-fx-background-color: rgba(150, 150, 150, 0.4);" +
+                "-fx-background-radius: 30;" +
+                "-fx-effect: dropshadow(gaussian, rgba(0, 0, 0, 0.3), 20, 0.3, 0, 5);");
+        translucentBox.setPrefWidth(500);
+        translucentBox.setPrefHeight(500);
+        translucentBox.setMaxWidth(500);
+        translucentBox.setMaxHeight(500);
+        translucentBox.setMinWidth(500);
+        translucentBox.setMinHeight(500);
+
+        StackPane contentWithBackdrop = new StackPane();
+        contentWithBackdrop.getChildren().addAll(translucentBox, mainLayout);
+        StackPane.setAlignment(contentWithBackdrop, Pos.CENTER);
+
+        contentWithBackdrop.setOnKeyPressed(keyEvent -> {
+            if (keyEvent.getCode() == KeyCode.ESCAPE) {
+                backButton.fire();
+                keyEvent.consume();
+            }
+        });
+        contentWithBackdrop.setFocusTraversable(true);
+
+        return new ViewCache.View<>(contentWithBackdrop, ignored -> {
+            reload.run();
+            contentWithBackdrop.requestFocus();
+        });
+    }
+
+    private void showCalendarView() {
+        showCachedView("calendar", this::buildCalendarView, null);
+    }
+
+    private ViewCache.View<Void> buildCalendarView() {
+        Label title = new Label("Calendar");
+        title.setStyle("-fx-font-size: 40px;");
+        title.setAlignment(Pos.CENTER);
+        title.getStyleClass().add("dialog-label");
+
+        CalendarView calendar = new CalendarView(plannerService);
+        calendar.setOnEventSelected(this::showEventDetailsView);
+        Runnable refreshListener = () -> Platform.runLater(calendar::refresh);
+        plannerService.addUpdateListener(refreshListener);
+
+        Button backButton = new Button("Back");
+        backButton.getStyleClass().add("button");
+        backButton.setPrefWidth(200);
+        backButton.setOnAction(e -> showMainView());
+
+        VBox content = new VBox(15, calendar.getNode(), backButton);
+        content.getStyleClass().add("glass-panel");
+        content.setAlignment(Pos.CENTER);
+        content.setPadding(new Insets(20));
+        content.setMaxWidth(620);
+        content.setMaxHeight(600);
+
+        VBox mainLayout = new VBox(10);
+        mainLayout.setAlignment(Pos.CENTER);
+        mainLayout.getChildren().addAll(title, content);
+
+        Region translucentBox = new Region();
+        translucentBox.setStyle("-fx-background-color: rgba(150, 150, 150, 0.4);" +
+                "-fx-background-radius: 30;" +
+                "-fx-effect: dropshadow(gaussian, rgba(0, 0, 0, 0.3), 20, 0.3, 0, 5);");
+        translucentBox.setPrefWidth(660);
+        translucentBox.setPrefHeight(700);
+        translucentBox.setMaxWidth(660);
+        translucentBox.setMaxHeight(700);
+        translucentBox.setMinWidth(660);
+        translucentBox.setMinHeight(700);
+
+        StackPane contentWithBackdrop = new StackPane();
+        contentWithBackdrop.getChildren().addAll(translucentBox, mainLayout);
+        StackPane.setAlignment(contentWithBackdrop, Pos.CENTER);
+
+        // Arrow keys page through days, weeks or months; Escape goes back
+        contentWithBackdrop.setOnKeyPressed(keyEvent -> {
+            if (keyEvent.getCode() == KeyCode.LEFT) {
+                calendar.previous();
+                keyEvent.consume();
+            } else if (keyEvent.getCode() == KeyCode.RIGHT) {
+                calendar.next();
+                keyEvent.consume();
+            } else if (keyEvent.getCode() == KeyCode.ESCAPE) {
+                backButton.fire();
+                keyEvent.consume();
+            }
+        });
+        contentWithBackdrop.setFocusTraversable(true);
+
+        return new ViewCache.View<>(contentWithBackdrop, ignored -> {
+            calendar.refresh();
+            contentWithBackdrop.requestFocus();
+        }, () -> plannerService.removeUpdateListener(refreshListener));
+    }
+
+    private void showTimelineView() {
+        showCachedView("timeline", this::buildTimelineView, null);
+    }
+
+    private ViewCache.View<Void> buildTimelineView() {
+        Label title = new Label("Timeline");
+        title.setStyle("-fx-font-size: 40px;");
+        title.setAlignment(Pos.CENTER);
+        title.getStyleClass().add("dialog-label");
+
+        // Counted once in the background; after that every save or archive adjusts the counts in place.
+        // The disposer removes the listener only once it was added, however soon the view is dropped.
+        EventDensity density = new EventDensity(plannerService);
+        DensityHeatmap heatmap = new DensityHeatmap(density);
+        CompletableFuture<Void> registered = CompletableFuture.runAsync(() -> plannerService.addEventChangeListener(density));
+
+        Button backButton = new Button("Back");
+        backButton.getStyleClass().add("button");
+        backButton.setPrefWidth(200);
+        backButton.setOnAction(e -> showMainView());
+
+        VBox content = new VBox(15, heatmap.getNode(), backButton);
+        content.getStyleClass().add("glass-panel");
+        content.setAlignment(Pos.CENTER);
+        content.setPadding(new Insets(20));
+        content.setMaxWidth(620);
+        content.setMaxHeight(600);
+
+        VBox mainLayout = new VBox(10);
+        mainLayout.setAlignment(Pos.CENTER);
+        mainLayout.getChildren().addAll(title, content);
+
+        Region translucentBox = new Region();
+        translucentBox.setStyle("-fx-background-color: rgba(150, 150, 150, 0.4);" +
+                "-fx-background-radius: 30;" +
+                "-fx-effect: dropshadow(gaussian, rgba(0, 0, 0, 0.3), 20, 0.3, 0, 5);");
+        translucentBox.setPrefWidth(660);
+        translucentBox.setPrefHeight(700);
+        translucentBox.setMaxWidth(660);
+        translucentBox.setMaxHeight(700);
+        translucentBox.setMinWidth(660);
+        translucentBox.setMinHeight(700);
+
+        StackPane contentWithBackdrop = new StackPane();
+        contentWithBackdrop.getChildren().addAll(translucentBox, mainLayout);
+        StackPane.setAlignment(contentWithBackdrop, Pos.CENTER);
+
+        contentWithBackdrop.setOnKeyPressed(keyEvent -> {
+            if (keyEvent.getCode() == KeyCode.ESCAPE) {
+                backButton.fire();
+                keyEvent.consume();
+            }
+        });
+        contentWithBackdrop.setFocusTraversable(true);
+
+        return new ViewCache.View<>(contentWithBackdrop, ignored -> {
+            heatmap.requestRedraw();
+            contentWithBackdrop.requestFocus();
+        }, () -> registered.thenRun(() -> plannerService.removeEventChangeListener(density)));
+    }
+
+    private void showStatisticsView() {
+        showCachedView("statistics", this::buildStatisticsView, null);
+    }
+
+    private ViewCache.View<Void> buildStatisticsView() {
+        Label title = new Label("Statistics");
+        title.setStyle("-fx-font-size: 40px;");
+        title.setAlignment(Pos.CENTER);
+        title.getStyleClass().add("dialog-label");
+
+        // Totals are counted once in the background, then adjusted on every change; showing them is just a snapshot
+        StatisticsService statistics = new StatisticsService(plannerService);
+        StatisticsPanel panel = new StatisticsPanel();
+        statistics.setOnChange(() -> Platform.runLater(() -> panel.show(statistics.snapshot())));
+        CompletableFuture<Void> registered = CompletableFuture.runAsync(() -> plannerService.addEventChangeListener(statistics));
+
+        Button backButton = new Button("Back");
+        backButton.getStyleClass().add("button");
+        backButton.setPrefWidth(200);
+        backButton.setOnAction(e -> showMainView());
+
+        VBox content = new VBox(15, panel.getNode(), backButton);
+        content.getStyleClass().add("glass-panel");
+        content.setAlignment(Pos.CENTER);
+        content.setPadding(new Insets(20));
+        content.setMaxWidth(620);
+        content.setMaxHeight(500);
+
+        VBox mainLayout = new VBox(10);
+        mainLayout.setAlignment(Pos.CENTER);
+        mainLayout.getChildren().addAll(title, content);
+
+        Region translucentBox = new Region();
+        translucentBox.setStyle("-fx-background-color: rgba(150, 150, 150, 0.4);" +
+                "-fx-background-radius: 30;" +
+                "-fx-effect: dropshadow(gaussian, rgba(0, 0, 0, 0.3), 20, 0.3, 0, 5);");
+        translucentBox.setPrefWidth(660);
+        translucentBox.setPrefHeight(600);
+        translucentBox.setMaxWidth(660);
+        translucentBox.setMaxHeight(600);
+        translucentBox.setMinWidth(660);
+        translucentBox.setMinHeight(600);
+
+        StackPane contentWithBackdrop = new StackPane();
+        contentWithBackdrop.getChildren().addAll(translucentBox, mainLayout);
+        StackPane.setAlignment(contentWithBackdrop, Pos.CENTER);
+
+        contentWithBackdrop.setOnKeyPressed(keyEvent -> {
+            if (keyEvent.getCode() == KeyCode.ESCAPE) {
+                backButton.fire();
+                keyEvent.consume();
+            }
+        });
+        contentWithBackdrop.setFocusTraversable(true);
+
+        return new ViewCache.View<>(contentWithBackdrop, ignored -> {
+            panel.show(statistics.snapshot());
+            contentWithBackdrop.requestFocus();
+        }, () -> registered.thenRun(() -> plannerService.removeEventChangeListener(statistics)));
     }
 
     private void showClassSelectionView() {
-        // Clear the content except for the background layers
-        List<Node> childrenToKeep = List.of(backLayer, frontLayer);
-        root.getChildren().removeIf(node -> !childrenToKeep.contains(node));
+        showCachedView("classSelection", this::buildClassSelectionView, null);
+    }
 
+    private ViewCache.View<Void> buildClassSelectionView() {
         // Create and style the title label
         Label title = new Label("Select Class");
         title.setStyle("-fx-font-size: 40");
@@ -838,7 +1629,6 @@ public class PlannerApp extends Application {
         content.setMaxWidth(400);
 
         ListView<String> classListView = new ListView<>();
-        classListView.getItems().addAll(plannerService.loadClasses());
         classListView.setPrefHeight(300);
         classListView.setOnMouseClicked(event -> {
             if (event.getClickCount() == 2) {
@@ -944,7 +1734,7 @@ public class PlannerApp extends Application {
                             new KeyValue(cardWithBackdrop.opacityProperty(), 1, Interpolator.EASE_OUT)
                     )
             );
-            timeline.play();
+            play(timeline);
 
             // Ensure the card can receive key events
             cardWithBackdrop.setFocusTraversable(true);
@@ -958,7 +1748,68 @@ public class PlannerApp extends Application {
         HBox buttonBox = new HBox(15, backButton, addClassBtn);
         buttonBox.setAlignment(Pos.CENTER);
 
-        content.getChildren().addAll(classListView, buttonBox);
+        Button importBtn = new Button("Import");
+        importBtn.getStyleClass().add("button");
+        importBtn.setPrefWidth(200);
+        importBtn.setOnAction(e -> {
+            FileChooser chooser = new FileChooser();
+            chooser.setTitle("Import Events");
+            chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Calendar files", "*.ics", "*.csv"));
+            File file = chooser.showOpenDialog(primaryStage);
+            if (file == null) return;
+
+            importBtn.setDisable(true);
+            Thread importThread = new Thread(() -> {
+                try {
+                    EventImporter.ImportResult result = new EventImporter(plannerService).importFile(file.toPath());
+                    Platform.runLater(() -> {
+                        classListView.getItems().setAll(plannerService.loadClasses());
+                        showAlert("Import Complete", "Imported " + result.getImported() + " events"
+                                + (result.getRejected() > 0 ? ", skipped " + result.getRejected() + " invalid entries" : "")
+                                + (result.getDuplicates() > 0 ? ", " + result.getDuplicates() + " already in the planner." : "."));
+                    });
+                } catch (Exception ex) {
+                    Platform.runLater(() -> showAlert("Import Failed", ex.getMessage()));
+                } finally {
+                    Platform.runLater(() -> importBtn.setDisable(false));
+                }
+            }, "event-import");
+            importThread.setDaemon(true);
+            importThread.start();
+        });
+
+        Button exportBtn = new Button("Export");
+        exportBtn.getStyleClass().add("button");
+        exportBtn.setPrefWidth(200);
+        exportBtn.setOnAction(e -> {
+            FileChooser chooser = new FileChooser();
+            chooser.setTitle("Export Events");
+            chooser.getExtensionFilters().addAll(
+                    new FileChooser.ExtensionFilter("iCalendar", "*.ics"),
+                    new FileChooser.ExtensionFilter("CSV", "*.csv"));
+            chooser.setInitialFileName("planner.ics");
+            File file = chooser.showSaveDialog(primaryStage);
+            if (file == null) return;
+
+            exportBtn.setDisable(true);
+            Thread exportThread = new Thread(() -> {
+                try {
+                    int count = new EventExporter(plannerService).exportFile(file.toPath(), true);
+                    Platform.runLater(() -> showAlert("Export Complete", "Exported " + count + " events to " + file.getName() + "."));
+                } catch (Exception ex) {
+                    Platform.runLater(() -> showAlert("Export Failed", ex.getMessage()));
+                } finally {
+                    Platform.runLater(() -> exportBtn.setDisable(false));
+                }
+            }, "event-export");
+            exportThread.setDaemon(true);
+            exportThread.start();
+        });
+
+        HBox fileButtonBox = new HBox(15, importBtn, exportBtn);
+        fileButtonBox.setAlignment(Pos.CENTER);
+
+        content.getChildren().addAll(classListView, buttonBox, fileButtonBox);
 
         // Create a new VBox to hold the title and the content
         VBox mainLayout = new VBox(10); // 10 pixels spacing between title and content
@@ -971,24 +1822,19 @@ public class PlannerApp extends Application {
         translucentBox.setStyle("-fx-background-color: rgba(150, 150, 150, 0.4);" +
                 "-fx-background-radius: 30;" +
                 "-fx-effect: dropshadow(gaussian, rgba(0, 0, 0, 0.3), 20, 0.3, 0, 5);");
-        // Set a fixed size to wrap around the title, ListView, and buttons with less padding at top and bottom
+        // Set a fixed size to wrap around the title, ListView, and both button rows
         translucentBox.setPrefWidth(500);
-        translucentBox.setPrefHeight(500); // Reduced height to decrease space at top and bottom
+        translucentBox.setPrefHeight(560);
         translucentBox.setMaxWidth(500);
-        translucentBox.setMaxHeight(500);
+        translucentBox.setMaxHeight(560);
         translucentBox.setMinWidth(500);
-        translucentBox.setMinHeight(500);
+        translucentBox.setMinHeight(560);
 
         // Create a StackPane to layer the translucent box behind the mainLayout
         StackPane contentWithBackdrop = new StackPane();
         contentWithBackdrop.getChildren().addAll(translucentBox, mainLayout);
         StackPane.setAlignment(contentWithBackdrop, Pos.CENTER);
 
-        // Add the contentWithBackdrop to the root StackPane
-        root.getChildren().add(contentWithBackdrop);
-        root.setAlignment(Pos.CENTER); // Center the content in the window
-        previousView = contentWithBackdrop; // Store the contentWithBackdrop as the previous view
-
         // Add key event handlers for Enter and Escape
         contentWithBackdrop.setOnKeyPressed(keyEvent -> {
             if (keyEvent.getCode() == KeyCode.ENTER) {
@@ -1001,10 +1847,8 @@ public class PlannerApp extends Application {
         });
         contentWithBackdrop.setFocusTraversable(true);
 
-        FadeTransition fadeIn = new FadeTransition(Duration.millis(300), contentWithBackdrop);
-        fadeIn.setFromValue(0);
-        fadeIn.setToValue(1);
-        fadeIn.play();
+        return new ViewCache.View<>(contentWithBackdrop,
+                ignored -> classListView.getItems().setAll(plannerService.loadClasses()));
     }
 
     // Helper method to split the class name into two parts based on word order
@@ -1037,21 +1881,33 @@ public class PlannerApp extends Application {
     }
 
     private void showEventsByClassView(String className) {
-        // Clear the content except for the background layers
-        List<Node> childrenToKeep = List.of(backLayer, frontLayer);
-        root.getChildren().removeIf(node -> !childrenToKeep.contains(node));
+        showCachedView("eventsByClass", this::buildEventsByClassView, className);
+    }
 
-        // Use a single-element array to hold the className, allowing updates in lambdas
-        final String[] classNameHolder = {className};
+    private ViewCache.View<String> buildEventsByClassView() {
+        // Use a single-element array to hold the className, allowing updates in lambdas; set on every bind
+        final String[] classNameHolder = {""};
 
         // Define eventList and addEventBtn before the lambda expressions
         ListView<TimeSlot> eventList = new ListView<>();
-        eventList.getItems().addAll(plannerService.loadEventsForClass(classNameHolder[0]));
         eventList.setMinHeight(50); // Minimum height when empty
         eventList.setMaxHeight(300); // Maximum height to prevent excessive growth
         eventList.setPrefWidth(400);
         eventList.setMaxWidth(400);
         eventList.setMinWidth(400);
+        // One class's upcoming events are few, so the filter just runs over the list
+        EventQuery[] classFilter = {null};
+        Runnable refreshClassEvents = () -> {
+            List<TimeSlot> events = plannerService.loadEventsForClass(classNameHolder[0]);
+            if (classFilter[0] != null) events.removeIf(classFilter[0].negate());
+            eventList.getItems().setAll(events);
+        };
+        TextField classFilterBar = filterBar(null, query -> {
+            classFilter[0] = query;
+            refreshClassEvents.run();
+        });
+        classFilterBar.setMaxWidth(400);
+
         eventList.setCellFactory(lv -> new ListCell<TimeSlot>() {
             @Override
             protected void updateItem(TimeSlot event, boolean empty) {
@@ -1143,7 +1999,7 @@ public class PlannerApp extends Application {
                             new KeyValue(confirmationCard.opacityProperty(), 1, Interpolator.EASE_OUT)
                     )
             );
-            timeline.play();
+            play(timeline);
         });
 
         HBox buttonBox = new HBox(15, backButton, addEventBtn, deleteClassBtn);
@@ -1173,14 +2029,14 @@ public class PlannerApp extends Application {
 
         double naturalTextWidth = tempLabel.getBoundsInLocal().getWidth();
         double hoverPaddingX = 20; // 10px padding on each side for the hover effect
-        double hoverBoxWidth = naturalTextWidth + (hoverPaddingX * 2); // Add padding to the hover effect box
+        double[] hoverBoxWidth = {naturalTextWidth + (hoverPaddingX * 2)}; // Add padding to the hover effect box
         titleLabel.setMaxWidth(Double.MAX_VALUE); // Allow the label to expand as needed
         titleLabel.setPrefWidth(naturalTextWidth); // Set preferred width to the natural width
 
         // Create a StackPane for the hover effect background
         StackPane hoverBackground = new StackPane();
         hoverBackground.setStyle("-fx-background-color: transparent;");
-        hoverBackground.setPrefWidth(hoverBoxWidth); // Set width to text width plus padding
+        hoverBackground.setPrefWidth(hoverBoxWidth[0]); // Set width to text width plus padding
         hoverBackground.setPrefHeight(titleLabel.prefHeight(naturalTextWidth)); // Set height based on the label
 
         // Add hover effect to the StackPane
@@ -1206,7 +2062,7 @@ public class PlannerApp extends Application {
         StackPane titlePane = new StackPane();
         titlePane.getChildren().addAll(hoverBackground, titleLabel, titleField);
         titlePane.setStyle("-fx-background-color: transparent;"); // Ensure the StackPane is transparent
-        titlePane.setPrefWidth(hoverBoxWidth); // Set the titlePane width to match the hover box
+        titlePane.setPrefWidth(hoverBoxWidth[0]); // Set the titlePane width to match the hover box
 
         // Update the width when the class name changes
         titleField.textProperty().addListener((obs, oldValue, newValue) -> {
@@ -1215,10 +2071,10 @@ public class PlannerApp extends Application {
             tempLabel.layout();
             double updatedTextWidth = tempLabel.getBoundsInLocal().getWidth();
             titleLabel.setPrefWidth(updatedTextWidth); // Update prefWidth dynamically
-            double updatedHoverBoxWidth = updatedTextWidth + (hoverPaddingX * 2); // Add padding to the hover effect box
-            hoverBackground.setPrefWidth(updatedHoverBoxWidth);
+            hoverBoxWidth[0] = updatedTextWidth + (hoverPaddingX * 2); // Add padding to the hover effect box
+            hoverBackground.setPrefWidth(hoverBoxWidth[0]);
             titleField.setPrefWidth(updatedTextWidth);
-            titlePane.setPrefWidth(updatedHoverBoxWidth);
+            titlePane.setPrefWidth(hoverBoxWidth[0]);
             // Update the height based on the new width
             double newTitleHeight = titleLabel.prefHeight(updatedTextWidth);
             hoverBackground.setPrefHeight(newTitleHeight);
@@ -1258,7 +2114,7 @@ public class PlannerApp extends Application {
                     plannerService.renameClass(classNameHolder[0], newClassName);
                     classNameHolder[0] = newClassName; // Update the class name
                     // Update the events list
-                    eventList.getItems().setAll(plannerService.loadEventsForClass(classNameHolder[0]));
+                    refreshClassEvents.run();
                     // Update the Add Event button's action
                     addEventBtn.setOnAction(evt -> showAddEventView(classNameHolder[0]));
                     // Update the label text
@@ -1292,7 +2148,7 @@ public class PlannerApp extends Application {
                         plannerService.renameClass(classNameHolder[0], newClassName);
                         classNameHolder[0] = newClassName; // Update the class name
                         // Update the events list
-                        eventList.getItems().setAll(plannerService.loadEventsForClass(classNameHolder[0]));
+                        refreshClassEvents.run();
                         // Update the Add Event button's action
                         addEventBtn.setOnAction(evt -> showAddEventView(classNameHolder[0]));
                         // Update the label text
@@ -1318,8 +2174,8 @@ public class PlannerApp extends Application {
         content.setAlignment(Pos.CENTER);
         content.setStyle("-fx-background-color: transparent;"); // Ensure the content VBox is transparent
 
-        // Add the titlePane, eventList, and buttonBox to the content VBox
-        content.getChildren().addAll(titlePane, eventList, buttonBox);
+        // Add the titlePane, filter bar, eventList, and buttonBox to the content VBox
+        content.getChildren().addAll(titlePane, classFilterBar, eventList, buttonBox);
 
         // Create the main layout
         VBox mainLayout = new VBox(10);
@@ -1342,7 +2198,7 @@ public class PlannerApp extends Application {
 
         // Dynamically set the width and height of translucentBox and contentWithBackdrop
         content.boundsInLocalProperty().addListener((obs, oldBounds, newBounds) -> {
-            double maxWidth = Math.max(hoverBoxWidth, 400); // Ensure at least the width of the event list/buttons
+            double maxWidth = Math.max(hoverBoxWidth[0], 400); // Ensure at least the width of the event list/buttons
             double paddingX = 40; // 20px padding on each side
             translucentBox.setPrefWidth(maxWidth + paddingX);
             translucentBox.setMaxWidth(maxWidth + paddingX);
@@ -1357,11 +2213,6 @@ public class PlannerApp extends Application {
             contentWithBackdrop.setPrefHeight(totalHeight); // Use prefHeight for better layout control
         });
 
-        // Add to the root
-        root.getChildren().add(contentWithBackdrop);
-        root.setAlignment(Pos.CENTER);
-        previousView = contentWithBackdrop;
-
         // Add key event handlers for Enter and Escape
         contentWithBackdrop.setOnKeyPressed(keyEvent -> {
             if (keyEvent.getCode() == KeyCode.ENTER) {
@@ -1374,16 +2225,20 @@ public class PlannerApp extends Application {
         });
         contentWithBackdrop.setFocusTraversable(true);
 
-        FadeTransition fadeIn = new FadeTransition(Duration.millis(300), contentWithBackdrop);
-        fadeIn.setFromValue(0);
-        fadeIn.setToValue(1);
-        fadeIn.play();
+        return new ViewCache.View<>(contentWithBackdrop, className -> {
+            classNameHolder[0] = className;
+            classFilterBar.clear(); // Each class starts unfiltered
+            refreshClassEvents.run();
+            titleLabel.setText(className);
+            titleField.setText(className); // Re-measures the title through the text listener
+            titleField.setVisible(false);
+            titleLabel.setVisible(true);
+            hoverBackground.setVisible(true);
+            hoverBackground.setStyle("-fx-background-color: transparent;");
+        });
     }
 
     private void showEventDetailsView(TimeSlot event) {
-        // Create Planner Service
-        PlannerService plannerService = new PlannerService();
-
         // Create the EventDetails card content
         VBox cardContent = new VBox(10);
         cardContent.getStyleClass().add("event-card");
@@ -1428,7 +2283,7 @@ public class PlannerApp extends Application {
         descValue.setPadding(new Insets(5));
         descValue.setOnMouseClicked(mouseEvent -> {
             List<Node> originalContent = new ArrayList<>(cardContent.getChildren());
-            VBox descriptionVbox = plannerService.showDescriptionDialog(event.getDescription());
+            VBox descriptionVbox = descriptionBox(event.getDescription());
             Button backButton = new Button("Back");
             backButton.getStyleClass().add("button");
             backButton.setPrefWidth(120);
@@ -1553,7 +2408,7 @@ public class PlannerApp extends Application {
                             new KeyValue(confirmationCard.opacityProperty(), 1, Interpolator.EASE_OUT)
                     )
             );
-            timeline.play();
+            play(timeline);
         });
 
         backButton.setOnAction(e -> {
@@ -1583,13 +2438,12 @@ public class PlannerApp extends Application {
                         new KeyValue(cardWithBackdrop.opacityProperty(), 1, Interpolator.EASE_OUT)
                 )
         );
-        timeline.play();
+        play(timeline);
     }
 
     private void showModifyEventView(TimeSlot event) {
         // Clear the content except for the background layers
-        List<Node> childrenToKeep = List.of(backLayer, frontLayer);
-        root.getChildren().removeIf(node -> !childrenToKeep.contains(node));
+        clearViews();
 
         // Create and style the title label
         Label titleLabel = new Label("Modify Event");
@@ -1719,7 +2573,7 @@ public class PlannerApp extends Application {
                 if ("AM".equals(amPmValue) && hour == 12) hour = 0;
 
                 LocalDateTime dateTime = LocalDateTime.of(year, month, day, hour, minute);
-                TimeSlot updatedEvent = new TimeSlot(className, eventName, dateTime, description);
+                TimeSlot updatedEvent = new TimeSlot(className, eventName, dateTime, description, event.getCreatedAt());
                 plannerService.updateEvent(event, updatedEvent);
                 showMainView();
             } catch (Exception ex) {
@@ -1792,16 +2646,33 @@ public class PlannerApp extends Application {
         FadeTransition fadeIn = new FadeTransition(Duration.millis(300), contentWithBackdrop);
         fadeIn.setFromValue(0);
         fadeIn.setToValue(1);
-        fadeIn.play();
+        play(fadeIn);
     }
 
+    // Loads upcoming events on a worker thread and fills the list when they arrive
     private void updateUpcomingEvents() {
-        List<TimeSlot> events = plannerService.getUpcomingEvents();
+        EventQuery filter = upcomingFilter;
+        CompletableFuture.supplyAsync(() -> {
+            List<TimeSlot> events = filter == null ? plannerService.getUpcomingEvents()
+                    : new ArrayList<>(plannerService.query(filter, EventQuery.Scope.UPCOMING));
+            Set<String> classes = new HashSet<>(plannerService.loadClasses());
+            events.removeIf(event -> !classes.contains(event.getClassName()));
+            events.sort(Comparator.comparing(TimeSlot::getDateTime));
+            return events;
+        }).thenAcceptAsync(events -> {
+            // A filter typed a letter at a time starts several of these; only the latest is shown
+            if (filter == upcomingFilter) showUpcomingEvents(events);
+        }, Platform::runLater);
+    }
+
+    private void showUpcomingEvents(List<TimeSlot> events) {
         upcomingEventsList.getItems().clear();
-        events.removeIf(event -> !plannerService.classExists(event.getClassName()));
-        events.sort(Comparator.comparing(TimeSlot::getDateTime));
+        if (!startupComplete) {
+            startupComplete = true;
+            LOG.log(Level.INFO, "Startup: interactive after {0} ms", millisSinceLaunch());
+        }
         if (events.isEmpty()) {
-            upcomingEventsList.getItems().add("No upcoming events.");
+            upcomingEventsList.getItems().add(upcomingFilter != null ? "No matching events." : "No upcoming events.");
         } else {
             for (TimeSlot event : events) {
                 upcomingEventsList.getItems().add(event.getClassName() + " - " + event.getEventName() + " - " + event.getDateTimeFormatted());
@@ -1857,7 +2728,7 @@ public class PlannerApp extends Application {
                         new KeyValue(errorCard.opacityProperty(), 1, Interpolator.EASE_OUT)
                 )
         );
-        timeline.play();
+        play(timeline);
 
         // Ensure the error card receives focus
         Platform.runLater(() -> errorCard.requestFocus());
@@ -0,0 +1,292 @@
+package JavaFX;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+// The planner without its window, for scripts and cron jobs. Works on the same files through the same
+// PlannerService as the app and never starts the JavaFX toolkit, so it starts in well under a second:
+//   java -cp <classes> JavaFX.PlannerCli [--dir <folder>] <command> [arguments]
+// Events are printed one per line in the planner.txt format (class|name|yyyy-MM-dd HH:mm|description),
+// so the output can be grepped, cut on '|' or appended to another planner. Log messages only show from
+// WARNING up unless -Dplanner.log.level says otherwise. A running app picks up the changes on its own.
+// Exits with 0 on success, 1 if the command was refused (unknown class, duplicate event) and 2 on bad
+// usage or unreadable files.
+public final class PlannerCli {
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: PlannerCli [--dir <folder>] <command> [arguments]",
+            "  add <class> <name> <yyyy-MM-dd HH:mm> [description]",
+            "  list [--past] [--class <class>]",
+            "  range <from> <to>          events with from <= time < to; yyyy-MM-dd or yyyy-MM-dd HH:mm",
+            "  query [--upcoming|--past] [--explain] <terms>",
+            "                             e.g. class:Math after:2025-01-01 text:exam; see EventQuery",
+            "  archive                    move past events out of planner.txt and compress old ones",
+            "  rename-class <old> <new>",
+            "  import <file.csv|file.ics>",
+            "  export <file.csv|file.ics> [--past]");
+
+    private PlannerCli() {
+    }
+
+    // Thrown for arguments that don't make a command; main prints the usage
+    static final class UsageException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        UsageException(String message) {
+            super(message);
+        }
+    }
+
+    public static void main(String[] args) {
+        if (System.getProperty("planner.log.level") == null) {
+            System.setProperty("planner.log.level", "WARNING");
+        }
+        List<String> rest = new ArrayList<>(Arrays.asList(args));
+        Path directory = Paths.get("");
+        if (rest.size() >= 2 && rest.get(0).equals("--dir")) {
+            directory = Paths.get(rest.get(1));
+            rest = rest.subList(2, rest.size());
+        }
+        try {
+            if (rest.isEmpty()) {
+                throw new UsageException("No command given");
+            }
+            System.exit(run(new PlannerService(directory), rest.get(0), rest.subList(1, rest.size())));
+        } catch (UsageException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Could not complete the command: " + e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    static int run(PlannerService service, String command, List<String> args) throws IOException {
+        switch (command) {
+            case "add":
+                return add(service, args);
+            case "list":
+                return list(service, args);
+            case "range":
+                return range(service, args);
+            case "query":
+                return query(service, args);
+            case "archive":
+                return archive(service, args);
+            case "rename-class":
+                return renameClass(service, args);
+            case "import":
+                return importFile(service, args);
+            case "export":
+                return exportFile(service, args);
+            default:
+                throw new UsageException("Unknown command: " + command);
+        }
+    }
+
+    private static int add(PlannerService service, List<String> args) {
+        expect(args, 3, 4);
+        TimeSlot event = new TimeSlot(field("class", args.get(0), true), field("name", args.get(1), true),
+                dateTime(args.get(2)), args.size() > 3 ? field("description", args.get(3), false) : "",
+                LocalDateTime.now());
+        // Checked first so a refused event doesn't leave its class behind in classes.txt
+        if (service.isDuplicate(event)) {
+            System.err.println("Already in the planner: " + event);
+            return 1;
+        }
+        if (!service.classExists(event.getClassName())) {
+            service.addNewClass(event.getClassName());
+        }
+        if (!service.saveEvent(event)) {
+            System.err.println("Already in the planner: " + event);
+            return 1;
+        }
+        System.out.println(event);
+        return 0;
+    }
+
+    private static int list(PlannerService service, List<String> args) {
+        boolean past = false;
+        String className = null;
+        for (int i = 0; i < args.size(); i++) {
+            if (args.get(i).equals("--past")) {
+                past = true;
+            } else if (args.get(i).equals("--class") && i + 1 < args.size()) {
+                className = args.get(++i);
+            } else {
+                throw new UsageException("Unexpected argument: " + args.get(i));
+            }
+        }
+        String onlyClass = className;
+        StringBuilder out = new StringBuilder();
+        Consumer<TimeSlot> print = event -> {
+            if (onlyClass == null || event.getClassName().equalsIgnoreCase(onlyClass)) {
+                out.append(event).append(System.lineSeparator());
+                if (out.length() > 1 << 16) flush(out);
+            }
+        };
+        if (past) {
+            service.forEachPastEvent(print);
+        } else {
+            service.forEachEvent(print);
+        }
+        flush(out);
+        return 0;
+    }
+
+    private static int range(PlannerService service, List<String> args) {
+        expect(args, 2, 2);
+        LocalDateTime from = dateTime(args.get(0));
+        LocalDateTime to = dateTime(args.get(1));
+        // Streamed, so a range of years prints without holding it in memory
+        StringBuilder out = new StringBuilder();
+        service.eventsBetween(from, to).forEachOrdered(event -> {
+            out.append(event).append(System.lineSeparator());
+            if (out.length() > 1 << 16) flush(out);
+        });
+        flush(out);
+        return 0;
+    }
+
+    private static int query(PlannerService service, List<String> args) {
+        EventQuery.Scope scope = EventQuery.Scope.ALL;
+        boolean explain = false;
+        List<String> terms = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.equals("--upcoming")) {
+                scope = EventQuery.Scope.UPCOMING;
+            } else if (arg.equals("--past")) {
+                scope = EventQuery.Scope.PAST;
+            } else if (arg.equals("--explain")) {
+                explain = true;
+            } else {
+                terms.add(arg.contains(" ") && !arg.contains("\"") ? quoteValue(arg) : arg);
+            }
+        }
+        EventQuery query;
+        try {
+            query = EventQuery.parse(String.join(" ", terms));
+        } catch (IllegalArgumentException e) {
+            throw new UsageException(e.getMessage());
+        }
+        if (explain) {
+            System.out.print(service.explain(query, scope));
+            return 0;
+        }
+        StringBuilder out = new StringBuilder();
+        for (TimeSlot event : service.query(query, scope)) {
+            out.append(event).append(System.lineSeparator());
+            if (out.length() > 1 << 16) flush(out);
+        }
+        flush(out);
+        return 0;
+    }
+
+    // The shell already split the terms, so class:"Computer Science" arrives as class:Computer Science
+    private static String quoteValue(String term) {
+        int colon = term.indexOf(':');
+        return colon < 0 ? "\"" + term + "\"" : term.substring(0, colon + 1) + "\"" + term.substring(colon + 1) + "\"";
+    }
+
+    private static int archive(PlannerService service, List<String> args) {
+        expect(args, 0, 0);
+        int upcoming = service.loadEvents().size();
+        int compressed = service.getArchivedEventCount();
+        service.movePastEventsToStorage();
+        service.compactArchive();
+        System.out.println("Moved " + (upcoming - service.loadEvents().size()) + " past events out of planner.txt, compressed "
+                + (service.getArchivedEventCount() - compressed) + " old ones");
+        return 0;
+    }
+
+    private static int renameClass(PlannerService service, List<String> args) {
+        expect(args, 2, 2);
+        if (!service.classExists(args.get(0))) {
+            System.err.println("No class named " + args.get(0));
+            return 1;
+        }
+        try {
+            service.renameClass(args.get(0), field("class", args.get(1), true));
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            return 1;
+        }
+        System.out.println("Renamed " + args.get(0) + " to " + args.get(1));
+        return 0;
+    }
+
+    private static int importFile(PlannerService service, List<String> args) throws IOException {
+        expect(args, 1, 1);
+        EventImporter.ImportResult result;
+        try {
+            result = new EventImporter(service).importFile(Paths.get(args.get(0)));
+        } catch (IllegalArgumentException e) {
+            throw new UsageException(e.getMessage());
+        }
+        System.out.println("Imported " + result.getImported() + " events, skipped " + result.getRejected()
+                + " invalid entries, " + result.getDuplicates() + " already in the planner");
+        return 0;
+    }
+
+    private static int exportFile(PlannerService service, List<String> args) throws IOException {
+        expect(args, 1, 2);
+        boolean includePast = args.size() == 2;
+        if (includePast && !args.get(1).equals("--past")) {
+            throw new UsageException("Unexpected argument: " + args.get(1));
+        }
+        int exported;
+        try {
+            exported = new EventExporter(service).exportFile(Paths.get(args.get(0)), includePast);
+        } catch (IllegalArgumentException e) {
+            throw new UsageException(e.getMessage());
+        }
+        System.out.println("Exported " + exported + " events to " + args.get(0));
+        return 0;
+    }
+
+    private static void expect(List<String> args, int min, int max) {
+        if (args.size() < min || args.size() > max) {
+            throw new UsageException("Wrong number of arguments");
+        }
+    }
+
+    // Values end up in a '|'-separated line of planner.txt or classes.txt, so they can't hold '|' or a
+    // line break; rejected rather than altered so a script notices
+    private static String field(String what, String value, boolean required) {
+        if (value.indexOf('|') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            throw new UsageException("The " + what + " can't contain '|' or a line break: " + value);
+        }
+        if (required && value.isBlank()) {
+            throw new UsageException("The " + what + " can't be empty");
+        }
+        return value;
+    }
+
+    // A bare date means its midnight
+    private static LocalDateTime dateTime(String text) {
+        try {
+            if (text.length() == 10) {
+                return LocalDate.parse(text).atStartOfDay();
+            }
+            return LocalDateTime.parse(text.replace('T', ' '), DATE_TIME);
+        } catch (DateTimeParseException e) {
+            throw new UsageException("Not a date: " + text);
+        }
+    }
+
+    private static void flush(StringBuilder out) {
+        System.out.print(out);
+        out.setLength(0);
+    }
+}
@@ -0,0 +1,450 @@
+package JavaFX;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+// Checks a planner's files without starting the app, and can write repaired copies:
+//   java -cp <classes> JavaFX.PlannerFsck [--repair] [directory]
+// planner.txt and past_events.txt are cut into chunks at line breaks and the chunks are checked in
+// parallel, so multi-GB files take one pass spread over all cores. Memory holds 8 bytes per event
+// (a hash of its class, name and minute, for finding duplicates) plus the first few problems of each
+// kind. Finds malformed lines, events whose class isn't in classes.txt, duplicate events in either
+// file, and future events sitting in past_events.txt.
+// --repair leaves the originals alone and writes <file>.repaired next to each: malformed lines go to
+// <file>.rejected, later copies of a duplicate are dropped, missing classes are added and future
+// events move back to planner.txt. Stop the app and rename the copies over the originals to use them.
+// Exits with 0 if everything was fine, 1 if problems were found and 2 if the files couldn't be read.
+public final class PlannerFsck {
+    private static final String EVENT_FILE = "planner.txt";
+    private static final String PAST_EVENTS_FILE = "past_events.txt";
+    private static final String CLASS_FILE = "classes.txt";
+    private static final long CHUNK_BYTES = Long.getLong("planner.fsck.chunkBytes", 8L << 20);
+    private static final int MAX_LISTED = 20; // Problems printed per kind; the rest are only counted
+
+    private final Path directory;
+    private final boolean repair;
+    private final LocalDateTime now = LocalDateTime.now();
+    private final List<String> classLines = new ArrayList<>();
+    private final Set<String> knownClasses = new HashSet<>(); // Lower case, as the app compares classes
+    private final Set<String> missingClasses = new TreeSet<>();
+    private final List<Problem> malformed = new ArrayList<>();
+    private final List<Problem> unknownClass = new ArrayList<>();
+    private final List<Problem> duplicates = new ArrayList<>();
+    private final List<Problem> misarchived = new ArrayList<>();
+    private long malformedCount;
+    private long unknownClassCount;
+    private long duplicateCount;
+    private long misarchivedCount;
+    private int classProblems;
+
+    private PlannerFsck(Path directory, boolean repair) {
+        this.directory = directory;
+        this.repair = repair;
+    }
+
+    public static void main(String[] args) {
+        boolean repair = false;
+        Path directory = Paths.get("");
+        for (String arg : args) {
+            if (arg.equals("--repair")) {
+                repair = true;
+            } else if (arg.startsWith("-")) {
+                System.err.println("Usage: PlannerFsck [--repair] [directory]");
+                System.exit(2);
+            } else {
+                directory = Paths.get(arg);
+            }
+        }
+        try {
+            System.exit(new PlannerFsck(directory, repair).run() ? 0 : 1);
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Could not check " + directory.toAbsolutePath() + ": " + e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    private static final class Problem {
+        private final Chunk chunk;
+        private final int line; // Within the chunk
+        private final String text;
+
+        Problem(Chunk chunk, int line, String text) {
+            this.chunk = chunk;
+            this.line = line;
+            this.text = text;
+        }
+
+        @Override
+        public String toString() {
+            String shown = text.length() > 100 ? text.substring(0, 100) + "..." : text;
+            return "  " + chunk.file.getFileName() + " line " + (chunk.firstLine + line + 1) + ": " + shown;
+        }
+    }
+
+    // A run of whole lines in one file, checked by one thread
+    private static final class Chunk {
+        private final Path file;
+        private final boolean past;
+        private final long start;
+        private final long end;
+        private long firstLine; // Filled in once all chunks before it are counted
+        private int lines;
+        private long[] keys = new long[1024]; // Event hash per line; unused where the line is skipped
+        private final BitSet skipped = new BitSet();   // Blank or malformed
+        private final BitSet future = new BitSet();    // Future events in past_events.txt
+        private final BitSet duplicate = new BitSet(); // Later copies of an earlier event
+        private final List<Problem> malformed = new ArrayList<>();
+        private final List<Problem> unknownClass = new ArrayList<>();
+        private final List<Problem> misarchived = new ArrayList<>();
+        private final Set<String> missingClasses = new HashSet<>();
+        private long malformedCount;
+        private long unknownClassCount;
+        private long misarchivedCount;
+
+        Chunk(Path file, boolean past, long start, long end) {
+            this.file = file;
+            this.past = past;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    // Returns whether the planner was free of problems
+    private boolean run() throws IOException {
+        long started = System.nanoTime();
+        readClasses();
+        List<Chunk> chunks = new ArrayList<>(split(directory.resolve(EVENT_FILE), false));
+        chunks.addAll(split(directory.resolve(PAST_EVENTS_FILE), true));
+        chunks.parallelStream().forEach(this::scan);
+        number(chunks);
+        markDuplicates(chunks);
+        for (Chunk chunk : chunks) {
+            malformedCount += chunk.malformedCount;
+            unknownClassCount += chunk.unknownClassCount;
+            misarchivedCount += chunk.misarchivedCount;
+            addListed(malformed, chunk.malformed);
+            addListed(unknownClass, chunk.unknownClass);
+            addListed(misarchived, chunk.misarchived);
+            missingClasses.addAll(chunk.missingClasses);
+        }
+
+        long lines = 0;
+        for (Chunk chunk : chunks) lines += chunk.lines;
+        System.out.printf(Locale.ROOT, "Checked %s: %,d event lines in %d chunks, %d classes, %.1f s%n",
+                directory.toAbsolutePath(), lines, chunks.size(), classLines.size(), (System.nanoTime() - started) / 1e9);
+        report("malformed lines", malformedCount, malformed);
+        String missing = missingClasses.size() <= 10 ? " " + missingClasses : " (" + missingClasses.size() + " classes)";
+        report("events with a class missing from " + CLASS_FILE + missing, unknownClassCount, unknownClass);
+        report("duplicate events (same class, name and time)", duplicateCount, duplicates);
+        report("future events in " + PAST_EVENTS_FILE, misarchivedCount, misarchived);
+        if (classProblems > 0) {
+            System.out.println(classProblems + " blank or repeated lines in " + CLASS_FILE);
+        }
+        boolean clean = malformedCount + unknownClassCount + duplicateCount + misarchivedCount + classProblems == 0;
+        if (clean) {
+            System.out.println("No problems found.");
+        } else if (repair) {
+            writeRepaired(chunks);
+        }
+        return clean;
+    }
+
+    private void readClasses() throws IOException {
+        Path file = directory.resolve(CLASS_FILE);
+        if (!Files.exists(file)) return;
+        Set<String> seen = new HashSet<>();
+        for (String line : Files.readAllLines(file)) {
+            if (line.trim().isEmpty() || !seen.add(line)) {
+                classProblems++;
+                continue;
+            }
+            classLines.add(line);
+            knownClasses.add(line.trim().toLowerCase(Locale.ROOT));
+        }
+    }
+
+    // Chunk boundaries just after a line break, about CHUNK_BYTES apart
+    private static List<Chunk> split(Path file, boolean past) throws IOException {
+        List<Chunk> chunks = new ArrayList<>();
+        if (!Files.exists(file)) return chunks;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long start = 0;
+            ByteBuffer buffer = ByteBuffer.allocate(8192);
+            while (start < size) {
+                long end = Math.min(size, start + CHUNK_BYTES);
+                while (end < size) {
+                    buffer.clear();
+                    int read = channel.read(buffer, end);
+                    if (read <= 0) {
+                        end = size;
+                        break;
+                    }
+                    int newline = -1;
+                    for (int i = 0; i < read && newline < 0; i++) {
+                        if (buffer.get(i) == '\n') newline = i;
+                    }
+                    if (newline >= 0) {
+                        end += newline + 1;
+                        break;
+                    }
+                    end += read;
+                }
+                chunks.add(new Chunk(file, past, start, Math.min(end, size)));
+                start = end;
+            }
+        }
+        return chunks;
+    }
+
+    private static BufferedReader open(Chunk chunk) throws IOException {
+        FileChannel channel = FileChannel.open(chunk.file, StandardOpenOption.READ);
+        channel.position(chunk.start);
+        InputStream in = new LimitedInputStream(Channels.newInputStream(channel), chunk.end - chunk.start);
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    private void scan(Chunk chunk) {
+        try (BufferedReader reader = open(chunk)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int index = chunk.lines++;
+                if (index == chunk.keys.length) {
+                    chunk.keys = Arrays.copyOf(chunk.keys, index * 2);
+                }
+                if (line.trim().isEmpty()) {
+                    chunk.skipped.set(index);
+                    continue;
+                }
+                TimeSlot event;
+                try {
+                    event = TimeSlot.fromString(line);
+                } catch (RuntimeException e) {
+                    chunk.skipped.set(index);
+                    chunk.malformedCount++;
+                    if (chunk.malformed.size() < MAX_LISTED) chunk.malformed.add(new Problem(chunk, index, line));
+                    continue;
+                }
+                chunk.keys[index] = DedupIndex.key(event);
+                if (!knownClasses.contains(event.getClassName().toLowerCase(Locale.ROOT))) {
+                    chunk.unknownClassCount++;
+                    chunk.missingClasses.add(event.getClassName());
+                    if (chunk.unknownClass.size() < MAX_LISTED) chunk.unknownClass.add(new Problem(chunk, index, line));
+                }
+                if (chunk.past && event.getDateTime().isAfter(now)) {
+                    chunk.future.set(index);
+                    chunk.misarchivedCount++;
+                    if (chunk.misarchived.size() < MAX_LISTED) chunk.misarchived.add(new Problem(chunk, index, line));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + chunk.file, e);
+        }
+    }
+
+    private static void number(List<Chunk> chunks) {
+        long line = 0;
+        Path file = null;
+        for (Chunk chunk : chunks) {
+            if (!chunk.file.equals(file)) {
+                file = chunk.file;
+                line = 0;
+            }
+            chunk.firstLine = line;
+            line += chunk.lines;
+        }
+    }
+
+    // Sorting every key once finds the repeated ones. Keys are hashes that distinct events can share,
+    // so a second read in file order compares the events behind repeated keys and keeps the first of each.
+    private void markDuplicates(List<Chunk> chunks) {
+        long total = 0;
+        for (Chunk chunk : chunks) total += chunk.lines - chunk.skipped.cardinality();
+        if (total > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Too many events to check for duplicates: " + total);
+        }
+        long[] sorted = new long[(int) total];
+        int filled = 0;
+        for (Chunk chunk : chunks) {
+            for (int i = chunk.skipped.nextClearBit(0); i < chunk.lines; i = chunk.skipped.nextClearBit(i + 1)) {
+                sorted[filled++] = chunk.keys[i];
+            }
+        }
+        Arrays.parallelSort(sorted);
+        Set<Long> repeated = new HashSet<>();
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] == sorted[i - 1]) repeated.add(sorted[i]);
+        }
+        sorted = null;
+        if (repeated.isEmpty()) {
+            chunks.forEach(chunk -> chunk.keys = null);
+            return;
+        }
+
+        Set<DedupIndex.Identity> seen = new HashSet<>();
+        for (Chunk chunk : chunks) {
+            try (BufferedReader reader = open(chunk)) {
+                String line;
+                for (int i = 0; (line = reader.readLine()) != null; i++) {
+                    if (chunk.skipped.get(i) || !repeated.contains(chunk.keys[i])) continue;
+                    if (!seen.add(DedupIndex.identity(TimeSlot.fromString(line)))) {
+                        chunk.duplicate.set(i);
+                        duplicateCount++;
+                        if (duplicates.size() < MAX_LISTED) duplicates.add(new Problem(chunk, i, "repeats an earlier event"));
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read " + chunk.file, e);
+            }
+            chunk.keys = null;
+        }
+    }
+
+    private static void addListed(List<Problem> into, List<Problem> from) {
+        for (Problem problem : from) {
+            if (into.size() >= MAX_LISTED) return;
+            into.add(problem);
+        }
+    }
+
+    private static void report(String kind, long count, List<Problem> listed) {
+        if (count == 0) return;
+        System.out.printf(Locale.ROOT, "%,d %s%n", count, kind);
+        listed.forEach(System.out::println);
+        if (count > listed.size()) {
+            System.out.printf(Locale.ROOT, "  ... and %,d more%n", count - listed.size());
+        }
+    }
+
+    // Each chunk writes its kept lines to part files in parallel; the parts are then joined in order
+    private void writeRepaired(List<Chunk> chunks) throws IOException {
+        Path parts = Files.createTempDirectory(directory.toAbsolutePath(), "fsck-");
+        try {
+            IntStream.range(0, chunks.size()).parallel().forEach(i -> writePart(chunks.get(i), parts, i));
+
+            List<Path> events = new ArrayList<>();
+            List<Path> pastEvents = new ArrayList<>();
+            List<Path> rejectedEvents = new ArrayList<>();
+            List<Path> rejectedPast = new ArrayList<>();
+            for (int i = 0; i < chunks.size(); i++) {
+                (chunks.get(i).past ? pastEvents : events).add(parts.resolve(i + ".kept"));
+                (chunks.get(i).past ? rejectedPast : rejectedEvents).add(parts.resolve(i + ".rejected"));
+            }
+            for (int i = 0; i < chunks.size(); i++) {
+                if (chunks.get(i).past) events.add(parts.resolve(i + ".future"));
+            }
+            join(events, directory.resolve(EVENT_FILE + ".repaired"));
+            join(pastEvents, directory.resolve(PAST_EVENTS_FILE + ".repaired"));
+            if (chunks.stream().anyMatch(chunk -> !chunk.past && chunk.malformedCount > 0)) {
+                join(rejectedEvents, directory.resolve(EVENT_FILE + ".rejected"));
+            }
+            if (chunks.stream().anyMatch(chunk -> chunk.past && chunk.malformedCount > 0)) {
+                join(rejectedPast, directory.resolve(PAST_EVENTS_FILE + ".rejected"));
+            }
+            Set<String> classes = new LinkedHashSet<>(classLines);
+            classes.addAll(missingClasses);
+            Files.write(directory.resolve(CLASS_FILE + ".repaired"), classes);
+            System.out.println("Wrote repaired copies next to the originals (*.repaired); the originals were not changed.");
+        } finally {
+            try (Stream<Path> leftovers = Files.list(parts)) {
+                for (Path part : (Iterable<Path>) leftovers::iterator) {
+                    Files.deleteIfExists(part);
+                }
+            }
+            Files.deleteIfExists(parts);
+        }
+    }
+
+    private static void writePart(Chunk chunk, Path parts, int index) {
+        try (BufferedReader reader = open(chunk);
+             BufferedWriter kept = Files.newBufferedWriter(parts.resolve(index + ".kept"));
+             BufferedWriter moved = Files.newBufferedWriter(parts.resolve(index + ".future"));
+             BufferedWriter rejected = Files.newBufferedWriter(parts.resolve(index + ".rejected"))) {
+            String line;
+            for (int i = 0; (line = reader.readLine()) != null; i++) {
+                BufferedWriter target;
+                if (chunk.skipped.get(i)) {
+                    if (line.trim().isEmpty()) continue;
+                    target = rejected;
+                } else if (chunk.duplicate.get(i)) {
+                    continue;
+                } else {
+                    target = chunk.future.get(i) ? moved : kept;
+                }
+                target.write(line);
+                target.newLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write a repaired part of " + chunk.file, e);
+        }
+    }
+
+    private static void join(List<Path> parts, Path target) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Path part : parts) {
+                try (FileChannel in = FileChannel.open(part, StandardOpenOption.READ)) {
+                    long position = 0;
+                    long size = in.size();
+                    while (position < size) {
+                        position += in.transferTo(position, size - position, out);
+                    }
+                }
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // Reads at most limit bytes, so a chunk's reader stops at the chunk's end
+    private static final class LimitedInputStream extends FilterInputStream {
+        private long remaining;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) return -1;
+            int b = super.read();
+            if (b >= 0) remaining--;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0) return -1;
+            int read = super.read(buffer, offset, (int) Math.min(length, remaining));
+            if (read > 0) remaining -= read;
+            return read;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package JavaFX;
+
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+
+// System.Logger instances for the app, all writing through one AsyncLogAppender.
+// The threshold comes from -Dplanner.log.level (TRACE, DEBUG, INFO, WARNING, ERROR, OFF); default INFO.
+public final class PlannerLog {
+    private static final System.Logger.Level THRESHOLD = parseLevel(System.getProperty("planner.log.level"));
+    private static final Map<String, System.Logger> LOGGERS = new ConcurrentHashMap<>();
+    private static volatile AsyncLogAppender appender;
+
+    private PlannerLog() {
+    }
+
+    public static System.Logger getLogger(Class<?> owner) {
+        return LOGGERS.computeIfAbsent(owner.getSimpleName(), AppLogger::new);
+    }
+
+    private static System.Logger.Level parseLevel(String value) {
+        if (value == null) {
+            return System.Logger.Level.INFO;
+        }
+        try {
+            return System.Logger.Level.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown planner.log.level '" + value + "', using INFO");
+            return System.Logger.Level.INFO;
+        }
+    }
+
+    // The writer thread only starts once something is actually logged
+    private static AsyncLogAppender appender() {
+        AsyncLogAppender current = appender;
+        if (current == null) {
+            synchronized (PlannerLog.class) {
+                current = appender;
+                if (current == null) {
+                    current = new AsyncLogAppender();
+                    appender = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static class AppLogger implements System.Logger {
+        private final String name;
+
+        AppLogger(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        // The Supplier overloads of System.Logger check this first, so disabled messages are never built
+        @Override
+        public boolean isLoggable(Level level) {
+            return level != Level.OFF && THRESHOLD != Level.OFF
+                    && level.getSeverity() >= THRESHOLD.getSeverity();
+        }
+
+        @Override
+        public void log(Level level, ResourceBundle bundle, String msg, Throwable thrown) {
+            if (isLoggable(level)) {
+                appender().append(level, name, localize(bundle, msg), null, thrown);
+            }
+        }
+
+        // Parameters are formatted on the writer thread, not by the caller
+        @Override
+        public void log(Level level, ResourceBundle bundle, String format, Object... params) {
+            if (isLoggable(level)) {
+                appender().append(level, name, localize(bundle, format), params, null);
+            }
+        }
+
+        private static String localize(ResourceBundle bundle, String msg) {
+            if (bundle == null || msg == null || !bundle.containsKey(msg)) {
+                return String.valueOf(msg);
+            }
+            return bundle.getString(msg);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package JavaFX;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.System.Logger.Level;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.function.Supplier;
+
+// Per-operation latency histograms and I/O counters for a PlannerService, exported over JMX and JFR
+public class PlannerMetrics implements PlannerMetricsMXBean {
+    private static final System.Logger LOG = PlannerLog.getLogger(PlannerMetrics.class);
+    private static final Map<String, PlannerMetrics> REGISTRY = new ConcurrentHashMap<>();
+    private static final int BUCKETS = 40; // Power-of-two microsecond buckets, up to ~6 days
+
+    private final Map<String, OperationStats> operations = new ConcurrentHashMap<>();
+
+    private PlannerMetrics() {
+    }
+
+    // One metrics instance per data set, shared by every PlannerService that opens it
+    public static PlannerMetrics forName(String name) {
+        return REGISTRY.computeIfAbsent(name, key -> {
+            PlannerMetrics metrics = new PlannerMetrics();
+            try {
+                ObjectName objectName = new ObjectName("JavaFX:type=PlannerMetrics,name=" + ObjectName.quote(key));
+                ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, objectName);
+            } catch (InstanceAlreadyExistsException ignored) {
+                // Already visible over JMX
+            } catch (JMException e) {
+                LOG.log(Level.WARNING, "Could not register planner metrics MBean", e);
+            }
+            return metrics;
+        });
+    }
+
+    // Starts timing an operation; close the returned timer when the operation ends
+    public Timer start(String operation) {
+        return new Timer(operations.computeIfAbsent(operation, OperationStats::new));
+    }
+
+    // Times an operation that counts nothing but its duration; it failed if the body throws
+    public <T> T time(String operation, Supplier<T> body) {
+        try (Timer timer = start(operation)) {
+            try {
+                return body.get();
+            } catch (RuntimeException | Error e) {
+                timer.failed();
+                throw e;
+            }
+        }
+    }
+
+    public void time(String operation, Runnable body) {
+        time(operation, () -> {
+            body.run();
+            return null;
+        });
+    }
+
+    public static class Timer implements AutoCloseable {
+        private final OperationStats stats;
+        private final PlannerOperationEvent event = new PlannerOperationEvent();
+        private final long startNanos = System.nanoTime();
+        private long bytesRead;
+        private long bytesWritten;
+        private long eventsParsed;
+        private boolean failed;
+
+        private Timer(OperationStats stats) {
+            this.stats = stats;
+            event.begin();
+        }
+
+        // Counts one line read from disk, including its line separator
+        public void read(String line) {
+            bytesRead += line.length() + 1;
+        }
+
+        // Counts one line written to disk, including its line separator
+        public void wrote(String line) {
+            bytesWritten += line.length() + 1;
+        }
+
+        public void parsed(int events) {
+            eventsParsed += events;
+        }
+
+        public void failed() {
+            failed = true;
+        }
+
+        @Override
+        public void close() {
+            stats.record(System.nanoTime() - startNanos, bytesRead, bytesWritten, eventsParsed, failed);
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = stats.name;
+                event.bytesRead = bytesRead;
+                event.bytesWritten = bytesWritten;
+                event.eventsParsed = eventsParsed;
+                event.failed = failed;
+                event.commit();
+            }
+        }
+    }
+
+    private static class OperationStats {
+        private final String name;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder bytesRead = new LongAdder();
+        private final LongAdder bytesWritten = new LongAdder();
+        private final LongAdder eventsParsed = new LongAdder();
+        private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+        OperationStats(String name) {
+            this.name = name;
+        }
+
+        void record(long nanos, long read, long written, long parsed, boolean failed) {
+            count.increment();
+            if (failed) errors.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            bytesRead.add(read);
+            bytesWritten.add(written);
+            eventsParsed.add(parsed);
+            long micros = Math.max(1, nanos / 1000);
+            histogram.incrementAndGet(Math.min(BUCKETS - 1, 63 - Long.numberOfLeadingZeros(micros)));
+        }
+
+        // Upper bound of the bucket holding the given quantile
+        long percentileMicros(double quantile, long total) {
+            long target = (long) Math.ceil(quantile * total);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += histogram.get(i);
+                if (seen >= target && seen > 0) {
+                    return (1L << (i + 1)) - 1;
+                }
+            }
+            return 0;
+        }
+
+        OperationSnapshot snapshot() {
+            long total = count.sum();
+            double mean = total == 0 ? 0 : totalNanos.sum() / 1000.0 / total;
+            return new OperationSnapshot(name, total, errors.sum(), mean,
+                    percentileMicros(0.50, total), percentileMicros(0.95, total), percentileMicros(0.99, total),
+                    maxNanos.get() / 1000, bytesRead.sum(), bytesWritten.sum(), eventsParsed.sum());
+        }
+    }
+
+    @Override
+    public List<OperationSnapshot> getOperations() {
+        List<OperationSnapshot> snapshots = new ArrayList<>();
+        for (OperationStats stats : operations.values()) {
+            snapshots.add(stats.snapshot());
+        }
+        snapshots.sort((a, b) -> a.getName().compareTo(b.getName()));
+        return snapshots;
+    }
+
+    @Override
+    public long getTotalBytesRead() {
+        return operations.values().stream().mapToLong(stats -> stats.bytesRead.sum()).sum();
+    }
+
+    @Override
+    public long getTotalBytesWritten() {
+        return operations.values().stream().mapToLong(stats -> stats.bytesWritten.sum()).sum();
+    }
+
+    @Override
+    public long getTotalEventsParsed() {
+        return operations.values().stream().mapToLong(stats -> stats.eventsParsed.sum()).sum();
+    }
+
+    @Override
+    public void reset() {
+        operations.clear();
+    }
+}
@@ -0,0 +1,91 @@
+package JavaFX;
+
+import java.util.List;
+
+// JMX view of PlannerMetrics; shows up in JConsole / VisualVM under "JavaFX:type=PlannerMetrics"
+public interface PlannerMetricsMXBean {
+    List<OperationSnapshot> getOperations();
+
+    long getTotalBytesRead();
+
+    long getTotalBytesWritten();
+
+    long getTotalEventsParsed();
+
+    void reset();
+
+    // Point-in-time copy of one operation's counters; latencies are in microseconds
+    class OperationSnapshot {
+        private final String name;
+        private final long count;
+        private final long errors;
+        private final double meanMicros;
+        private final long p50Micros;
+        private final long p95Micros;
+        private final long p99Micros;
+        private final long maxMicros;
+        private final long bytesRead;
+        private final long bytesWritten;
+        private final long eventsParsed;
+
+        public OperationSnapshot(String name, long count, long errors, double meanMicros, long p50Micros,
+                                 long p95Micros, long p99Micros, long maxMicros, long bytesRead,
+                                 long bytesWritten, long eventsParsed) {
+            this.name = name;
+            this.count = count;
+            this.errors = errors;
+            this.meanMicros = meanMicros;
+            this.p50Micros = p50Micros;
+            this.p95Micros = p95Micros;
+            this.p99Micros = p99Micros;
+            this.maxMicros = maxMicros;
+            this.bytesRead = bytesRead;
+            this.bytesWritten = bytesWritten;
+            this.eventsParsed = eventsParsed;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public double getMeanMicros() {
+            return meanMicros;
+        }
+
+        public long getP50Micros() {
+            return p50Micros;
+        }
+
+        public long getP95Micros() {
+            return p95Micros;
+        }
+
+        public long getP99Micros() {
+            return p99Micros;
+        }
+
+        public long getMaxMicros() {
+            return maxMicros;
+        }
+
+        public long getBytesRead() {
+            return bytesRead;
+        }
+
+        public long getBytesWritten() {
+            return bytesWritten;
+        }
+
+        public long getEventsParsed() {
+            return eventsParsed;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package JavaFX;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// JFR event recorded around each PlannerService operation; view it in JDK Mission Control
+@Name("JavaFX.PlannerOperation")
+@Label("Planner Operation")
+@Category({"Planner", "Storage"})
+@Description("A PlannerService operation with the data it read, wrote and parsed")
+@StackTrace(false)
+class PlannerOperationEvent extends jdk.jfr.Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Bytes Read")
+    @DataAmount
+    long bytesRead;
+
+    @Label("Bytes Written")
+    @DataAmount
+    long bytesWritten;
+
+    @Label("Events Parsed")
+    long eventsParsed;
+
+    @Label("Failed")
+    boolean failed;
+}
@@ -1,31 +1,147 @@
 package JavaFX;
 
-import javafx.application.Platform;
-import javafx.geometry.Pos;
-import javafx.scene.control.*;
-import javafx.scene.layout.StackPane;
-import javafx.scene.layout.VBox;
-
-import javax.smartcardio.Card;
 import java.io.*;
+import java.lang.System.Logger.Level;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collector;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class PlannerService {
+    private static final System.Logger LOG = PlannerLog.getLogger(PlannerService.class);
     private static final String EVENT_FILE = "planner.txt";  // Stores events
     private static final String CLASS_FILE = "classes.txt";  // Stores class names
     private static final String PAST_EVENTS_FILE = "past_events.txt";
-    private final List<Runnable> updateListeners = new ArrayList<>();
+    private static final String JOURNAL_DIR = "planner_journal"; // Undo history too large to keep in memory
+    private static final String ARCHIVE_DIR = "archive";          // Compressed blocks of old past events
+    private static final String DEDUP_DIR = "dedup";              // Work files of removeDuplicates()
+    // Past events older than this move from past_events.txt into the compressed archive
+    private static final Duration COLD_AFTER = Duration.ofDays(Long.getLong("planner.archive.coldAfterDays", 90));
+    // Runs update listeners of services created from then on; see setDefaultNotifier()
+    private static volatile Executor defaultNotifier = Runnable::run;
+    private final List<Runnable> updateListeners = new CopyOnWriteArrayList<>(); // Notified from worker threads
+    private final List<EventChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+    private final Path dataDirectory;
+    private final Path eventPath;
+    private final Path classPath;
+    private final Path pastEventsPath;
+    private final PlannerMetrics metrics;
+    private final CommandJournal journal;
+    private final ColdArchive coldArchive;
+    private final Executor notifier = defaultNotifier;
+    private final DedupIndex dedupIndex; // Keys of every event, to turn away duplicates
+
+    // In-memory copies of the data files, replaced by every write in this class; null means read from disk next time
+    private volatile List<TimeSlot> eventCache;
+    private volatile List<TimeSlot> pastEventCache;
+    private volatile List<String> classCache;
+    private volatile EventTimeIndex timeIndex; // Rebuilt lazily whenever either event cache is replaced
+    private volatile EventClassIndex classIndex; // Likewise, built on the first query naming a class
+    private volatile Runnable beforeClearPastEvents;
+    // Each data file as this service last read or wrote it, to tell other programs' edits from its own
+    private final Map<Path, FileState> fileStates = new HashMap<>();
+    private SyncLog syncLog; // Follows every change once the planner has been synced; see PlannerSync
 
+    // A planner in the working directory
     public PlannerService() {
-        ensureFileExists(EVENT_FILE);
-        ensureFileExists(CLASS_FILE);
-        ensureFileExists(PAST_EVENTS_FILE);
+        this(Paths.get(""));
+    }
+
+    // A planner whose files all live in the given directory, which is created if needed
+    public PlannerService(Path dataDirectory) {
+        this.dataDirectory = dataDirectory;
+        this.eventPath = dataDirectory.resolve(EVENT_FILE);
+        this.classPath = dataDirectory.resolve(CLASS_FILE);
+        this.pastEventsPath = dataDirectory.resolve(PAST_EVENTS_FILE);
+        this.metrics = PlannerMetrics.forName(dataDirectory.toAbsolutePath().toString());
+        this.journal = new CommandJournal(dataDirectory.resolve(JOURNAL_DIR));
+        this.coldArchive = new ColdArchive(dataDirectory.resolve(ARCHIVE_DIR));
+        this.dedupIndex = new DedupIndex(this);
+        changeListeners.add(dedupIndex);
+        try {
+            Files.createDirectories(dataDirectory.toAbsolutePath());
+        } catch (IOException e) {
+            LOG.log(Level.ERROR, "Could not create " + dataDirectory, e);
+        }
+        ensureFileExists(eventPath);
+        ensureFileExists(classPath);
+        ensureFileExists(pastEventsPath);
+        remember(eventPath);
+        remember(classPath);
+        remember(pastEventsPath);
+        if (Files.isDirectory(dataDirectory.resolve(SyncLog.DIRECTORY))) {
+            syncLog = SyncLog.attach(this);
+        }
+    }
+
+    public Path getDataDirectory() {
+        return dataDirectory;
+    }
+
+    // Roughly how many events this planner holds in memory, for deciding which idle workspaces to trim
+    public int cachedEventCount() {
+        List<TimeSlot> events = eventCache;
+        List<TimeSlot> pastEvents = pastEventCache;
+        return (events == null ? 0 : events.size()) + (pastEvents == null ? 0 : pastEvents.size());
+    }
+
+    // Drops the in-memory copies and moves the undo history to disk; everything is read back on next use.
+    // Change listeners match events by identity, so this is only for planners nobody is listening to.
+    public synchronized void trimMemory() {
+        eventCache = null;
+        pastEventCache = null;
+        classCache = null;
+        timeIndex = null;
+        classIndex = null;
+        dedupIndex.clear();
+        coldArchive.trimMemory();
+        journal.spillAll();
+    }
+
+    // The sync log, started on first use; from then on it follows every change, also in later sessions
+    synchronized SyncLog syncLog() {
+        if (syncLog == null) {
+            syncLog = SyncLog.attach(this);
+        }
+        return syncLog;
+    }
+
+    // Saves where the sync log stands, so the next session knows the files weren't changed while closed
+    public synchronized void saveSyncState() {
+        if (syncLog != null) {
+            syncLog.checkpoint();
+        }
+    }
+
+    public PlannerMetrics getMetrics() {
+        return metrics;
     }
 
     public List<TimeSlot> loadEventsForClass(String className) {
@@ -42,26 +158,41 @@ public class PlannerService {
     }
 
     // Ensures the file exists, creates it if missing
-    private void ensureFileExists(String fileName) {
-        Path path = Paths.get(fileName);
+    private void ensureFileExists(Path path) {
         if (!Files.exists(path)) {
             try {
                 Files.createFile(path);
             } catch (IOException e) {
-                e.printStackTrace();
+                LOG.log(Level.ERROR, "Could not create " + path, e);
             }
         }
     }
 
-    // Loads all classes from classes.txt
-    public static List<String> loadClasses() {
-        List<String> classes = new ArrayList<>();
-        try {
-            classes = Files.readAllLines(Paths.get(CLASS_FILE));
-        } catch (IOException e) {
-            e.printStackTrace();
+    // Loads all classes from classes.txt, or from memory once they have been read
+    public List<String> loadClasses() {
+        List<String> classes = classCache;
+        if (classes == null) {
+            classes = cacheClasses();
+        }
+        return new ArrayList<>(classes);
+    }
+
+    private synchronized List<String> cacheClasses() {
+        if (classCache != null) {
+            return classCache;
+        }
+        try (PlannerMetrics.Timer timer = metrics.start("loadClasses")) {
+            try {
+                List<String> classes = readLines(classPath);
+                classes.forEach(timer::read);
+                classCache = Collections.unmodifiableList(classes);
+                return classCache;
+            } catch (IOException e) {
+                timer.failed();
+                LOG.log(Level.ERROR, "Could not read " + CLASS_FILE, e);
+                return List.of();
+            }
         }
-        return classes;
     }
 
     // Adds a new class to classes.txt, returns the added class name or null if cancelled
@@ -72,32 +203,334 @@ public class PlannerService {
         return null; // Placeholder; actual implementation will be in PlannerApp
     }
 
-    public void addNewClass(String className) {
+    public synchronized void addNewClass(String className) {
+        checkForExternalChanges();
         List<String> classes = loadClasses();
         if (classes.contains(className)) {
             return;
         }
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(CLASS_FILE, true))) {
-            writer.write(className);
-            writer.newLine();
+        try (PlannerMetrics.Timer timer = metrics.start("addNewClass");
+             BufferedWriter writer = new BufferedWriter(new FileWriter(classPath.toFile(), true))) {
+            writeLine(writer, className, timer);
+            classCache = appended(classCache, List.of(className));
+            journal.recordClasses(List.of(), List.of(className), "Add class " + className);
             notifyUpdateListeners();
         } catch (IOException e) {
-            e.printStackTrace();
+            classCache = null;
+            LOG.log(Level.ERROR, "Could not add class " + className, e);
         }
+        remember(classPath);
     }
 
-    public void movePastEventsToStorage() {
-        List<TimeSlot> allEvents = loadEvents();
-        List<TimeSlot> upcomingEvents = new ArrayList<>();
-        List<TimeSlot> pastEvents = new ArrayList<>();
-
+    // Streams planner.txt once, appending past events to the archive and rewriting only upcoming ones
+    public synchronized void movePastEventsToStorage() {
+        checkForExternalChanges();
         LocalDateTime now = LocalDateTime.now();
+        Path tempPath = eventPath.resolveSibling(EVENT_FILE + ".tmp");
 
-        for (TimeSlot event : allEvents) {
-            if (event.getDateTime() == null) {
-                System.err.println("movePastEventsToStorage: Event with null dateTime: " + event.getEventName());
-                continue;
+        // With planner.txt already in memory the disk is only touched if something has expired
+        List<TimeSlot> cached = eventCache;
+        if (cached != null) {
+            if (cached.stream().anyMatch(event -> event.getDateTime().isBefore(now))) {
+                try (PlannerMetrics.Timer timer = metrics.start("movePastEventsToStorage")) {
+                    commit(cached, timer);
+                }
+            }
+            notifyUpdateListeners();
+            return;
+        }
+
+        try (PlannerMetrics.Timer timer = metrics.start("movePastEventsToStorage")) {
+            pastEventCache = null; // Appended to below without being read
+            List<TimeSlot> archived = new ArrayList<>();
+            try (BufferedReader reader = Files.newBufferedReader(eventPath);
+                 BufferedWriter upcomingWriter = Files.newBufferedWriter(tempPath);
+                 BufferedWriter pastWriter = new BufferedWriter(new FileWriter(pastEventsPath.toFile(), true))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    timer.read(line);
+                    TimeSlot event = parseLine(line, timer);
+                    if (event == null) continue;
+                    boolean past = event.getDateTime().isBefore(now);
+                    writeLine(past ? pastWriter : upcomingWriter, event.toString(), timer);
+                    if (past && !changeListeners.isEmpty()) {
+                        archived.add(event);
+                    }
+                }
+            } catch (IOException e) {
+                timer.failed();
+                LOG.log(Level.ERROR, "Could not archive past events", e);
+                fireChange(EventChangeListener::reloaded);
+                return;
+            }
+
+            try {
+                Files.move(tempPath, eventPath, StandardCopyOption.REPLACE_EXISTING);
+                if (!archived.isEmpty()) {
+                    fireChange(listener -> listener.eventsArchived(archived));
+                }
+            } catch (IOException e) {
+                timer.failed();
+                LOG.log(Level.ERROR, "Could not replace " + EVENT_FILE, e);
+                fireChange(EventChangeListener::reloaded);
+            }
+            remember(eventPath);
+            remember(pastEventsPath);
+        }
+        notifyUpdateListeners();
+    }
+
+    // Appends a batch of events to planner.txt without archiving or notifying listeners
+    synchronized void appendEvents(List<TimeSlot> events) {
+        checkForExternalChanges();
+        try (PlannerMetrics.Timer timer = metrics.start("appendEvents");
+             BufferedWriter writer = new BufferedWriter(new FileWriter(eventPath.toFile(), true))) {
+            for (TimeSlot event : events) {
+                writeLine(writer, event.toString(), timer);
+            }
+            eventCache = appended(eventCache, events);
+            journal.recordEvents(List.of(), events, "Add events");
+            fireChange(listener -> listener.eventsAdded(events));
+        } catch (IOException e) {
+            eventCache = null;
+            LOG.log(Level.ERROR, "Could not append to " + EVENT_FILE, e);
+            fireChange(EventChangeListener::reloaded);
+        }
+        remember(eventPath);
+    }
+
+    // Appends any class names not yet in classes.txt without notifying listeners
+    synchronized void addClasses(Collection<String> classNames) {
+        checkForExternalChanges();
+        Set<String> existing = new HashSet<>(loadClasses());
+        List<String> added = new ArrayList<>();
+        try (PlannerMetrics.Timer timer = metrics.start("addClasses");
+             BufferedWriter writer = new BufferedWriter(new FileWriter(classPath.toFile(), true))) {
+            for (String className : classNames) {
+                if (existing.add(className)) {
+                    writeLine(writer, className, timer);
+                    added.add(className);
+                }
+            }
+            classCache = appended(classCache, added);
+            journal.recordClasses(List.of(), added, "Add classes");
+        } catch (IOException e) {
+            classCache = null;
+            LOG.log(Level.ERROR, "Could not append to " + CLASS_FILE, e);
+        }
+        remember(classPath);
+    }
+
+    // The cached list with more items on the end, or null if nothing was cached
+    private static <T> List<T> appended(List<T> cached, Collection<? extends T> more) {
+        if (cached == null) {
+            return null;
+        }
+        List<T> copy = new ArrayList<>(cached.size() + more.size());
+        copy.addAll(cached);
+        copy.addAll(more);
+        return Collections.unmodifiableList(copy);
+    }
+
+    // Reads planner.txt line by line, handing each event to the consumer without building a list
+    public void forEachEvent(Consumer<TimeSlot> consumer) {
+        List<TimeSlot> cached = eventCache;
+        if (cached != null) {
+            cached.forEach(consumer);
+        } else {
+            forEachLine(eventPath, "scanEvents", consumer);
+        }
+    }
+
+    // Hands every archived event to the consumer, the compressed blocks first and then past_events.txt
+    // line by line, without building a list
+    public void forEachPastEvent(Consumer<TimeSlot> consumer) {
+        coldArchive.forEach(consumer);
+        List<TimeSlot> cached = pastEventCache;
+        if (cached != null) {
+            cached.forEach(consumer);
+        } else {
+            forEachLine(pastEventsPath, "scanPastEvents", consumer);
+        }
+    }
+
+    private void forEachLine(Path file, String operation, Consumer<TimeSlot> consumer) {
+        try (PlannerMetrics.Timer timer = metrics.start(operation);
+             BufferedReader reader = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                timer.read(line);
+                TimeSlot event = parseLine(line, timer);
+                if (event != null) {
+                    consumer.accept(event);
+                }
+            }
+        } catch (IOException e) {
+            LOG.log(Level.ERROR, "Could not read " + file, e);
+        }
+    }
+
+    // Reduces every upcoming and archived event with the collector on the common ForkJoin pool.
+    // Uses the in-memory copies when present; otherwise the files are split across threads and
+    // parsed without being cached.
+    public <R> R collectAllEvents(Collector<TimeSlot, ?, R> collector) {
+        return metrics.time("collectAllEvents", () -> {
+            try (Stream<TimeSlot> events = parallelEvents(eventCache, eventPath);
+                 Stream<TimeSlot> pastEvents = parallelEvents(pastEventCache, pastEventsPath);
+                 Stream<TimeSlot> coldEvents = coldArchive.parallelStream()) {
+                return Stream.concat(Stream.concat(events, pastEvents), coldEvents).parallel().collect(collector);
+            }
+        });
+    }
+
+    private static Stream<TimeSlot> parallelEvents(List<TimeSlot> cached, Path file) {
+        if (cached != null) {
+            return cached.parallelStream();
+        }
+        try {
+            return Files.lines(file).parallel().map(PlannerService::parseLine).filter(Objects::nonNull);
+        } catch (IOException e) {
+            LOG.log(Level.ERROR, "Could not read " + file, e);
+            return Stream.empty();
+        }
+    }
+
+    // Parses one stored line, returning null for blank or malformed lines
+    private static TimeSlot parseLine(String line, PlannerMetrics.Timer timer) {
+        TimeSlot event = parseLine(line);
+        if (event != null) {
+            timer.parsed(1);
+        }
+        return event;
+    }
+
+    private static TimeSlot parseLine(String line) {
+        if (line.trim().isEmpty()) return null;
+        try {
+            return TimeSlot.fromString(line);
+        } catch (Exception e) {
+            LOG.log(Level.WARNING, () -> "Failed to parse event: " + line);
+            return null;
+        }
+    }
+
+    private static void writeLine(BufferedWriter writer, String line, PlannerMetrics.Timer timer) throws IOException {
+        writer.write(line);
+        writer.newLine();
+        timer.wrote(line);
+    }
+
+    // Saves the event to planner.txt unless the planner already has one with the same class, name
+    // and minute; returns whether it was saved
+    public boolean saveEvent(TimeSlot event) {
+        if (event == null) {
+            LOG.log(Level.WARNING, "saveEvent: Event is null");
+            return false;
+        }
+        if (event.getDateTime() == null) {
+            LOG.log(Level.WARNING, () -> "saveEvent: Event dateTime is null for event: " + event.getEventName());
+            return false;
+        }
+        LOG.log(Level.DEBUG, () -> "Saving event: " + event);
+        int[] saved = {0};
+        recorded("Add event " + event.getEventName(), () -> saved[0] = saveEvents(List.of(event)));
+        return saved[0] == 1;
+    }
+
+    // Saves any number of events with a single write, archive pass and notification. Events the
+    // planner already has, and repeats within the collection, are skipped; returns how many were saved.
+    public int saveEvents(Collection<TimeSlot> events) {
+        return metrics.time("saveEvents", () -> {
+            synchronized (this) {
+                List<TimeSlot> fresh = withoutDuplicates(events);
+                if (!fresh.isEmpty()) {
+                    recorded("Add events", () -> batch(mutator -> fresh.forEach(mutator::add)));
+                }
+                return fresh.size();
+            }
+        });
+    }
+
+    // True if the planner, upcoming or archived, already has an event with the same class, name and minute
+    public synchronized boolean isDuplicate(TimeSlot event) {
+        checkForExternalChanges();
+        return dedupIndex.contains(event);
+    }
+
+    // The events the planner doesn't have yet, keeping only the first of any that repeat each other.
+    // Events without a time can't be saved and are left out as well, so the result is what gets saved.
+    public synchronized List<TimeSlot> withoutDuplicates(Collection<TimeSlot> events) {
+        checkForExternalChanges();
+        List<TimeSlot> fresh = new ArrayList<>(events.size());
+        Set<DedupIndex.Identity> seen = new HashSet<>();
+        int untimed = 0;
+        for (TimeSlot event : events) {
+            if (event == null || event.getDateTime() == null) {
+                untimed++;
+            } else if (!dedupIndex.contains(event) && seen.add(DedupIndex.identity(event))) {
+                fresh.add(event);
             }
+        }
+        if (untimed > 0) {
+            LOG.log(Level.WARNING, "Skipped {0} events without a dateTime", untimed);
+        }
+        if (fresh.size() + untimed < events.size()) {
+            LOG.log(Level.INFO, "Skipped {0} duplicate events", events.size() - fresh.size() - untimed);
+        }
+        return fresh;
+    }
+
+    // Deletes every event matching the filter in one commit, returns how many were removed
+    public int deleteEvents(Predicate<TimeSlot> filter) {
+        int[] removed = {0};
+        metrics.time("deleteEvents", () -> recorded("Delete events", () -> batch(mutator -> mutator.delete(event -> {
+            if (filter.test(event)) {
+                removed[0]++;
+                return true;
+            }
+            return false;
+        }))));
+        return removed[0];
+    }
+
+    // Changes queued inside batch(); nothing touches the disk until the batch finishes
+    public interface Mutator {
+        void add(TimeSlot event);
+
+        void update(TimeSlot oldEvent, TimeSlot newEvent);
+
+        void updateAll(Predicate<TimeSlot> filter, UnaryOperator<TimeSlot> change);
+
+        void delete(Predicate<TimeSlot> filter);
+    }
+
+    // Applies all changes to one in-memory copy of planner.txt, then commits it with a single
+    // rewrite, a single archive pass and a single listener notification
+    public synchronized void batch(Consumer<Mutator> changes) {
+        checkForExternalChanges();
+        List<TimeSlot> before = loadEvents();
+        BatchMutator mutator = new BatchMutator(new ArrayList<>(before));
+        changes.accept(mutator);
+        if (!mutator.changed) {
+            return;
+        }
+
+        try (PlannerMetrics.Timer timer = metrics.start("batchCommit")) {
+            List<TimeSlot> removed = new ArrayList<>();
+            List<TimeSlot> added = new ArrayList<>();
+            difference(before, mutator.events, removed, added);
+            journal.recordEvents(removed, added, "Edit events");
+            fireRemovedAndAdded(removed, added);
+            commit(mutator.events, timer);
+        }
+        notifyUpdateListeners();
+    }
+
+    private void commit(List<TimeSlot> events, PlannerMetrics.Timer timer) {
+        List<TimeSlot> upcomingEvents = new ArrayList<>();
+        List<TimeSlot> pastEvents = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (TimeSlot event : events) {
             if (event.getDateTime().isBefore(now)) {
                 pastEvents.add(event);
             } else {
@@ -105,67 +538,584 @@ public class PlannerService {
             }
         }
 
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(PAST_EVENTS_FILE, true))) {
-            for (TimeSlot event : pastEvents) {
-                writer.write(event.toString());
-                writer.newLine();
+        if (!pastEvents.isEmpty()) {
+            try (BufferedWriter writer = new BufferedWriter(new FileWriter(pastEventsPath.toFile(), true))) {
+                for (TimeSlot event : pastEvents) {
+                    writeLine(writer, event.toString(), timer);
+                }
+                pastEventCache = appended(pastEventCache, pastEvents);
+                fireChange(listener -> listener.eventsArchived(pastEvents));
+            } catch (IOException e) {
+                timer.failed();
+                pastEventCache = null;
+                LOG.log(Level.ERROR, "Could not append to " + PAST_EVENTS_FILE, e);
+                fireChange(EventChangeListener::reloaded);
             }
-        } catch (IOException e) {
-            e.printStackTrace();
+            remember(pastEventsPath);
+        }
+        writeEvents(upcomingEvents, timer);
+    }
+
+    // An edited event stays the same event, for undo and for sync
+    private static TimeSlot keepId(TimeSlot oldEvent, TimeSlot newEvent) {
+        return newEvent.hasStoredId() || newEvent.getId().equals(oldEvent.getId()) ? newEvent : newEvent.withId(oldEvent.getId());
+    }
+
+    private static class BatchMutator implements Mutator {
+        private final List<TimeSlot> events;
+        private boolean changed;
+
+        BatchMutator(List<TimeSlot> events) {
+            this.events = events;
+        }
+
+        @Override
+        public void add(TimeSlot event) {
+            if (event == null || event.getDateTime() == null) {
+                LOG.log(Level.WARNING, "batch: Skipping event without a dateTime");
+                return;
+            }
+            events.add(event);
+            changed = true;
         }
 
-        saveEvents(upcomingEvents);
+        // Replaces just that event: the same instance, or else the first with its id, which for an event
+        // never edited means the same line. Events sharing a day, or even class, name and time, stay.
+        @Override
+        public void update(TimeSlot oldEvent, TimeSlot newEvent) {
+            int match = events.indexOf(oldEvent);
+            if (match < 0) {
+                String id = oldEvent.getId();
+                for (int i = 0; i < events.size() && match < 0; i++) {
+                    if (events.get(i).getId().equals(id)) match = i;
+                }
+            }
+            if (match < 0) {
+                LOG.log(Level.WARNING, "batch: No event to update matching " + oldEvent);
+                return;
+            }
+            events.set(match, keepId(events.get(match), newEvent));
+            changed = true;
+        }
+
+        @Override
+        public void updateAll(Predicate<TimeSlot> filter, UnaryOperator<TimeSlot> change) {
+            for (int i = 0; i < events.size(); i++) {
+                TimeSlot event = events.get(i);
+                if (filter.test(event)) {
+                    events.set(i, keepId(event, change.apply(event)));
+                    changed = true;
+                }
+            }
+        }
+
+        @Override
+        public void delete(Predicate<TimeSlot> filter) {
+            changed |= events.removeIf(filter);
+        }
+    }
+
+    // Throws if the beforeClearPastEvents hook fails, leaving the archive untouched
+    public synchronized void clearPastEvents() {
+        Runnable hook = beforeClearPastEvents;
+        if (hook != null) {
+            hook.run();
+        }
+        checkForExternalChanges();
+        List<TimeSlot> cleared = pastEventCache;
+        boolean hadColdEvents = !coldArchive.blocks().isEmpty();
+        try (PlannerMetrics.Timer timer = metrics.start("clearPastEvents")) {
+            try (BufferedWriter writer = new BufferedWriter(new FileWriter(pastEventsPath.toFile(), false))) {
+                writer.write("");
+                pastEventCache = List.of();
+                coldArchive.clear();
+                if (cleared != null && !hadColdEvents) {
+                    fireChange(listener -> listener.eventsRemoved(cleared));
+                } else {
+                    fireChange(EventChangeListener::reloaded);
+                }
+            } catch (IOException e) {
+                timer.failed();
+                pastEventCache = null;
+                LOG.log(Level.ERROR, "Could not clear " + PAST_EVENTS_FILE, e);
+                fireChange(EventChangeListener::reloaded);
+            }
+        }
+        remember(pastEventsPath);
         notifyUpdateListeners();
     }
 
-    // Saves the event to planner.txt
-    public void saveEvent(TimeSlot event) {
-        if (event == null) {
-            System.err.println("saveEvent: Event is null");
-            return;
+    // Runs inside clearPastEvents() before the archive is truncated, holding this service's lock
+    public void setBeforeClearPastEvents(Runnable hook) {
+        beforeClearPastEvents = hook;
+    }
+
+    // All three files at one instant. The lists are the caches themselves, which are never modified,
+    // so the lock is held only long enough to pick them up.
+    synchronized DataView currentData() {
+        return new DataView(cacheClasses(), cacheEvents(), cachePastEvents(), coldArchive);
+    }
+
+    static final class DataView {
+        private final List<String> classes;
+        private final List<TimeSlot> events;
+        private final List<TimeSlot> pastEvents;
+        private final ColdArchive coldArchive;
+        private final List<ColdArchive.Block> coldBlocks;
+
+        DataView(List<String> classes, List<TimeSlot> events, List<TimeSlot> pastEvents, ColdArchive coldArchive) {
+            this.classes = classes;
+            this.events = events;
+            this.pastEvents = pastEvents;
+            this.coldArchive = coldArchive;
+            this.coldBlocks = coldArchive.blocks();
         }
-        if (event.getDateTime() == null) {
-            System.err.println("saveEvent: Event dateTime is null for event: " + event.getEventName());
-            return;
+
+        // Block files are never changed once written, so these stay readable until the next compaction or clear
+        List<ColdArchive.Block> getColdBlocks() {
+            return coldBlocks;
         }
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(EVENT_FILE, true))) {
-            System.out.println("Saving event: " + event.toString());
-            writer.write(event.toString());
-            writer.newLine();
-            movePastEventsToStorage();
-            notifyUpdateListeners();
-        } catch (IOException e) {
-            e.printStackTrace();
+
+        Path coldBlockPath(ColdArchive.Block block) {
+            return coldArchive.blockPath(block);
+        }
+
+        List<String> getClasses() {
+            return classes;
+        }
+
+        List<TimeSlot> getEvents() {
+            return events;
+        }
+
+        List<TimeSlot> getPastEvents() {
+            return pastEvents;
         }
     }
 
-    public void clearPastEvents() {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(PAST_EVENTS_FILE, false))) {
-            writer.write("");
+    // Replaces all data at once, as when restoring a backup. Every past event goes back into
+    // past_events.txt and is compacted again from there. Listeners start over from reloaded().
+    synchronized void replaceData(List<String> classes, List<TimeSlot> events, List<TimeSlot> pastEvents) {
+        try (PlannerMetrics.Timer timer = metrics.start("replaceData")) {
+            writeClasses(classes, timer);
+            writeEvents(events, timer);
+            coldArchive.clear();
         } catch (IOException e) {
-            e.printStackTrace();
+            LOG.log(Level.ERROR, "Could not clear the compressed archive", e);
+        }
+        pastEventCache = null; // So savePastEvents() reports one reload rather than a diff of everything
+        savePastEvents(pastEvents);
+        compactArchive();
+        notifyUpdateListeners();
+    }
+
+    // Moves past events older than COLD_AFTER out of past_events.txt into compressed blocks. The blocks
+    // are written without holding the lock; if past_events.txt changed meanwhile they are thrown away
+    // and the next run tries again.
+    public void compactArchive() {
+        List<TimeSlot> hot = cachePastEvents();
+        LocalDateTime cutoff = LocalDateTime.now().minus(COLD_AFTER);
+        Set<TimeSlot> cold = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (TimeSlot event : hot) {
+            if (event.getDateTime().isBefore(cutoff)) cold.add(event);
+        }
+        if (cold.isEmpty()) {
+            return;
+        }
+        try (PlannerMetrics.Timer timer = metrics.start("compactArchive")) {
+            ColdArchive.Pending pending;
+            try {
+                pending = coldArchive.write(new ArrayList<>(cold));
+            } catch (IOException e) {
+                timer.failed();
+                LOG.log(Level.ERROR, "Could not write compressed archive blocks", e);
+                return;
+            }
+            synchronized (this) {
+                checkForExternalChanges();
+                if (pastEventCache != hot) {
+                    pending.discard();
+                    return;
+                }
+                List<TimeSlot> remaining = new ArrayList<>(hot.size() - cold.size());
+                for (TimeSlot event : hot) {
+                    if (!cold.contains(event)) remaining.add(event);
+                }
+                // Index first: a crash in between leaves events in both places rather than in neither
+                try {
+                    pending.commit();
+                } catch (IOException e) {
+                    timer.failed();
+                    pending.discard();
+                    LOG.log(Level.ERROR, "Could not update the archive index", e);
+                    return;
+                }
+                try {
+                    writePastEventsFile(remaining, timer);
+                    pastEventCache = Collections.unmodifiableList(remaining);
+                } catch (IOException e) {
+                    timer.failed();
+                    pending.rollback();
+                    pastEventCache = null;
+                    LOG.log(Level.ERROR, "Could not rewrite " + PAST_EVENTS_FILE, e);
+                    return;
+                }
+            }
+            LOG.log(Level.INFO, "Compressed {0} past events older than {1}", cold.size(), cutoff.toLocalDate());
+        }
+    }
+
+    // Keeps only the first of events sharing class, name and minute, looking through planner.txt and
+    // then past_events.txt, in memory bounded however large the files are (see DedupJob). The
+    // compressed archive isn't rewritten. One undo step; returns how many events were removed.
+    public synchronized long removeDuplicates() {
+        checkForExternalChanges();
+        long removed;
+        try (PlannerMetrics.Timer timer = metrics.start("removeDuplicates")) {
+            DedupJob.Result result;
+            try {
+                result = DedupJob.run(List.of(eventPath, pastEventsPath), dataDirectory.resolve(DEDUP_DIR));
+            } catch (IOException e) {
+                timer.failed();
+                LOG.log(Level.ERROR, "Could not look for duplicate events", e);
+                return 0;
+            }
+            try {
+                removed = result.getRemoved();
+                if (removed == 0) {
+                    return 0;
+                }
+                try {
+                    Files.move(result.output(0), eventPath, StandardCopyOption.REPLACE_EXISTING);
+                    Files.move(result.output(1), pastEventsPath, StandardCopyOption.REPLACE_EXISTING);
+                    // Undoing adds the copies back as upcoming events; past ones are archived again on the next pass
+                    recorded("Remove duplicates", () -> {
+                        try {
+                            result.forEachRemoved(10_000, batch -> journal.recordEvents(batch, List.of(), "Remove duplicates"));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                } catch (IOException | UncheckedIOException e) {
+                    timer.failed();
+                    LOG.log(Level.ERROR, "Could not remove duplicate events", e);
+                }
+            } finally {
+                result.cleanUp();
+            }
+            eventCache = null;
+            pastEventCache = null;
+            remember(eventPath);
+            remember(pastEventsPath);
+            fireChange(EventChangeListener::reloaded);
+            LOG.log(Level.INFO, "Removed {0} duplicate events", removed);
         }
         notifyUpdateListeners();
+        return removed;
+    }
+
+    // One page of compressed history for browsing backwards: the events of the newest block that starts
+    // before the given time (the newest block of all for null), up to that time, in time order
+    public List<TimeSlot> loadArchivedPage(LocalDateTime before) {
+        ColdArchive.Block page = null;
+        for (ColdArchive.Block block : coldArchive.blocks()) {
+            if (before == null || block.getFirst().isBefore(before)) {
+                if (page == null || block.getFirst().isAfter(page.getFirst())) page = block;
+            }
+        }
+        if (page == null) {
+            return List.of();
+        }
+        return coldArchive.between(page.getFirst(), before != null ? before : page.getLast().plusMinutes(1));
+    }
+
+    public int getArchivedEventCount() {
+        return coldArchive.size();
     }
 
-    // Loads all events from planner.txt
+    // Loads all events from planner.txt, or from memory once they have been read
     public List<TimeSlot> loadEvents() {
-        List<TimeSlot> events = new ArrayList<>();
-        try {
-            List<String> lines = Files.readAllLines(Paths.get(EVENT_FILE));
-            for (String line : lines) {
-                if (line.trim().isEmpty()) continue;
+        List<TimeSlot> events = eventCache;
+        if (events == null) {
+            events = cacheEvents();
+        }
+        return new ArrayList<>(events);
+    }
+
+    private synchronized List<TimeSlot> cacheEvents() {
+        if (eventCache == null) {
+            eventCache = readEvents(eventPath, "loadEvents");
+        }
+        return eventCache != null ? eventCache : List.of();
+    }
+
+    // Reads every line, noting exactly how many bytes that was so later appends can be read on their own
+    private List<String> readLines(Path file) throws IOException {
+        FileState before = FileState.of(file);
+        byte[] bytes = Files.readAllBytes(file);
+        if (before != null) {
+            fileStates.put(file, new FileState(before.key, bytes.length, before.modified));
+        }
+        return new String(bytes, StandardCharsets.UTF_8).lines().collect(Collectors.toList());
+    }
+
+    private void remember(Path file) {
+        FileState state = FileState.of(file);
+        if (state != null) {
+            fileStates.put(file, state);
+        }
+    }
+
+    // True for the names of the files this service keeps, as reported by a directory watcher
+    boolean isDataFile(Path fileName) {
+        String name = fileName.toString();
+        return name.equals(EVENT_FILE) || name.equals(CLASS_FILE) || name.equals(PAST_EVENTS_FILE);
+    }
+
+    // Picks up edits other programs made to the data files since this service last read or wrote them.
+    // Each write method calls this first so its rewrite can't drop lines a script just appended.
+    // Costs one stat per file when nothing changed.
+    public synchronized void checkForExternalChanges() {
+        if (catchUp(eventPath) | catchUp(classPath) | catchUp(pastEventsPath)) {
+            notifyUpdateListeners();
+        }
+    }
+
+    // Lines appended to a cached file are read from the last known offset and reported as additions.
+    // A file that shrank, was replaced or was rewritten in place is dropped from memory and reloaded.
+    private boolean catchUp(Path file) {
+        FileState known = fileStates.get(file);
+        FileState current = FileState.of(file);
+        if (current == null || current.equals(known)) {
+            return false;
+        }
+        fileStates.put(file, current);
+        Object cached = file == eventPath ? eventCache : file == pastEventsPath ? pastEventCache : classCache;
+        if (cached != null && current.isAppendTo(known)) {
+            try (PlannerMetrics.Timer timer = metrics.start("readAppended")) {
                 try {
-                    events.add(TimeSlot.fromString(line));
-                } catch (Exception e) {
-                    System.err.println("Failed to parse event: " + line);
-                    e.printStackTrace();
+                    byte[] tail = readAppended(file, known.size);
+                    // A line still being written is read next time
+                    fileStates.put(file, new FileState(current.key, known.size + tail.length, current.modified));
+                    List<String> lines = new String(tail, StandardCharsets.UTF_8).lines().collect(Collectors.toList());
+                    lines.forEach(timer::read);
+                    return addAppended(file, lines, timer);
+                } catch (IOException e) {
+                    timer.failed();
+                    LOG.log(Level.WARNING, "Could not read lines appended to " + file + "; reloading it", e);
                 }
             }
-        } catch (IOException e) {
-            e.printStackTrace();
+        } else {
+            LOG.log(Level.INFO, "{0} was changed by another program; reloading it", file.getFileName());
+        }
+        if (file == eventPath) {
+            eventCache = null;
+        } else if (file == pastEventsPath) {
+            pastEventCache = null;
+        } else {
+            classCache = null;
+            return true;
+        }
+        fireChange(EventChangeListener::reloaded);
+        return true;
+    }
+
+    private boolean addAppended(Path file, List<String> lines, PlannerMetrics.Timer timer) {
+        if (file == classPath) {
+            List<String> added = new ArrayList<>();
+            for (String line : lines) {
+                if (!line.trim().isEmpty() && !classCache.contains(line) && !added.contains(line)) added.add(line);
+            }
+            classCache = appended(classCache, added);
+            return !added.isEmpty();
+        }
+        List<TimeSlot> events = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            TimeSlot event = parseLine(line, timer);
+            if (event != null) events.add(event);
+        }
+        if (events.isEmpty()) {
+            return false;
+        }
+        if (file == eventPath) {
+            eventCache = appended(eventCache, events);
+        } else {
+            pastEventCache = appended(pastEventCache, events);
+        }
+        LOG.log(Level.INFO, "Read {0} events appended to {1}", events.size(), file.getFileName());
+        fireChange(listener -> listener.eventsAdded(events));
+        return true;
+    }
+
+    // The whole lines written after offset, leaving out a last line that has no line break yet
+    private static byte[] readAppended(Path file, long offset) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long available = channel.size() - offset;
+            if (available <= 0) {
+                return new byte[0];
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(available, Integer.MAX_VALUE - 8));
+            while (buffer.hasRemaining() && channel.read(buffer, offset + buffer.position()) > 0) {
+                // Keep reading until the buffer is full or the end of the file
+            }
+            int end = buffer.position();
+            while (end > 0 && buffer.get(end - 1) != '\n') {
+                end--;
+            }
+            return Arrays.copyOf(buffer.array(), end);
+        }
+    }
+
+    // What a data file looked like: which file it is (its inode where the platform has one), its
+    // length and its modification time. Atomic replaces change the key; appends only grow the length.
+    private static final class FileState {
+        private final Object key;
+        private final long size;
+        private final FileTime modified;
+
+        FileState(Object key, long size, FileTime modified) {
+            this.key = key;
+            this.size = size;
+            this.modified = modified;
+        }
+
+        static FileState of(Path file) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                return new FileState(attributes.fileKey(), attributes.size(), attributes.lastModifiedTime());
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        boolean isAppendTo(FileState earlier) {
+            return earlier != null && Objects.equals(key, earlier.key) && size > earlier.size;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof FileState)) return false;
+            FileState other = (FileState) o;
+            return Objects.equals(key, other.key) && size == other.size && modified.equals(other.modified);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(key, size, modified);
+        }
+    }
+
+    // Returns the parsed file as an unmodifiable list, or null if it couldn't be read
+    private List<TimeSlot> readEvents(Path file, String operation) {
+        List<TimeSlot> events = new ArrayList<>();
+        try (PlannerMetrics.Timer timer = metrics.start(operation)) {
+            try {
+                List<String> lines = readLines(file);
+                for (String line : lines) {
+                    timer.read(line);
+                    TimeSlot event = parseLine(line, timer);
+                    if (event != null) {
+                        events.add(event);
+                    }
+                }
+            } catch (IOException e) {
+                timer.failed();
+                LOG.log(Level.ERROR, "Could not read " + file, e);
+                return null;
+            }
         }
-        return events;
+        return Collections.unmodifiableList(events);
+    }
+
+    // Events from planner.txt and the archive with from <= time < to, in time order. Compressed blocks
+    // are only opened when the range reaches back into them.
+    public List<TimeSlot> loadEventsBetween(LocalDateTime from, LocalDateTime to) {
+        List<TimeSlot> recent = timeIndex().between(from, to);
+        List<TimeSlot> old = coldArchive.between(from, to);
+        if (old.isEmpty()) {
+            return recent;
+        }
+        List<TimeSlot> merged = new ArrayList<>(old.size() + recent.size());
+        merged.addAll(old);
+        merged.addAll(recent);
+        merged.sort(Comparator.comparing(TimeSlot::getDateTime));
+        return Collections.unmodifiableList(merged);
+    }
+
+    // The same events as loadEventsBetween, in the same order, without building a list: each is
+    // produced as the stream reaches it, so months of history pass through in the memory of one
+    // compressed block. Splits by time when made parallel.
+    public Stream<TimeSlot> eventsBetween(LocalDateTime from, LocalDateTime to) {
+        return StreamSupport.stream(eventsBetweenSpliterator(from, to), false);
+    }
+
+    // See EventRangeSpliterator. Upcoming and past_events.txt events are walked in the time index the
+    // service keeps in memory anyway; what the stream holds beyond that is the compressed blocks it is in.
+    public Spliterator<TimeSlot> eventsBetweenSpliterator(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            return Spliterators.emptySpliterator();
+        }
+        EventTimeIndex index = timeIndex();
+        List<ColdArchive.Block> blocks = new ArrayList<>();
+        for (ColdArchive.Block block : coldArchive.blocks()) {
+            if (block.overlaps(from, to)) blocks.add(block);
+        }
+        return new EventRangeSpliterator(index.sortedEvents(), index.firstAtOrAfter(from), index.firstAtOrAfter(to),
+                blocks, coldArchive, coldArchive.fitsCache(blocks), from, to);
+    }
+
+    private EventTimeIndex timeIndex() {
+        List<TimeSlot> events = eventCache;
+        if (events == null) {
+            events = cacheEvents();
+        }
+        List<TimeSlot> pastEvents = pastEventCache;
+        if (pastEvents == null) {
+            pastEvents = cachePastEvents();
+        }
+        EventTimeIndex index = timeIndex;
+        if (index == null || !index.isBuiltFrom(events, pastEvents)) {
+            index = new EventTimeIndex(events, pastEvents);
+            timeIndex = index;
+        }
+        return index;
+    }
+
+    private EventClassIndex classIndex() {
+        List<TimeSlot> events = eventCache;
+        if (events == null) {
+            events = cacheEvents();
+        }
+        List<TimeSlot> pastEvents = pastEventCache;
+        if (pastEvents == null) {
+            pastEvents = cachePastEvents();
+        }
+        EventClassIndex index = classIndex;
+        if (index == null || !index.isBuiltFrom(events, pastEvents)) {
+            index = new EventClassIndex(events, pastEvents);
+            classIndex = index;
+        }
+        return index;
+    }
+
+    // Events matching the query within the scope, in time order, read through whichever index leaves
+    // the fewest to filter (see QueryPlan)
+    public List<TimeSlot> query(EventQuery query, EventQuery.Scope scope) {
+        return metrics.time("query", () -> {
+            QueryPlan plan = plan(query, scope);
+            LOG.log(Level.DEBUG, plan::explain);
+            return plan.run();
+        });
+    }
+
+    // The plan query() would follow, as a few lines of text
+    public String explain(EventQuery query, EventQuery.Scope scope) {
+        return plan(query, scope).explain();
+    }
+
+    private QueryPlan plan(EventQuery query, EventQuery.Scope scope) {
+        EventClassIndex classes = query.getClasses().isEmpty() ? null : classIndex();
+        return new QueryPlan(query, scope, LocalDateTime.now(), timeIndex(), classes, coldArchive);
     }
 
     // Returns upcoming events
@@ -176,7 +1126,7 @@ public class PlannerService {
 
         for (TimeSlot event : allEvents) {
             if (event.getDateTime() == null) {
-                System.err.println("getUpcomingEvents: Event with null dateTime: " + event.getEventName());
+                LOG.log(Level.WARNING, () -> "getUpcomingEvents: Event with null dateTime: " + event.getEventName());
                 continue;
             }
             if (event.getDateTime().isAfter(now)) {
@@ -198,34 +1148,10 @@ public class PlannerService {
         return null;
     }
 
-    // Returns an EventDialog for adding an event
-    public EventDialog createEventDialog() {
-        return new EventDialog(loadClasses());
-    }
-
-    public EventDialog createEventDialogForClass(String className) {
-        return new EventDialog(loadClasses(), className);
-    }
-
     // Deletes an event
     public void deleteEvent(String eventName, String className) {
-        List<TimeSlot> events = loadEvents();
-        List<TimeSlot> updatedEvents = new ArrayList<>();
-
-        boolean found = false;
-        for (TimeSlot event : events) {
-            if (!(event.getEventName().equalsIgnoreCase(eventName) && event.getClassName().equalsIgnoreCase(className))) {
-                updatedEvents.add(event);
-            } else {
-                found = true;
-            }
-        }
-
-        if (found) {
-            saveEvents(updatedEvents);
-            movePastEventsToStorage();
-            notifyUpdateListeners();
-        }
+        recorded("Delete event " + eventName, () -> deleteEvents(event -> event.getEventName().equalsIgnoreCase(eventName) &&
+                event.getClassName().equalsIgnoreCase(className)));
     }
 
     public TimeSlot getEventByDetails(String className, String eventName, String dateTime) {
@@ -242,62 +1168,244 @@ public class PlannerService {
     }
 
 
-    public VBox showDescriptionDialog(String description) {
-        VBox vBox = new VBox();
-        vBox.setSpacing(10);
-        Separator separator = new Separator();
-        Label titleLabel = new Label("Description");
-        titleLabel.setAlignment(Pos.CENTER);
-        Label descriptionLabel = new Label(description);
-        if (Objects.equals(description, "")) {
-            descriptionLabel = new Label("Description is empty");
-        } else {
-            descriptionLabel = new Label(description);
+    public void updateEvent(TimeSlot oldEvent, TimeSlot newEvent) {
+        metrics.time("updateEvent", () -> recorded("Edit event " + newEvent.getEventName(),
+                () -> batch(mutator -> mutator.update(oldEvent, newEvent))));
+    }
+
+    public void addUpdateListener(Runnable listener) {
+        updateListeners.add(listener);
+    }
+
+    public void removeUpdateListener(Runnable listener) {
+        updateListeners.remove(listener);
+    }
+
+    // Where update listeners run. The app passes its UI thread before opening any planner; without
+    // that, as in PlannerCli, they run on the thread that made the change, so no UI toolkit is needed.
+    public static void setDefaultNotifier(Executor notifier) {
+        defaultNotifier = notifier;
+    }
+
+    private void notifyUpdateListeners() {
+        for (Runnable listener : updateListeners) {
+            notifier.execute(listener);
         }
-        descriptionLabel.setAlignment(Pos.CENTER);
-        descriptionLabel.setWrapText(true);
-        vBox.getChildren().addAll(titleLabel, separator, descriptionLabel);
-        vBox.setAlignment(Pos.CENTER);
+    }
 
-        return vBox;
+    // Registers the listener and immediately calls its reloaded() with writes held off, so the
+    // snapshot it builds there and the deltas that follow line up exactly
+    public synchronized void addEventChangeListener(EventChangeListener listener) {
+        changeListeners.add(listener);
+        try {
+            listener.reloaded();
+        } catch (RuntimeException e) {
+            LOG.log(Level.ERROR, "Event change listener failed", e);
+        }
     }
 
-    public void updateEvent(TimeSlot oldEvent, TimeSlot newEvent) {
-        List<TimeSlot> events = loadEvents();
-        boolean found = false;
+    public void removeEventChangeListener(EventChangeListener listener) {
+        changeListeners.remove(listener);
+    }
 
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(EVENT_FILE, false))) {
-            for (TimeSlot event : events) {
-                if (event.getClassName().equals(oldEvent.getClassName()) &&
-                        event.getEventName().equals(oldEvent.getEventName()) &&
-                        event.getDateTimeFormatted().equals(oldEvent.getDateTimeFormatted())) {
-                    writer.write(newEvent.toString());
-                    found = true;
-                } else {
-                    writer.write(event.toString());
+    private void fireChange(Consumer<EventChangeListener> change) {
+        for (EventChangeListener listener : changeListeners) {
+            try {
+                change.accept(listener);
+            } catch (RuntimeException e) {
+                LOG.log(Level.ERROR, "Event change listener failed", e);
+            }
+        }
+    }
+
+    // Reports what a rewrite removed and added
+    private void fireDifference(List<TimeSlot> before, List<TimeSlot> after) {
+        if (changeListeners.isEmpty()) {
+            return;
+        }
+        List<TimeSlot> removed = new ArrayList<>();
+        List<TimeSlot> added = new ArrayList<>();
+        difference(before, after, removed, added);
+        fireRemovedAndAdded(removed, added);
+    }
+
+    // Cached events are never modified in place, so identity is enough to tell what changed
+    private static void difference(List<TimeSlot> before, List<TimeSlot> after, List<TimeSlot> removed, List<TimeSlot> added) {
+        Set<TimeSlot> beforeSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        beforeSet.addAll(before);
+        Set<TimeSlot> afterSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        afterSet.addAll(after);
+        for (TimeSlot event : before) {
+            if (!afterSet.contains(event)) removed.add(event);
+        }
+        for (TimeSlot event : after) {
+            if (!beforeSet.contains(event)) added.add(event);
+        }
+    }
+
+    private void fireRemovedAndAdded(List<TimeSlot> removed, List<TimeSlot> added) {
+        if (!removed.isEmpty() || !added.isEmpty()) {
+            fireChange(listener -> listener.eventsChanged(removed, added));
+        }
+    }
+
+    // Changes made on this thread until the matching endCommand() are undone and redone as one step
+    public void beginCommand(String description) {
+        journal.begin(description);
+    }
+
+    public void endCommand() {
+        journal.end();
+    }
+
+    private void recorded(String description, Runnable change) {
+        journal.begin(description);
+        try {
+            change.run();
+        } finally {
+            journal.end();
+        }
+    }
+
+    // Reverts the latest recorded change; returns its description, or null if there was nothing to undo
+    public synchronized String undo() {
+        checkForExternalChanges();
+        CommandJournal.Command command = journal.takeUndo();
+        if (command == null) {
+            return null;
+        }
+        try (PlannerMetrics.Timer timer = metrics.start("undo")) {
+            applyDelta(command.getAddedEvents(), command.getRemovedEvents(),
+                    command.getAddedClasses(), command.getRemovedClasses(), timer);
+        } finally {
+            journal.undone(command);
+        }
+        return command.getDescription();
+    }
+
+    public synchronized String redo() {
+        checkForExternalChanges();
+        CommandJournal.Command command = journal.takeRedo();
+        if (command == null) {
+            return null;
+        }
+        try (PlannerMetrics.Timer timer = metrics.start("redo")) {
+            applyDelta(command.getRemovedEvents(), command.getAddedEvents(),
+                    command.getRemovedClasses(), command.getAddedClasses(), timer);
+        } finally {
+            journal.redone(command);
+        }
+        return command.getDescription();
+    }
+
+    // Descriptions of what undo() and redo() would do next, or null
+    public String peekUndo() {
+        return journal.peekUndo();
+    }
+
+    public String peekRedo() {
+        return journal.peekRedo();
+    }
+
+    // Removes and adds events by their stored line. A delta that only adds, such as undoing a class
+    // delete, is appended to planner.txt instead of rewriting it.
+    private void applyDelta(List<String> removeEvents, List<String> addEvents,
+                            List<String> removeClasses, List<String> addClasses, PlannerMetrics.Timer timer) {
+        if (!removeClasses.isEmpty() || !addClasses.isEmpty()) {
+            List<String> classes = loadClasses();
+            // Paired names are renames and keep their place in the list
+            int pairs = Math.min(removeClasses.size(), addClasses.size());
+            for (int i = 0; i < pairs; i++) {
+                int index = classes.indexOf(removeClasses.get(i));
+                if (index != -1) {
+                    classes.set(index, addClasses.get(i));
+                } else if (!classes.contains(addClasses.get(i))) {
+                    classes.add(addClasses.get(i));
                 }
-                writer.newLine();
             }
-        } catch (IOException e) {
-            e.printStackTrace();
+            classes.removeAll(removeClasses.subList(pairs, removeClasses.size()));
+            for (String className : addClasses.subList(pairs, addClasses.size())) {
+                if (!classes.contains(className)) classes.add(className);
+            }
+            writeClasses(classes, timer);
         }
-        if (found) {
+
+        List<TimeSlot> added = new ArrayList<>(addEvents.size());
+        for (String line : addEvents) {
+            TimeSlot event = parseLine(line);
+            if (event != null) added.add(event);
+        }
+        if (removeEvents.isEmpty()) {
+            if (!added.isEmpty()) {
+                appendEvents(added);
+            }
             notifyUpdateListeners();
+            return;
         }
+
+        Map<String, Integer> pending = new HashMap<>();
+        for (String line : removeEvents) {
+            pending.merge(line, 1, Integer::sum);
+        }
+        batch(mutator -> {
+            mutator.delete(event -> takeLine(pending, event));
+            added.forEach(mutator::add);
+        });
+        if (!pending.isEmpty()) {
+            // Whatever is left was archived after the command ran
+            List<TimeSlot> pastEvents = loadPastEvents();
+            if (pastEvents.removeIf(event -> takeLine(pending, event))) {
+                savePastEvents(pastEvents);
+            }
+            if (!pending.isEmpty()) {
+                removeColdEvents(event -> takeLine(pending, event));
+            }
+        }
+        notifyUpdateListeners();
     }
 
-    public void addUpdateListener(Runnable listener) {
-        updateListeners.add(listener);
+    private static boolean takeLine(Map<String, Integer> pending, TimeSlot event) {
+        String line = event.toString();
+        Integer count = pending.get(line);
+        if (count == null) {
+            return false;
+        }
+        if (count == 1) {
+            pending.remove(line);
+        } else {
+            pending.put(line, count - 1);
+        }
+        return true;
     }
 
-    private void notifyUpdateListeners() {
-        for (Runnable listener : updateListeners) {
-            Platform.runLater(listener::run);
+    // Sets events to the given state by id wherever they are stored: a TimeSlot replaces the event with
+    // that id or adds it, null deletes it. For changes that come from another planner.
+    synchronized void replaceById(Map<String, TimeSlot> changes) {
+        Predicate<TimeSlot> replaced = event -> changes.containsKey(event.getId());
+        List<TimeSlot> pastEvents = loadPastEvents();
+        if (pastEvents.removeIf(replaced)) {
+            savePastEvents(pastEvents);
         }
+        removeColdEvents(replaced);
+        List<TimeSlot> puts = new ArrayList<>();
+        Set<String> classNames = new HashSet<>();
+        for (TimeSlot event : changes.values()) {
+            if (event != null) {
+                puts.add(event);
+                classNames.add(event.getClassName());
+            }
+        }
+        addClasses(classNames);
+        batch(mutator -> {
+            mutator.delete(replaced);
+            puts.forEach(mutator::add);
+        });
+        notifyUpdateListeners();
     }
 
     // Deletes a class
-    public void deleteClass(String className) {
+    public synchronized void deleteClass(String className) {
+        checkForExternalChanges();
         List<String> classes = loadClasses();
 
         if (!classes.contains(className)) {
@@ -306,25 +1414,36 @@ public class PlannerService {
 
         classes.remove(className);
 
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(CLASS_FILE))) {
+        try (PlannerMetrics.Timer timer = metrics.start("deleteClass")) {
+            journal.begin("Delete class " + className);
+            try {
+                writeClasses(classes, timer);
+                journal.recordClasses(List.of(className), List.of(), "Delete class " + className);
+                if (deleteEvents(event -> event.getClassName().equalsIgnoreCase(className)) == 0) {
+                    notifyUpdateListeners();
+                }
+            } finally {
+                journal.end();
+            }
+        }
+    }
+
+    private void writeClasses(List<String> classes, PlannerMetrics.Timer timer) {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(classPath.toFile()))) {
             for (String c : classes) {
-                writer.write(c);
-                writer.newLine();
+                writeLine(writer, c, timer);
             }
+            classCache = Collections.unmodifiableList(new ArrayList<>(classes));
         } catch (IOException e) {
-            e.printStackTrace();
+            timer.failed();
+            classCache = null;
+            LOG.log(Level.ERROR, "Could not write " + CLASS_FILE, e);
         }
-
-        List<TimeSlot> allEvents = loadEvents();
-        List<TimeSlot> updatedEvents = allEvents.stream()
-                .filter(event -> !event.getClassName().equalsIgnoreCase(className))
-                .collect(Collectors.toList());
-
-        saveEvents(updatedEvents);
-        notifyUpdateListeners();
+        remember(classPath);
     }
 
-    public void renameClass(String oldClassName, String newClassName) {
+    public synchronized void renameClass(String oldClassName, String newClassName) {
+        checkForExternalChanges();
         // Validate the new class name
         if (newClassName == null || newClassName.trim().isEmpty()) {
             throw new IllegalArgumentException("New class name cannot be empty.");
@@ -333,34 +1452,26 @@ public class PlannerService {
             throw new IllegalArgumentException("Class name '" + newClassName + "' already exists.");
         }
 
-        // Update the class name in classes.txt
-        List<String> classes = loadClasses();
-        int index = classes.indexOf(oldClassName);
-        if (index != -1) {
-            classes.set(index, newClassName);
-            try (BufferedWriter writer = new BufferedWriter(new FileWriter(CLASS_FILE))) {
-                for (String c : classes) {
-                    writer.write(c);
-                    writer.newLine();
+        try (PlannerMetrics.Timer timer = metrics.start("renameClass")) {
+            journal.begin("Rename class " + oldClassName + " to " + newClassName);
+            try {
+                // Update the class name in classes.txt
+                List<String> classes = loadClasses();
+                int index = classes.indexOf(oldClassName);
+                if (index != -1) {
+                    classes.set(index, newClassName);
+                    writeClasses(classes, timer);
+                    journal.recordClasses(List.of(oldClassName), List.of(newClassName), "Rename class " + oldClassName);
                 }
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-        }
 
-        // Update all events with the old class name to use the new class name
-        List<TimeSlot> events = loadEvents();
-        boolean updated = false;
-        for (TimeSlot event : events) {
-            if (event.getClassName().equalsIgnoreCase(oldClassName)) {
-                event.setClassName(newClassName); // We'll need to add a setter for this
-                updated = true;
+                // Update all events with the old class name to use the new class name; cached events are never modified in place
+                batch(mutator -> mutator.updateAll(event -> event.getClassName().equalsIgnoreCase(oldClassName),
+                        event -> new TimeSlot(newClassName, event.getEventName(), event.getDateTime(), event.getDescription(),
+                                event.getCreatedAt())));
+            } finally {
+                journal.end();
             }
         }
-        if (updated) {
-            saveEvents(events);
-            notifyUpdateListeners();
-        }
     }
 
     public boolean classExists(String className) {
@@ -368,43 +1479,112 @@ public class PlannerService {
         return classes.contains(className);
     }
 
-    public void moveEventToFuture(TimeSlot oldEvent, TimeSlot newEvent) {
-        List<TimeSlot> pastEvents = loadPastEvents();
-        List<TimeSlot> futureEvents = loadEvents();
-
-        pastEvents.removeIf(e -> e.getEventName().equals(oldEvent.getEventName()) && e.getClassName().equals(oldEvent.getClassName()));
-        futureEvents.add(newEvent);
-
-        savePastEvents(pastEvents);
-        saveEvents(futureEvents);
+    // Takes one past event out of past_events.txt or the archive and adds it as movedEvent; one undo step.
+    // Only that event goes, matched like BatchMutator.update; others of the same class and name stay.
+    public synchronized void moveEventToFuture(TimeSlot oldEvent, TimeSlot movedEvent) {
+        checkForExternalChanges();
+        TimeSlot newEvent = keepId(oldEvent, movedEvent);
+        recorded("Move event " + newEvent.getEventName(), () -> {
+            List<TimeSlot> taken = new ArrayList<>(1);
+            Predicate<TimeSlot> moved = event -> taken.isEmpty()
+                    && (event == oldEvent || event.getId().equals(oldEvent.getId())) && taken.add(event);
+            List<TimeSlot> pastEvents = loadPastEvents();
+            if (pastEvents.removeIf(moved)) {
+                savePastEvents(pastEvents);
+            } else {
+                removeColdEvents(moved);
+            }
+            // Already upcoming, for example moved earlier from another copy; keep that one
+            List<TimeSlot> added = List.of();
+            if (dedupIndex.contains(newEvent)) {
+                LOG.log(Level.INFO, "{0} is already upcoming; not adding it twice", newEvent.getEventName());
+            } else {
+                List<TimeSlot> futureEvents = loadEvents();
+                futureEvents.add(newEvent);
+                try (PlannerMetrics.Timer timer = metrics.start("moveEventToFuture")) {
+                    writeEvents(futureEvents, timer);
+                    fireChange(listener -> listener.eventsAdded(List.of(newEvent)));
+                }
+                added = List.of(newEvent);
+            }
+            journal.recordEvents(taken, added, "Move event " + newEvent.getEventName());
+        });
         notifyUpdateListeners();
     }
 
-    public void savePastEvents(List<TimeSlot> pastEvents) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(PAST_EVENTS_FILE))) {
-            for (TimeSlot event : pastEvents) {
-                writer.write(event.toString());
-                writer.newLine();
+    public synchronized void savePastEvents(List<TimeSlot> pastEvents) {
+        checkForExternalChanges();
+        List<TimeSlot> before = pastEventCache;
+        try (PlannerMetrics.Timer timer = metrics.start("savePastEvents")) {
+            writePastEventsFile(pastEvents, timer);
+            pastEventCache = Collections.unmodifiableList(new ArrayList<>(pastEvents));
+            if (before != null) {
+                fireDifference(before, pastEvents);
+            } else {
+                fireChange(EventChangeListener::reloaded);
             }
         } catch (IOException e) {
-            e.printStackTrace();
+            pastEventCache = null;
+            LOG.log(Level.ERROR, "Could not write " + PAST_EVENTS_FILE, e);
+            fireChange(EventChangeListener::reloaded);
+        }
+    }
+
+    private void writePastEventsFile(List<TimeSlot> pastEvents, PlannerMetrics.Timer timer) throws IOException {
+        Path tempPath = pastEventsPath.resolveSibling(PAST_EVENTS_FILE + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tempPath)) {
+            for (TimeSlot event : pastEvents) {
+                writeLine(writer, event.toString(), timer);
+            }
+        }
+        Files.move(tempPath, pastEventsPath, StandardCopyOption.REPLACE_EXISTING);
+        remember(pastEventsPath);
+    }
+
+    // Takes matching events out of the compressed archive, rewriting only the blocks that hold one
+    private void removeColdEvents(Predicate<TimeSlot> filter) {
+        try (PlannerMetrics.Timer timer = metrics.start("removeColdEvents")) {
+            try {
+                List<TimeSlot> removed = coldArchive.removeIf(filter);
+                if (!removed.isEmpty()) {
+                    fireChange(listener -> listener.eventsRemoved(removed));
+                }
+            } catch (IOException e) {
+                timer.failed();
+                LOG.log(Level.ERROR, "Could not update the compressed archive", e);
+            }
         }
     }
 
-    // Saves the updated list of events
-    private void saveEvents(List<TimeSlot> events) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(EVENT_FILE))) {
+    // Replaces planner.txt with the given events through a temp file so readers never see a partial write
+    private void writeEvents(List<TimeSlot> events, PlannerMetrics.Timer timer) {
+        Path tempPath = eventPath.resolveSibling(EVENT_FILE + ".tmp");
+        List<TimeSlot> written = new ArrayList<>(events.size());
+        eventCache = null; // Re-read from disk if anything below fails
+        try (BufferedWriter writer = Files.newBufferedWriter(tempPath)) {
             for (TimeSlot event : events) {
                 if (event.getDateTime() == null) {
-                    System.err.println("saveEvents: Event with null dateTime: " + event.getEventName());
+                    LOG.log(Level.WARNING, () -> "writeEvents: Event with null dateTime: " + event.getEventName());
                     continue;
                 }
-                writer.write(event.toString());
-                writer.newLine();
+                writeLine(writer, event.toString(), timer);
+                written.add(event);
             }
         } catch (IOException e) {
-            e.printStackTrace();
+            timer.failed();
+            LOG.log(Level.ERROR, "Could not write " + tempPath, e);
+            fireChange(EventChangeListener::reloaded);
+            return;
         }
+        try {
+            Files.move(tempPath, eventPath, StandardCopyOption.REPLACE_EXISTING);
+            eventCache = Collections.unmodifiableList(written);
+        } catch (IOException e) {
+            timer.failed();
+            LOG.log(Level.ERROR, "Could not replace " + EVENT_FILE, e);
+            fireChange(EventChangeListener::reloaded);
+        }
+        remember(eventPath);
     }
 
     public List<String> getEventNames() {
@@ -419,16 +1599,17 @@ public class PlannerService {
     }
 
     public List<TimeSlot> loadPastEvents() {
-        List<TimeSlot> events = new ArrayList<>();
-        try {
-            List<String> lines = Files.readAllLines(Paths.get(PAST_EVENTS_FILE));
-            for (String line : lines) {
-                if (line.trim().isEmpty()) continue;
-                events.add(TimeSlot.fromString(line));
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
+        List<TimeSlot> events = pastEventCache;
+        if (events == null) {
+            events = cachePastEvents();
+        }
+        return new ArrayList<>(events);
+    }
+
+    private synchronized List<TimeSlot> cachePastEvents() {
+        if (pastEventCache == null) {
+            pastEventCache = readEvents(pastEventsPath, "loadPastEvents");
         }
-        return events;
+        return pastEventCache != null ? pastEventCache : List.of();
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,119 @@
+package JavaFX;
+
+import java.io.IOException;
+import java.lang.System.Logger.Level;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Merges two planners, for example the same planner on two machines with one folder copied or mounted
+// locally, so both end up with the same events. Each planner's SyncLog records its changes with
+// version vectors; a sync exchanges only the records the other side hasn't seen, so its cost follows
+// the number of changes rather than the number of events. When both sides changed the same event
+// the change with the later Lamport clock wins, ties going to the higher replica id, which every
+// planner works out the same way. Only the first sync between two planners, or one after changes
+// the log couldn't follow, compares all events, copying over those either side is missing.
+public final class PlannerSync {
+    private static final System.Logger LOG = PlannerLog.getLogger(PlannerSync.class);
+
+    private PlannerSync() {
+    }
+
+    public static final class Result {
+        private final int received;
+        private final int sent;
+        private final boolean full;
+
+        Result(int received, int sent, boolean full) {
+            this.received = received;
+            this.sent = sent;
+            this.full = full;
+        }
+
+        // Events added, changed or deleted in the local planner
+        public int getReceived() {
+            return received;
+        }
+
+        public int getSent() {
+            return sent;
+        }
+
+        public boolean isFull() {
+            return full;
+        }
+    }
+
+    // One sync at a time, so two planners are never merged in both directions at once
+    public static synchronized Result sync(PlannerService local, PlannerService remote) {
+        if (sameDirectory(local.getDataDirectory(), remote.getDataDirectory())) {
+            throw new IllegalArgumentException("A planner can't be synced with itself.");
+        }
+        return local.getMetrics().time("sync", () -> {
+            SyncLog localLog = local.syncLog();
+            SyncLog remoteLog = remote.syncLog();
+            String description = "Sync with " + remote.getDataDirectory().toAbsolutePath().normalize();
+            boolean full = localLog.isDirty() || remoteLog.isDirty()
+                    || !localLog.knows(remoteLog.getReplica()) || !remoteLog.knows(localLog.getReplica());
+            // Changes the logs missed become new records first, so the data each side has now counts as its latest edit
+            if (localLog.isDirty()) localLog.rescan(eventsById(local));
+            if (remoteLog.isDirty()) remoteLog.rescan(eventsById(remote));
+
+            List<SyncLog.Record> toRemote = localLog.recordsAfter(remoteLog.vector());
+            List<SyncLog.Record> toLocal = remoteLog.recordsAfter(localLog.vector());
+            int sent = remoteLog.receive(toRemote, Map.of(), description);
+            int received = localLog.receive(toLocal, Map.of(), description);
+
+            if (full) {
+                // Both logs now agree; what's left are events neither has a record for
+                Map<String, TimeSlot> localEvents = eventsById(local);
+                Map<String, TimeSlot> remoteEvents = eventsById(remote);
+                Map<String, TimeSlot> forLocal = new HashMap<>();
+                Map<String, TimeSlot> forRemote = new HashMap<>();
+                for (TimeSlot event : localEvents.values()) {
+                    if (localLog.winner(event.getId()) != null) continue;
+                    TimeSlot other = remoteEvents.get(event.getId());
+                    if (other == null) {
+                        forRemote.put(event.getId(), event);
+                    } else if (!other.toString().equals(event.toString())) {
+                        // Edited on both sides before either was synced; settle it the same way everywhere
+                        if (event.toString().compareTo(other.toString()) > 0) {
+                            forRemote.put(event.getId(), event);
+                        } else {
+                            forLocal.put(event.getId(), other);
+                        }
+                    }
+                }
+                for (TimeSlot event : remoteEvents.values()) {
+                    if (remoteLog.winner(event.getId()) == null && !localEvents.containsKey(event.getId())) {
+                        forLocal.put(event.getId(), event);
+                    }
+                }
+                sent += remoteLog.receive(List.of(), forRemote, description);
+                received += localLog.receive(List.of(), forLocal, description);
+            }
+
+            localLog.synced(remoteLog.getReplica());
+            remoteLog.synced(localLog.getReplica());
+            LOG.log(Level.INFO, "Synced with {0}: {1} records out, {2} in, {3} events received, {4} sent{5}",
+                    remote.getDataDirectory().toAbsolutePath(), toRemote.size(), toLocal.size(), received, sent,
+                    full ? " (full comparison)" : "");
+            return new Result(received, sent, full);
+        });
+    }
+
+    private static Map<String, TimeSlot> eventsById(PlannerService service) {
+        return service.collectAllEvents(Collectors.toMap(TimeSlot::getId, event -> event, (first, second) -> first));
+    }
+
+    private static boolean sameDirectory(Path a, Path b) {
+        try {
+            return Files.isSameFile(a.toAbsolutePath(), b.toAbsolutePath());
+        } catch (IOException e) {
+            return a.toAbsolutePath().normalize().equals(b.toAbsolutePath().normalize());
+        }
+    }
+}
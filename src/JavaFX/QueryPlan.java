@@ -0,0 +1,156 @@
+package JavaFX;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// How PlannerService answers an EventQuery. Events in planner.txt and past_events.txt are read through
+// the time index or, when the query names classes, the class index, whichever leaves fewer candidates;
+// both count them with binary searches before any event is read. Compressed archive blocks are opened
+// only where they overlap the range. Whatever no index answers (text, and the class or time terms of
+// the index not chosen) is filtered afterwards, on the common pool once there are many candidates.
+final class QueryPlan {
+    private static final int PARALLEL_FILTER = 10_000; // Candidates above this are filtered in parallel
+    private static final DateTimeFormatter SHOWN = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private enum Access {
+        TIME_INDEX, CLASS_INDEX, SCAN
+    }
+
+    private final EventQuery query;
+    private final EventQuery.Scope scope;
+    private final LocalDateTime from; // The query's range narrowed to the scope; MIN and MAX when open
+    private final LocalDateTime to;
+    private final EventTimeIndex timeIndex;
+    private final EventClassIndex classIndex;
+    private final ColdArchive coldArchive;
+    private final List<ColdArchive.Block> coldBlocks; // Those overlapping the range
+    private final int totalColdBlocks;
+    private final Access access;
+    private final int timeCandidates;
+    private final int classCandidates;
+
+    // classIndex may be null when the query names no class
+    QueryPlan(EventQuery query, EventQuery.Scope scope, LocalDateTime now, EventTimeIndex timeIndex,
+              EventClassIndex classIndex, ColdArchive coldArchive) {
+        this.query = query;
+        this.scope = scope;
+        LocalDateTime start = query.getFrom() != null ? query.getFrom() : LocalDateTime.MIN;
+        LocalDateTime end = query.getTo() != null ? query.getTo() : LocalDateTime.MAX;
+        if (scope == EventQuery.Scope.UPCOMING && start.isBefore(now)) start = now;
+        if (scope == EventQuery.Scope.PAST && end.isAfter(now)) end = now;
+        this.from = start;
+        this.to = end;
+        this.timeIndex = timeIndex;
+        this.classIndex = classIndex;
+        this.coldArchive = coldArchive;
+        List<ColdArchive.Block> blocks = coldArchive.blocks();
+        this.totalColdBlocks = blocks.size();
+        List<ColdArchive.Block> overlapping = new ArrayList<>();
+        if (from.isBefore(to)) {
+            for (ColdArchive.Block block : blocks) {
+                if (block.overlaps(from, to)) overlapping.add(block);
+            }
+        }
+        this.coldBlocks = overlapping;
+
+        timeCandidates = from.isBefore(to) ? timeIndex.count(from, to) : 0;
+        int byClass = 0;
+        if (classIndex != null && from.isBefore(to)) {
+            for (String className : query.getClasses()) {
+                byClass += classIndex.count(className, from, to);
+            }
+        }
+        classCandidates = byClass;
+        if (classIndex != null && classCandidates <= timeCandidates) {
+            access = Access.CLASS_INDEX;
+        } else if (from.equals(LocalDateTime.MIN) && to.equals(LocalDateTime.MAX)) {
+            access = Access.SCAN;
+        } else {
+            access = Access.TIME_INDEX;
+        }
+    }
+
+    List<TimeSlot> run() {
+        if (!from.isBefore(to)) {
+            return List.of();
+        }
+        List<TimeSlot> candidates;
+        if (access == Access.CLASS_INDEX) {
+            candidates = new ArrayList<>(classCandidates);
+            for (String className : query.getClasses()) {
+                candidates.addAll(classIndex.between(className, from, to));
+            }
+        } else {
+            candidates = timeIndex.between(from, to);
+        }
+        Stream<TimeSlot> hot = candidates.size() > PARALLEL_FILTER ? candidates.parallelStream() : candidates.stream();
+        List<TimeSlot> result = hot.filter(query).collect(Collectors.toCollection(ArrayList::new));
+        if (!coldBlocks.isEmpty()) {
+            Predicate<TimeSlot> inRange = event -> !event.getDateTime().isBefore(from) && event.getDateTime().isBefore(to);
+            result.addAll(coldArchive.parallelStream(coldBlocks).filter(inRange.and(query)).collect(Collectors.toList()));
+        }
+        if (!coldBlocks.isEmpty() || query.getClasses().size() > 1 && access == Access.CLASS_INDEX) {
+            result.sort(Comparator.comparing(TimeSlot::getDateTime));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    // What run() will do, one step per line
+    String explain() {
+        StringBuilder out = new StringBuilder();
+        String terms = query.toString();
+        out.append("Query: ").append(terms.isEmpty() ? "(everything)" : terms)
+                .append(", ").append(scope.name().toLowerCase()).append(" events\n");
+        if (!from.isBefore(to)) {
+            return out.append("Range: empty, nothing is read\n").toString();
+        }
+        out.append("Range: ").append(from.equals(LocalDateTime.MIN) ? "open" : from.format(SHOWN))
+                .append(" to ").append(to.equals(LocalDateTime.MAX) ? "open" : to.format(SHOWN)).append('\n');
+        int candidates;
+        switch (access) {
+            case CLASS_INDEX:
+                candidates = classCandidates;
+                out.append("Read: class index, ").append(candidates).append(" events (time index would read ")
+                        .append(timeCandidates).append(")\n");
+                break;
+            case TIME_INDEX:
+                candidates = timeCandidates;
+                out.append("Read: time index, ").append(candidates).append(" events");
+                if (classIndex != null) {
+                    out.append(" (class index would read ").append(classCandidates).append(')');
+                }
+                out.append('\n');
+                break;
+            default:
+                candidates = timeCandidates;
+                out.append("Read: scan of all ").append(candidates).append(" events\n");
+        }
+        List<String> filters = new ArrayList<>();
+        if (access != Access.CLASS_INDEX && !query.getClasses().isEmpty()) {
+            filters.add("class");
+        }
+        if (query.hasTextTerms()) {
+            filters.add(query.describeTextTerms());
+        }
+        if (filters.isEmpty()) {
+            out.append("Filter: none\n");
+        } else {
+            out.append("Filter: ").append(String.join(", ", filters))
+                    .append(candidates > PARALLEL_FILTER ? ", in parallel\n" : ", sequentially\n");
+        }
+        int coldEvents = coldBlocks.stream().mapToInt(ColdArchive.Block::getCount).sum();
+        out.append("Archive: ").append(coldBlocks.size()).append(" of ").append(totalColdBlocks)
+                .append(" compressed blocks in range");
+        if (!coldBlocks.isEmpty()) {
+            out.append(", ").append(coldEvents).append(" events decompressed and filtered in parallel");
+        }
+        return out.append('\n').toString();
+    }
+}
@@ -0,0 +1,215 @@
+package JavaFX;
+
+import java.lang.System.Logger.Level;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// Fires event reminders from one DelayQueue drained by one thread, rather than a timer per event.
+// Only reminders due within the next WINDOW are queued; a refill marker at the end of the window pulls
+// the next stretch from the service's time index, so the queue stays small however many events exist.
+public class ReminderScheduler implements EventChangeListener {
+    private static final System.Logger LOG = PlannerLog.getLogger(ReminderScheduler.class);
+    private static final Duration WINDOW = Duration.ofHours(24);
+    private static final Duration REFILL_LEAD = Duration.ofHours(1); // Refill this long before the window runs out
+
+    private final PlannerService plannerService;
+    private final ReminderSettings settings;
+    private final Consumer<Reminder> onReminder;
+    private final DelayQueue<Reminder> queue = new DelayQueue<>();
+    private final Set<Reminder> pending = new HashSet<>(); // Queued reminders, so overlapping fills don't double up
+    private LocalDateTime scheduledUntil;                    // Reminders firing before this are already queued
+    private long generation;                                 // Bumped by reloaded() so an in-flight refill is discarded
+    private Thread worker;
+
+    // onReminder runs on the scheduler thread
+    public ReminderScheduler(PlannerService plannerService, ReminderSettings settings, Consumer<Reminder> onReminder) {
+        this.plannerService = plannerService;
+        this.settings = settings;
+        this.onReminder = onReminder;
+    }
+
+    // Starts the thread and subscribes to the service, which triggers the first fill
+    public void start() {
+        worker = new Thread(this::drainLoop, "planner-reminders");
+        worker.setDaemon(true);
+        worker.start();
+        plannerService.addEventChangeListener(this);
+    }
+
+    public void stop() {
+        plannerService.removeEventChangeListener(this);
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    public synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    private void drainLoop() {
+        while (true) {
+            Reminder next;
+            try {
+                next = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                if (next.event == null) {
+                    refill();
+                    continue;
+                }
+                synchronized (this) {
+                    if (!pending.remove(next)) continue; // Cancelled after it was taken
+                }
+                // Deletes racing a refill can leave a stale entry behind; make sure the event still exists
+                if (stillExists(next.event)) {
+                    onReminder.accept(next);
+                }
+            } catch (RuntimeException e) {
+                LOG.log(Level.ERROR, "Reminder delivery failed", e);
+            }
+        }
+    }
+
+    private boolean stillExists(TimeSlot event) {
+        LocalDateTime time = event.getDateTime();
+        for (TimeSlot candidate : plannerService.loadEventsBetween(time, time.plusMinutes(1))) {
+            if (candidate.getClassName().equals(event.getClassName())
+                    && candidate.getEventName().equals(event.getEventName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Queues every reminder firing between the end of the last fill and the end of the new window.
+    // The service is queried without holding this lock: change callbacks arrive holding the
+    // service's lock and then take this one, so taking them in the other order could deadlock.
+    private void refill() {
+        LocalDateTime from;
+        LocalDateTime to;
+        long refillGeneration;
+        synchronized (this) {
+            refillGeneration = generation;
+            LocalDateTime now = LocalDateTime.now();
+            from = scheduledUntil == null || scheduledUntil.isBefore(now) ? now : scheduledUntil;
+            to = now.plus(WINDOW);
+            scheduledUntil = to; // Claimed up front so events added during the query are queued by eventsAdded
+        }
+        // The stream is walked under this lock, but it only reads data it picked up when it was made
+        Stream<TimeSlot> events = plannerService.eventsBetween(from, to.plus(settings.maxOffset()));
+        synchronized (this) {
+            if (refillGeneration != generation) {
+                return; // reloaded() queued a fresh refill of its own
+            }
+            events.forEach(event -> scheduleWithin(event, from, to));
+            queue.add(new Reminder(null, Duration.ZERO, to.minus(REFILL_LEAD)));
+        }
+        LOG.log(Level.DEBUG, "Reminders queued until {0}: {1} pending", to, pendingCount());
+    }
+
+    // Caller holds this lock
+    private void scheduleWithin(TimeSlot event, LocalDateTime from, LocalDateTime to) {
+        for (Duration offset : settings.offsetsFor(event)) {
+            LocalDateTime fireAt = event.getDateTime().minus(offset);
+            if (fireAt.isBefore(from) || !fireAt.isBefore(to)) continue;
+            Reminder reminder = new Reminder(event, offset, fireAt);
+            if (pending.add(reminder)) {
+                queue.add(reminder);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void eventsAdded(Collection<TimeSlot> events) {
+        if (scheduledUntil == null) return; // The first fill will pick them up
+        LocalDateTime now = LocalDateTime.now();
+        for (TimeSlot event : events) {
+            scheduleWithin(event, now, scheduledUntil);
+        }
+    }
+
+    @Override
+    public synchronized void eventsRemoved(Collection<TimeSlot> events) {
+        Set<TimeSlot> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+        removed.addAll(events);
+        queue.removeIf(reminder -> reminder.event != null && removed.contains(reminder.event));
+        pending.removeIf(reminder -> removed.contains(reminder.event));
+    }
+
+    // Start over from the time index on the scheduler thread
+    @Override
+    public synchronized void reloaded() {
+        generation++;
+        queue.clear();
+        pending.clear();
+        scheduledUntil = null;
+        queue.add(new Reminder(null, Duration.ZERO, LocalDateTime.now()));
+    }
+
+    // One reminder for one event; an event of null marks the point to refill the queue
+    public static class Reminder implements Delayed {
+        private final TimeSlot event;
+        private final Duration offset;
+        private final LocalDateTime fireAt;
+        private final long fireAtMillis;
+
+        Reminder(TimeSlot event, Duration offset, LocalDateTime fireAt) {
+            this.event = event;
+            this.offset = offset;
+            this.fireAt = fireAt;
+            this.fireAtMillis = fireAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+
+        public TimeSlot getEvent() {
+            return event;
+        }
+
+        // How long before the event this reminder was set to fire
+        public Duration getOffset() {
+            return offset;
+        }
+
+        public LocalDateTime getFireAt() {
+            return fireAt;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(fireAtMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(fireAtMillis, ((Reminder) other).fireAtMillis);
+        }
+
+        // The same event object and offset is the same reminder
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Reminder)) return false;
+            Reminder reminder = (Reminder) other;
+            return event == reminder.event && offset.equals(reminder.offset);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(event), offset);
+        }
+    }
+}
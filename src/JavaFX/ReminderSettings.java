@@ -0,0 +1,105 @@
+package JavaFX;
+
+import java.io.IOException;
+import java.lang.System.Logger.Level;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// How long before an event its reminders fire, read from reminders.txt:
+//   default|15
+//   class|Math|60,1440
+//   event|Math|Final exam|2025-05-01 09:00|10080
+// Offsets are minutes before the event. An event line beats a class line, which beats the default.
+// A missing file means one reminder 15 minutes before every event; "default|" turns reminders off.
+public class ReminderSettings {
+    private static final System.Logger LOG = PlannerLog.getLogger(ReminderSettings.class);
+    public static final String FILE = "reminders.txt";
+    private static final List<Duration> DEFAULT_OFFSETS = List.of(Duration.ofMinutes(15));
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private List<Duration> defaultOffsets = DEFAULT_OFFSETS;
+    private final Map<String, List<Duration>> classOffsets = new HashMap<>();
+    private final Map<String, List<Duration>> eventOffsets = new HashMap<>();
+
+    // Settings come from load(); a missing file gives the defaults
+    private ReminderSettings() {
+    }
+
+    public static ReminderSettings load(Path file) {
+        ReminderSettings settings = new ReminderSettings();
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(file);
+        } catch (NoSuchFileException e) {
+            return settings;
+        } catch (IOException e) {
+            LOG.log(Level.ERROR, "Could not read " + file, e);
+            return settings;
+        }
+        for (String line : lines) {
+            if (line.trim().isEmpty() || line.startsWith("#")) continue;
+            String[] parts = line.split("\\|", -1);
+            try {
+                if (parts[0].equals("default") && parts.length == 2) {
+                    settings.defaultOffsets = parseOffsets(parts[1]);
+                } else if (parts[0].equals("class") && parts.length == 3) {
+                    settings.classOffsets.put(parts[1].trim(), parseOffsets(parts[2]));
+                } else if (parts[0].equals("event") && parts.length == 5) {
+                    settings.eventOffsets.put(eventKey(parts[1].trim(), parts[2].trim(), parts[3].trim()), parseOffsets(parts[4]));
+                } else {
+                    LOG.log(Level.WARNING, () -> "Ignoring reminder setting: " + line);
+                }
+            } catch (NumberFormatException e) {
+                LOG.log(Level.WARNING, () -> "Ignoring reminder setting with a bad offset: " + line);
+            }
+        }
+        return settings;
+    }
+
+    private static List<Duration> parseOffsets(String field) {
+        List<Duration> offsets = new ArrayList<>();
+        for (String minutes : field.split(",")) {
+            if (!minutes.trim().isEmpty()) {
+                offsets.add(Duration.ofMinutes(Long.parseLong(minutes.trim())));
+            }
+        }
+        return Collections.unmodifiableList(offsets);
+    }
+
+    private static String eventKey(String className, String eventName, String dateTime) {
+        return className + "|" + eventName + "|" + dateTime;
+    }
+
+    public List<Duration> offsetsFor(TimeSlot event) {
+        List<Duration> offsets = null;
+        if (!eventOffsets.isEmpty()) {
+            offsets = eventOffsets.get(eventKey(event.getClassName(), event.getEventName(),
+                    event.getDateTime().format(DATE_TIME)));
+        }
+        if (offsets == null) {
+            offsets = classOffsets.get(event.getClassName());
+        }
+        return offsets != null ? offsets : defaultOffsets;
+    }
+
+    // The earliest any reminder can fire ahead of its event, which bounds how far ahead the scheduler must look
+    public Duration maxOffset() {
+        Duration max = Duration.ZERO;
+        for (Duration offset : defaultOffsets) max = offset.compareTo(max) > 0 ? offset : max;
+        for (List<Duration> offsets : classOffsets.values()) {
+            for (Duration offset : offsets) max = offset.compareTo(max) > 0 ? offset : max;
+        }
+        for (List<Duration> offsets : eventOffsets.values()) {
+            for (Duration offset : offsets) max = offset.compareTo(max) > 0 ? offset : max;
+        }
+        return max;
+    }
+}
@@ -0,0 +1,123 @@
+package JavaFX;
+
+import javafx.geometry.VPos;
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Label;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+
+// Shows a StatisticsService snapshot: totals, busiest classes, weekday and hour histograms, upcoming weeks
+public class StatisticsPanel {
+    private static final int CLASSES_SHOWN = 6;
+    private static final int WEEKS_SHOWN = 8;
+    private static final String[] WEEKDAYS = {"Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun"};
+    private static final Color BAR = Color.rgb(120, 190, 255, 0.8);
+    private static final Font AXIS_FONT = Font.font("System", 10);
+    private static final DateTimeFormatter WEEK_FORMAT = DateTimeFormatter.ofPattern("MMM d");
+
+    private final VBox layout = new VBox(10);
+    private final Label totalsLabel = new Label();
+    private final GridPane classGrid = new GridPane();
+    private final GridPane weekGrid = new GridPane();
+    private final Canvas weekdayChart = new Canvas(260, 90);
+    private final Canvas hourChart = new Canvas(540, 90);
+
+    public StatisticsPanel() {
+        totalsLabel.getStyleClass().add("dialog-label");
+        totalsLabel.setStyle("-fx-font-size: 16px;");
+        classGrid.setHgap(12);
+        weekGrid.setHgap(12);
+
+        GridPane columns = new GridPane();
+        columns.setHgap(30);
+        columns.add(section("Busiest classes", classGrid), 0, 0);
+        columns.add(section("Upcoming weeks", weekGrid), 1, 0);
+        columns.add(section("By weekday", weekdayChart), 2, 0);
+
+        layout.getChildren().addAll(totalsLabel, columns, section("By hour", hourChart));
+    }
+
+    public Node getNode() {
+        return layout;
+    }
+
+    public void show(StatisticsService.Snapshot snapshot) {
+        Duration lead = snapshot.getAverageLeadTime();
+        totalsLabel.setText(snapshot.getTotalEvents() + " events" +
+                (lead == null ? "" : "   |   planned " + formatLeadTime(lead) + " ahead on average"));
+
+        classGrid.getChildren().clear();
+        int row = 0;
+        for (Map.Entry<String, Integer> entry : snapshot.getEventsPerClass().entrySet()) {
+            if (row == CLASSES_SHOWN) break;
+            classGrid.addRow(row++, value(entry.getKey()), value(String.valueOf(entry.getValue())));
+        }
+
+        weekGrid.getChildren().clear();
+        row = 0;
+        for (Map.Entry<LocalDate, Integer> entry : snapshot.getUpcomingPerWeek().entrySet()) {
+            if (row == WEEKS_SHOWN) break;
+            weekGrid.addRow(row++, value(entry.getKey().format(WEEK_FORMAT)), value(String.valueOf(entry.getValue())));
+        }
+
+        int[] perHour = snapshot.getEventsPerHour();
+        String[] hourLabels = new String[24];
+        for (int hour = 0; hour < 24; hour++) {
+            hourLabels[hour] = hour % 3 == 0 ? String.valueOf(hour) : "";
+        }
+        drawBars(weekdayChart, snapshot.getEventsPerWeekday(), WEEKDAYS);
+        drawBars(hourChart, perHour, hourLabels);
+    }
+
+    private static void drawBars(Canvas canvas, int[] values, String[] labels) {
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        double width = canvas.getWidth();
+        double height = canvas.getHeight();
+        double chartHeight = height - 14;
+        gc.clearRect(0, 0, width, height);
+        int max = 1;
+        for (int value : values) {
+            max = Math.max(max, value);
+        }
+        double slot = width / values.length;
+        gc.setFont(AXIS_FONT);
+        gc.setTextAlign(TextAlignment.CENTER);
+        gc.setTextBaseline(VPos.BOTTOM);
+        for (int i = 0; i < values.length; i++) {
+            double barHeight = chartHeight * values[i] / max;
+            gc.setFill(BAR);
+            gc.fillRect(i * slot + 2, chartHeight - barHeight, slot - 4, barHeight);
+            gc.setFill(Color.WHITE);
+            gc.fillText(labels[i], i * slot + slot / 2, height);
+        }
+    }
+
+    private static String formatLeadTime(Duration lead) {
+        long days = lead.toDays();
+        long hours = lead.minusDays(days).toHours();
+        return days > 0 ? days + "d " + hours + "h" : hours + "h " + lead.minusHours(lead.toHours()).toMinutes() + "m";
+    }
+
+    private static VBox section(String title, Node content) {
+        Label label = new Label(title);
+        label.getStyleClass().add("dialog-label");
+        label.setStyle("-fx-font-weight: bold;");
+        return new VBox(6, label, content);
+    }
+
+    private static Label value(String text) {
+        Label label = new Label(text);
+        label.getStyleClass().add("dialog-label");
+        return label;
+    }
+}
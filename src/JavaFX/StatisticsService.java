@@ -0,0 +1,165 @@
+package JavaFX;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collector;
+
+// Running aggregates over every upcoming and archived event. The first registration counts everything
+// with a parallel pass; after that each add or remove adjusts the totals, so a snapshot is always cheap.
+public class StatisticsService implements EventChangeListener {
+    private final PlannerService plannerService;
+    private volatile Runnable onChange = () -> { };
+    private Totals totals = new Totals();
+
+    public StatisticsService(PlannerService plannerService) {
+        this.plannerService = plannerService;
+    }
+
+    // Called from whichever thread wrote the change
+    public void setOnChange(Runnable onChange) {
+        this.onChange = onChange;
+    }
+
+    public synchronized Snapshot snapshot() {
+        return new Snapshot(totals);
+    }
+
+    @Override
+    public void reloaded() {
+        Totals fresh = plannerService.collectAllEvents(Collector.of(Totals::new, Totals::add, Totals::merge));
+        synchronized (this) {
+            totals = fresh;
+        }
+        onChange.run();
+    }
+
+    @Override
+    public void eventsAdded(Collection<TimeSlot> events) {
+        synchronized (this) {
+            events.forEach(event -> totals.add(event, 1));
+        }
+        onChange.run();
+    }
+
+    @Override
+    public void eventsRemoved(Collection<TimeSlot> events) {
+        synchronized (this) {
+            events.forEach(event -> totals.add(event, -1));
+        }
+        onChange.run();
+    }
+
+    // Archiving doesn't change any of the totals
+    @Override
+    public void eventsArchived(Collection<TimeSlot> events) {
+    }
+
+    // Mutable totals; one per fork while rebuilding, merged into one at the end
+    private static class Totals {
+        long events;
+        final Map<String, Integer> perClass = new HashMap<>();
+        final int[] perWeekday = new int[7];
+        final int[] perHour = new int[24];
+        final TreeMap<LocalDate, Integer> perWeek = new TreeMap<>(); // Keyed by Monday
+        long leadTimeMinutes;
+        long leadTimeEvents;
+
+        void add(TimeSlot event) {
+            add(event, 1);
+        }
+
+        void add(TimeSlot event, int delta) {
+            LocalDateTime time = event.getDateTime();
+            if (time == null) return;
+            events += delta;
+            perClass.merge(event.getClassName(), delta, StatisticsService::sumOrRemove);
+            perWeekday[time.getDayOfWeek().getValue() - 1] += delta;
+            perHour[time.getHour()] += delta;
+            perWeek.merge(time.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)), delta,
+                    StatisticsService::sumOrRemove);
+            if (event.getCreatedAt() != null && !event.getCreatedAt().isAfter(time)) {
+                leadTimeMinutes += delta * Duration.between(event.getCreatedAt(), time).toMinutes();
+                leadTimeEvents += delta;
+            }
+        }
+
+        Totals merge(Totals other) {
+            events += other.events;
+            other.perClass.forEach((name, count) -> perClass.merge(name, count, StatisticsService::sumOrRemove));
+            for (int i = 0; i < 7; i++) perWeekday[i] += other.perWeekday[i];
+            for (int i = 0; i < 24; i++) perHour[i] += other.perHour[i];
+            other.perWeek.forEach((week, count) -> perWeek.merge(week, count, StatisticsService::sumOrRemove));
+            leadTimeMinutes += other.leadTimeMinutes;
+            leadTimeEvents += other.leadTimeEvents;
+            return this;
+        }
+    }
+
+    // Drops keys whose count falls to zero so removed classes and emptied weeks disappear
+    private static Integer sumOrRemove(Integer a, Integer b) {
+        int sum = a + b;
+        return sum <= 0 ? null : sum;
+    }
+
+    // Immutable copy of the totals at one moment
+    public static class Snapshot {
+        private final long totalEvents;
+        private final Map<String, Integer> eventsPerClass;
+        private final int[] eventsPerWeekday;
+        private final int[] eventsPerHour;
+        private final Map<LocalDate, Integer> upcomingPerWeek;
+        private final Duration averageLeadTime;
+
+        private Snapshot(Totals totals) {
+            totalEvents = totals.events;
+            Map<String, Integer> classes = new LinkedHashMap<>();
+            totals.perClass.entrySet().stream()
+                    .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                    .forEach(entry -> classes.put(entry.getKey(), entry.getValue()));
+            eventsPerClass = Collections.unmodifiableMap(classes);
+            eventsPerWeekday = totals.perWeekday.clone();
+            eventsPerHour = totals.perHour.clone();
+            LocalDate thisWeek = LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            upcomingPerWeek = Collections.unmodifiableMap(new TreeMap<>(totals.perWeek.tailMap(thisWeek, true)));
+            averageLeadTime = totals.leadTimeEvents == 0 ? null
+                    : Duration.ofMinutes(totals.leadTimeMinutes / totals.leadTimeEvents);
+        }
+
+        public long getTotalEvents() {
+            return totalEvents;
+        }
+
+        // Busiest class first
+        public Map<String, Integer> getEventsPerClass() {
+            return eventsPerClass;
+        }
+
+        // Monday first
+        public int[] getEventsPerWeekday() {
+            return eventsPerWeekday.clone();
+        }
+
+        public int[] getEventsPerHour() {
+            return eventsPerHour.clone();
+        }
+
+        // Keyed by the Monday of each week, starting with the current one
+        public Map<LocalDate, Integer> getUpcomingPerWeek() {
+            return upcomingPerWeek;
+        }
+
+        // Null until some event records when it was created
+        public Duration getAverageLeadTime() {
+            return averageLeadTime;
+        }
+    }
+}
@@ -0,0 +1,395 @@
+package JavaFX;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.System.Logger.Level;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// One planner's side of PlannerSync, kept in sync/ next to the data files. Every put and delete of an
+// event is logged as a record stamped with this replica's id, a per-replica counter and a Lamport
+// clock; records received from other planners are kept in their origin's log. The number of records
+// held per origin is this planner's version vector, so a sync only reads what the other side lacks.
+//   state.txt         replica|3f9c2a61d0b4e857, lamport|42, peer|<replica>, seen|planner.txt|size|modified, ids|uuid
+//   log-<replica>.txt counter|lamport|put|id|line  or  counter|lamport|del|id|
+// The log is attached by PlannerService as a change listener and follows every delta it reports. A
+// change it can't follow (a restore, a file rewritten by another program) marks it dirty and the next
+// sync compares the planners in full. So does a log written while unedited events got their ids some
+// other way (see ID_SCHEME).
+class SyncLog implements EventChangeListener {
+    private static final System.Logger LOG = PlannerLog.getLogger(SyncLog.class);
+    static final String DIRECTORY = "sync";
+    private static final String STATE_FILE = "state.txt";
+    private static final String[] WATCHED_FILES = {"planner.txt", "past_events.txt", "archive/index.txt"};
+    // How TimeSlot.getId() names unedited events. Logs from before "uuid" used a 64-bit string hash;
+    // their records name events by ids those events no longer have, which only a rescan sorts out.
+    private static final String ID_SCHEME = "uuid";
+
+    private final PlannerService plannerService;
+    private final Path directory;
+    private String replica;
+    private long lamport;
+    private boolean dirty;
+    private boolean attaching;
+    private boolean applying; // Remote changes are logged as received, not again as local ones
+    private final Set<String> peers = new HashSet<>();
+    private final Map<String, List<Record>> byOrigin = new HashMap<>(); // Each in counter order, from 1
+    private final Map<String, Record> winners = new HashMap<>();          // Latest record for each event id
+
+    private SyncLog(PlannerService plannerService) {
+        this.plannerService = plannerService;
+        this.directory = plannerService.getDataDirectory().resolve(DIRECTORY);
+    }
+
+    // Reads the log and starts following the service's changes; called once, by the service
+    static SyncLog attach(PlannerService plannerService) {
+        SyncLog log = new SyncLog(plannerService);
+        synchronized (plannerService) {
+            log.load();
+            log.attaching = true;
+            try {
+                plannerService.addEventChangeListener(log);
+            } finally {
+                log.attaching = false;
+            }
+        }
+        return log;
+    }
+
+    // One put or delete of an event; the last record by (lamport, replica) decides an event's state
+    static final class Record {
+        private final String origin;
+        private final long counter;
+        private final long lamport;
+        private final String id;
+        private final String line; // Null for a delete
+
+        Record(String origin, long counter, long lamport, String id, String line) {
+            this.origin = origin;
+            this.counter = counter;
+            this.lamport = lamport;
+            this.id = id;
+            this.line = line;
+        }
+
+        String getId() {
+            return id;
+        }
+
+        String getLine() {
+            return line;
+        }
+
+        boolean isDelete() {
+            return line == null;
+        }
+
+        // Ties on the clock only happen between replicas that hadn't seen each other's change
+        boolean beats(Record other) {
+            if (other == null) return true;
+            if (lamport != other.lamport) return lamport > other.lamport;
+            return origin.compareTo(other.origin) > 0;
+        }
+
+        private String format() {
+            return counter + "|" + lamport + "|" + (line == null ? "del|" + id + "|" : "put|" + id + "|" + line);
+        }
+
+        private static Record parse(String origin, String text) {
+            String[] parts = text.split("\\|", 5);
+            if (parts.length != 5) throw new IllegalArgumentException("Bad sync record: " + text);
+            return new Record(origin, Long.parseLong(parts[0]), Long.parseLong(parts[1]), parts[3],
+                    parts[2].equals("del") ? null : parts[4]);
+        }
+    }
+
+    private void load() {
+        Map<String, String> stamps = new HashMap<>();
+        String directoryOwner = null;
+        String idScheme = null;
+        try {
+            for (String line : Files.readAllLines(directory.resolve(STATE_FILE))) {
+                String[] parts = line.split("\\|", 2);
+                if (parts.length != 2) continue;
+                switch (parts[0]) {
+                    case "replica": replica = parts[1]; break;
+                    case "lamport": lamport = Long.parseLong(parts[1]); break;
+                    case "peer": peers.add(parts[1]); break;
+                    case "dirty": dirty = true; break;
+                    case "directory": directoryOwner = parts[1]; break;
+                    case "ids": idScheme = parts[1]; break;
+                    case "seen":
+                        int split = parts[1].lastIndexOf('|', parts[1].lastIndexOf('|') - 1);
+                        stamps.put(parts[1].substring(0, split), parts[1].substring(split + 1));
+                        break;
+                    default: break;
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // First sync of this planner
+        } catch (IOException | RuntimeException e) {
+            LOG.log(Level.WARNING, "Could not read " + STATE_FILE + " in " + directory + "; comparing in full next time", e);
+            dirty = true;
+        }
+        // A copied planner folder must not keep writing as the replica it was copied from
+        String here = plannerService.getDataDirectory().toAbsolutePath().normalize().toString();
+        if (replica == null || !here.equals(directoryOwner)) {
+            replica = Long.toHexString(new SecureRandom().nextLong());
+        }
+        for (String file : WATCHED_FILES) {
+            if (!stampOf(file).equals(stamps.get(file))) dirty = true;
+        }
+        if (!ID_SCHEME.equals(idScheme)) dirty = true;
+
+        try (DirectoryStream<Path> logs = Files.newDirectoryStream(directory, "log-*.txt")) {
+            for (Path file : logs) {
+                String name = file.getFileName().toString();
+                String origin = name.substring("log-".length(), name.length() - ".txt".length());
+                List<Record> records = new ArrayList<>();
+                try (BufferedReader reader = Files.newBufferedReader(file)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (line.isEmpty()) continue;
+                        Record record = Record.parse(origin, line);
+                        if (record.counter != records.size() + 1) break; // A torn write; the rest is resent
+                        records.add(record);
+                        lamport = Math.max(lamport, record.lamport);
+                        if (record.beats(winners.get(record.id))) winners.put(record.id, record);
+                    }
+                }
+                byOrigin.put(origin, records);
+            }
+        } catch (NoSuchFileException e) {
+            // No log yet
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalStateException("Could not read the sync log in " + directory, e);
+        }
+    }
+
+    // Size and modification time of a data file, to notice edits made while the planner was closed
+    private String stampOf(String file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(
+                    plannerService.getDataDirectory().resolve(file), BasicFileAttributes.class);
+            return attributes.size() + "|" + attributes.lastModifiedTime().toMillis();
+        } catch (IOException e) {
+            return "missing|0";
+        }
+    }
+
+    // Saves the clock, peers and how the data files look now, so the next start knows whether they
+    // were changed behind the log's back
+    void checkpoint() {
+        synchronized (plannerService) {
+            List<String> lines = new ArrayList<>();
+            lines.add("replica|" + replica);
+            lines.add("directory|" + plannerService.getDataDirectory().toAbsolutePath().normalize());
+            lines.add("lamport|" + lamport);
+            lines.add("ids|" + ID_SCHEME);
+            if (dirty) lines.add("dirty|1");
+            for (String peer : peers) lines.add("peer|" + peer);
+            for (String file : WATCHED_FILES) lines.add("seen|" + file + "|" + stampOf(file));
+            try {
+                Files.createDirectories(directory);
+                Path temp = directory.resolve(STATE_FILE + ".tmp");
+                Files.write(temp, lines);
+                Files.move(temp, directory.resolve(STATE_FILE), StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                LOG.log(Level.ERROR, "Could not save sync state in " + directory, e);
+            }
+        }
+    }
+
+    @Override
+    public void eventsChanged(Collection<TimeSlot> removed, Collection<TimeSlot> added) {
+        if (applying) return;
+        List<Record> records = new ArrayList<>(removed.size() + added.size());
+        Set<String> addedIds = new HashSet<>();
+        for (TimeSlot event : added) {
+            String id = event.getId();
+            addedIds.add(id);
+            records.add(newRecord(id, event.toString()));
+        }
+        for (TimeSlot event : removed) {
+            String id = event.getId();
+            if (!addedIds.contains(id)) records.add(newRecord(id, null));
+        }
+        appendOwn(records);
+    }
+
+    @Override
+    public void eventsAdded(Collection<TimeSlot> events) {
+        eventsChanged(List.of(), events);
+    }
+
+    @Override
+    public void eventsRemoved(Collection<TimeSlot> events) {
+        eventsChanged(events, List.of());
+    }
+
+    @Override
+    public void reloaded() {
+        if (!attaching && !applying) dirty = true;
+    }
+
+    private Record newRecord(String id, String line) {
+        List<Record> own = byOrigin.computeIfAbsent(replica, key -> new ArrayList<>());
+        Record record = new Record(replica, own.size() + 1, ++lamport, id, line);
+        own.add(record);
+        winners.put(id, record);
+        return record;
+    }
+
+    private void appendOwn(List<Record> records) {
+        if (records.isEmpty()) return;
+        try {
+            write(replica, records);
+        } catch (IOException e) {
+            // The records stay in memory; without them on disk the next start must compare everything
+            dirty = true;
+            LOG.log(Level.ERROR, "Could not write the sync log", e);
+        }
+    }
+
+    private void write(String origin, List<Record> records) throws IOException {
+        Files.createDirectories(directory);
+        try (BufferedWriter writer = Files.newBufferedWriter(directory.resolve("log-" + origin + ".txt"),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (Record record : records) {
+                writer.write(record.format());
+                writer.newLine();
+            }
+        }
+    }
+
+    String getReplica() {
+        return replica;
+    }
+
+    boolean isDirty() {
+        synchronized (plannerService) {
+            return dirty;
+        }
+    }
+
+    boolean knows(String peer) {
+        synchronized (plannerService) {
+            return peers.contains(peer);
+        }
+    }
+
+    // How many records this planner holds from each replica
+    Map<String, Long> vector() {
+        synchronized (plannerService) {
+            Map<String, Long> vector = new HashMap<>();
+            byOrigin.forEach((origin, records) -> vector.put(origin, (long) records.size()));
+            return vector;
+        }
+    }
+
+    // Every record the owner of the given vector hasn't seen, oldest first per replica
+    List<Record> recordsAfter(Map<String, Long> vector) {
+        synchronized (plannerService) {
+            List<Record> missing = new ArrayList<>();
+            byOrigin.forEach((origin, records) -> {
+                long seen = vector.getOrDefault(origin, 0L);
+                if (seen < records.size()) missing.addAll(records.subList((int) seen, records.size()));
+            });
+            return missing;
+        }
+    }
+
+    Record winner(String id) {
+        synchronized (plannerService) {
+            return winners.get(id);
+        }
+    }
+
+    // Logs new local records for wherever the data differs from what the log says, after changes the
+    // log couldn't follow. Returns how many records that took.
+    int rescan(Map<String, TimeSlot> events) {
+        synchronized (plannerService) {
+            List<Record> records = new ArrayList<>();
+            for (TimeSlot event : events.values()) {
+                Record known = winners.get(event.getId());
+                if (known != null && !event.toString().equals(known.line)) {
+                    records.add(newRecord(event.getId(), event.toString()));
+                }
+            }
+            for (Record known : new ArrayList<>(winners.values())) {
+                if (!known.isDelete() && !events.containsKey(known.id)) {
+                    records.add(newRecord(known.id, null));
+                }
+            }
+            appendOwn(records);
+            return records.size();
+        }
+    }
+
+    // Adds records from another planner and applies those that win, along with any plain event changes
+    // (an event id mapped to its new state, or to null to delete it). Returns how many events changed.
+    int receive(List<Record> records, Map<String, TimeSlot> changes, String description) {
+        synchronized (plannerService) {
+            plannerService.checkForExternalChanges(); // So nothing another program wrote is taken for a sync change
+            Map<String, TimeSlot> applied = new LinkedHashMap<>(changes);
+            Map<String, List<Record>> fresh = new LinkedHashMap<>();
+            for (Record record : records) {
+                List<Record> known = byOrigin.computeIfAbsent(record.origin, key -> new ArrayList<>());
+                if (record.counter != known.size() + 1) continue; // Already have it
+                known.add(record);
+                fresh.computeIfAbsent(record.origin, key -> new ArrayList<>()).add(record);
+                lamport = Math.max(lamport, record.lamport);
+                if (record.beats(winners.get(record.id))) {
+                    winners.put(record.id, record);
+                    applied.put(record.id, record.isDelete() ? null : TimeSlot.fromString(record.line));
+                }
+            }
+            try {
+                for (Map.Entry<String, List<Record>> entry : fresh.entrySet()) {
+                    write(entry.getKey(), entry.getValue());
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write the sync log in " + directory, e);
+            }
+            if (!applied.isEmpty()) {
+                applying = true;
+                try {
+                    plannerService.beginCommand(description);
+                    try {
+                        plannerService.replaceById(applied);
+                    } finally {
+                        plannerService.endCommand();
+                    }
+                } finally {
+                    applying = false;
+                }
+            }
+            return applied.size();
+        }
+    }
+
+    // After a successful sync: the peer is known and the data matches the log again
+    void synced(String peer) {
+        synchronized (plannerService) {
+            peers.add(peer);
+            dirty = false;
+        }
+        checkpoint();
+    }
+}
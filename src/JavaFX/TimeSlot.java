@@ -1,21 +1,35 @@
 package JavaFX;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.UUID;
 
 public class TimeSlot {
     private String className;
     private String eventName;
     private LocalDateTime dateTime;
     private String description;
+    private LocalDateTime createdAt; // When the event was added, if known; stored as an optional fifth field
+    private String id; // Stored as an optional sixth field once the event has been edited; see getId()
 
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
 
     public TimeSlot(String className, String eventName, LocalDateTime dateTime, String description) {
+        this(className, eventName, dateTime, description, null);
+    }
+
+    public TimeSlot(String className, String eventName, LocalDateTime dateTime, String description, LocalDateTime createdAt) {
+        this(className, eventName, dateTime, description, createdAt, null);
+    }
+
+    public TimeSlot(String className, String eventName, LocalDateTime dateTime, String description, LocalDateTime createdAt, String id) {
         this.className = className;
         this.eventName = eventName;
         this.dateTime = dateTime;
         this.description = description;
+        this.createdAt = createdAt;
+        this.id = id;
     }
 
     public String getClassName() {
@@ -34,6 +48,31 @@ public class TimeSlot {
         return description;
     }
 
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    // Identifies the event across edits and across synced planners. A new event's id comes from its
+    // line, so the same event added on two machines is one event; an edit keeps the id by storing it.
+    public String getId() {
+        return id != null ? id : contentId(toString());
+    }
+
+    public boolean hasStoredId() {
+        return id != null;
+    }
+
+    // The same event, keeping the given id when its content changes
+    public TimeSlot withId(String id) {
+        return new TimeSlot(className, eventName, dateTime, description, createdAt, id);
+    }
+
+    // A name-based UUID, an MD5 digest of the line, so different lines practically never share an id.
+    // Ids stored on edited events may be older "h" hashes; they are only names and stay valid.
+    private static String contentId(String line) {
+        return UUID.nameUUIDFromBytes(line.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
     public String getDateTimeFormatted() {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMMM d, yyyy"); // 📆 Example: "March 19, 2025"
         return dateTime != null ? dateTime.format(formatter) : "null";
@@ -47,7 +86,11 @@ public class TimeSlot {
     @Override
     public String toString() {
         String dateTimeStr = (dateTime != null) ? dateTime.format(FORMATTER) : "null";
-        return className + "|" + eventName + "|" + dateTimeStr + "|" + description;
+        String line = className + "|" + eventName + "|" + dateTimeStr + "|" + description;
+        if (id != null) {
+            return line + "|" + (createdAt != null ? createdAt.format(FORMATTER) : "") + "|" + id;
+        }
+        return createdAt != null ? line + "|" + createdAt.format(FORMATTER) : line;
     }
 
     // Parses a string into a TimeSlot object
@@ -63,12 +106,23 @@ public class TimeSlot {
         String dateTimeStr = parts[2].trim();
         String description = (parts.length > 3) ? parts[3].trim() : ""; // Handle empty descriptions
 
+        LocalDateTime dateTime;
         try {
-            LocalDateTime dateTime = LocalDateTime.parse(dateTimeStr, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
-            return new TimeSlot(className, eventName, dateTime, description);
+            dateTime = LocalDateTime.parse(dateTimeStr, FORMATTER);
         } catch (Exception e) {
             throw new IllegalArgumentException("Invalid date format in event: " + eventString, e);
         }
+
+        // Older lines have no creation time; a fifth field that isn't a date is left alone
+        LocalDateTime createdAt = null;
+        if (parts.length > 4 && !parts[4].trim().isEmpty()) {
+            try {
+                createdAt = LocalDateTime.parse(parts[4].trim(), FORMATTER);
+            } catch (Exception ignored) {
+            }
+        }
+        String id = parts.length > 5 && !parts[5].trim().isEmpty() ? parts[5].trim() : null;
+        return new TimeSlot(className, eventName, dateTime, description, createdAt, id);
     }
 
     public void setClassName(String newClassName) {
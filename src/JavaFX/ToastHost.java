@@ -0,0 +1,99 @@
+package JavaFX;
+
+import javafx.animation.Animation;
+import javafx.animation.FadeTransition;
+import javafx.animation.PauseTransition;
+import javafx.animation.SequentialTransition;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+import javafx.util.Duration;
+
+import java.util.function.Consumer;
+
+// Stack of small cards in the bottom-right corner that fade out on their own. Sits above the views
+// without taking clicks outside its cards, so it never blocks the app.
+public class ToastHost {
+    private static final int MAX_VISIBLE = 4;
+    private static final Duration SHOW_FOR = Duration.seconds(8);
+
+    private final VBox stack = new VBox(8);
+    private final Label overflowLabel = new Label();
+    private final Consumer<Animation> player;
+    private int overflow;
+
+    // Animations go through the player so the performance overlay can track them
+    public ToastHost(Consumer<Animation> player) {
+        this.player = player;
+        stack.setAlignment(Pos.BOTTOM_RIGHT);
+        stack.setPadding(new Insets(16));
+        stack.setPickOnBounds(false);
+        stack.setMaxSize(300, Double.MAX_VALUE);
+        StackPane.setAlignment(stack, Pos.BOTTOM_RIGHT);
+
+        overflowLabel.getStyleClass().add("card-label-value");
+        overflowLabel.setStyle("-fx-background-color: rgba(40, 40, 40, 0.75); -fx-background-radius: 10; -fx-padding: 4 10;");
+        overflowLabel.setOnMouseClicked(e -> clearOverflow());
+    }
+
+    public Node getNode() {
+        return stack;
+    }
+
+    // Must be called on the FX thread; onClick may be null
+    public void show(String title, String message, Runnable onClick) {
+        int cards = stack.getChildren().size() - (overflow > 0 ? 1 : 0);
+        if (cards >= MAX_VISIBLE) {
+            // Bursts collapse into a counter instead of filling the window
+            overflow++;
+            overflowLabel.setText("+" + overflow + " more");
+            if (!stack.getChildren().contains(overflowLabel)) {
+                stack.getChildren().add(0, overflowLabel);
+            }
+            return;
+        }
+
+        Label titleLabel = new Label(title);
+        titleLabel.getStyleClass().add("card-label-key");
+        Label messageLabel = new Label(message);
+        messageLabel.getStyleClass().add("card-label-value");
+        messageLabel.setWrapText(true);
+
+        VBox card = new VBox(4, titleLabel, messageLabel);
+        card.getStyleClass().add("event-card");
+        card.setPadding(new Insets(10, 14, 10, 14));
+        card.setMaxWidth(280);
+        card.setOpacity(0);
+
+        FadeTransition fadeIn = new FadeTransition(Duration.millis(200), card);
+        fadeIn.setToValue(1);
+        FadeTransition fadeOut = new FadeTransition(Duration.millis(400), card);
+        fadeOut.setToValue(0);
+        SequentialTransition life = new SequentialTransition(fadeIn, new PauseTransition(SHOW_FOR), fadeOut);
+        life.setOnFinished(e -> dismiss(card));
+
+        card.setOnMouseClicked(e -> {
+            life.stop();
+            dismiss(card);
+            if (onClick != null) onClick.run();
+        });
+
+        stack.getChildren().add(card);
+        player.accept(life);
+    }
+
+    private void dismiss(Node card) {
+        stack.getChildren().remove(card);
+        if (stack.getChildren().size() == 1 && overflow > 0) {
+            clearOverflow(); // Only the counter is left
+        }
+    }
+
+    private void clearOverflow() {
+        overflow = 0;
+        stack.getChildren().remove(overflowLabel);
+    }
+}
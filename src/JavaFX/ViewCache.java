@@ -0,0 +1,72 @@
+package JavaFX;
+
+import javafx.scene.Node;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Keeps the most recently shown views alive so navigation re-binds data instead of rebuilding the scene graph
+public class ViewCache {
+    private final Map<String, View<?>> views;
+
+    public ViewCache(int capacity) {
+        // Access order turns the map into an LRU list; the eldest view is disposed once we go over capacity
+        this.views = new LinkedHashMap<>(capacity + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, View<?>> eldest) {
+                if (size() > capacity) {
+                    eldest.getValue().dispose();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // Returns the cached view for the key, building it on first use or after it was evicted
+    @SuppressWarnings("unchecked")
+    public <A> View<A> get(String key, Supplier<View<A>> builder) {
+        View<A> view = (View<A>) views.get(key);
+        if (view == null) {
+            view = builder.get();
+            views.put(key, view);
+        }
+        return view;
+    }
+
+    public void clear() {
+        views.values().forEach(View::dispose);
+        views.clear();
+    }
+
+    // A built view: its node, how to fill it with fresh data, and how to release what it registered
+    public static class View<A> {
+        private final Node node;
+        private final Consumer<A> binder;
+        private final Runnable disposer;
+
+        public View(Node node, Consumer<A> binder) {
+            this(node, binder, () -> { });
+        }
+
+        public View(Node node, Consumer<A> binder, Runnable disposer) {
+            this.node = node;
+            this.binder = binder;
+            this.disposer = disposer;
+        }
+
+        public Node getNode() {
+            return node;
+        }
+
+        public void bind(A argument) {
+            binder.accept(argument);
+        }
+
+        void dispose() {
+            disposer.run();
+        }
+    }
+}
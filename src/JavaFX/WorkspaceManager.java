@@ -0,0 +1,160 @@
+package JavaFX;
+
+import java.io.IOException;
+import java.lang.System.Logger.Level;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Named planners, each a PlannerService bound to its own data directory, listed in workspaces.txt:
+//   active|Team B
+//   Default|
+//   Team B|/home/me/planners/team-b
+// An empty path is the working directory, which is also the only workspace when the file is missing.
+// Services stay open once used so switching back is instant. Past MAX_WARM, or once the open planners
+// hold more than MAX_CACHED_EVENTS events in memory, the least recently used idle ones drop their caches.
+public class WorkspaceManager {
+    private static final System.Logger LOG = PlannerLog.getLogger(WorkspaceManager.class);
+    public static final String FILE = "workspaces.txt";
+    private static final String DEFAULT_NAME = "Default";
+    private static final int MAX_WARM = 3;
+    private static final long MAX_CACHED_EVENTS = Long.getLong("planner.workspaces.maxCachedEvents", 1_000_000);
+
+    private final Path file;
+    private final Map<String, Path> directories = new LinkedHashMap<>(); // In file order
+    // Access order makes this an LRU list with the active workspace last
+    private final Map<String, PlannerService> services = new LinkedHashMap<>(8, 0.75f, true);
+    private String activeName;
+
+    private WorkspaceManager(Path file) {
+        this.file = file;
+    }
+
+    public static WorkspaceManager load(Path file) {
+        WorkspaceManager manager = new WorkspaceManager(file);
+        String active = null;
+        try {
+            for (String line : Files.readAllLines(file)) {
+                if (line.trim().isEmpty() || line.startsWith("#")) continue;
+                String[] parts = line.split("\\|", 2);
+                if (parts.length != 2 || parts[0].trim().isEmpty()) {
+                    LOG.log(Level.WARNING, () -> "Ignoring workspace line: " + line);
+                } else if (parts[0].equals("active")) {
+                    active = parts[1].trim();
+                } else {
+                    manager.directories.put(parts[0].trim(), Paths.get(parts[1].trim()));
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // Only the working directory until a second workspace is added
+        } catch (IOException e) {
+            LOG.log(Level.ERROR, "Could not read " + file, e);
+        }
+        if (manager.directories.isEmpty()) {
+            manager.directories.put(DEFAULT_NAME, Paths.get(""));
+        }
+        manager.activeName = active != null && manager.directories.containsKey(active)
+                ? active : manager.directories.keySet().iterator().next();
+        return manager;
+    }
+
+    public synchronized List<String> getNames() {
+        return new ArrayList<>(directories.keySet());
+    }
+
+    public synchronized String getActiveName() {
+        return activeName;
+    }
+
+    // Makes the workspace active and returns its service, opening it on first use. May read files.
+    public synchronized PlannerService open(String name) {
+        Path directory = directories.get(name);
+        if (directory == null) {
+            throw new IllegalArgumentException("No workspace named " + name);
+        }
+        PlannerService service = services.get(name);
+        if (service == null) {
+            service = new PlannerService(directory);
+            services.put(name, service);
+        }
+        if (!name.equals(activeName)) {
+            activeName = name;
+            save();
+        }
+        trim();
+        return service;
+    }
+
+    // The service for a planner folder: the workspace's own if the folder is one, so two services never
+    // write the same files, otherwise a new one that isn't kept
+    public synchronized PlannerService serviceFor(Path directory) {
+        for (Map.Entry<String, Path> entry : directories.entrySet()) {
+            if (sameDirectory(entry.getValue(), directory)) {
+                return services.computeIfAbsent(entry.getKey(), name -> new PlannerService(entry.getValue()));
+            }
+        }
+        return new PlannerService(directory);
+    }
+
+    private static boolean sameDirectory(Path a, Path b) {
+        try {
+            return Files.isSameFile(a.toAbsolutePath(), b.toAbsolutePath());
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public synchronized void add(String name, Path directory) {
+        if (name == null || name.trim().isEmpty() || name.contains("|") || name.equals("active")) {
+            throw new IllegalArgumentException("Invalid workspace name: " + name);
+        }
+        if (directories.containsKey(name.trim())) {
+            throw new IllegalArgumentException("Workspace '" + name.trim() + "' already exists.");
+        }
+        directories.put(name.trim(), directory);
+        save();
+    }
+
+    // Walks idle workspaces from least recently used, trimming while there are too many warm ones or too many events
+    private void trim() {
+        long cached = 0;
+        int warm = 0;
+        for (PlannerService service : services.values()) {
+            int events = service.cachedEventCount();
+            cached += events;
+            if (events > 0) warm++;
+        }
+        Iterator<Map.Entry<String, PlannerService>> leastRecent = services.entrySet().iterator();
+        while ((warm > MAX_WARM || cached > MAX_CACHED_EVENTS) && leastRecent.hasNext()) {
+            Map.Entry<String, PlannerService> entry = leastRecent.next();
+            int events = entry.getValue().cachedEventCount();
+            if (entry.getKey().equals(activeName) || events == 0) continue;
+            entry.getValue().trimMemory();
+            cached -= events;
+            warm--;
+            LOG.log(Level.DEBUG, "Trimmed idle workspace {0} ({1} events)", entry.getKey(), events);
+        }
+    }
+
+    private void save() {
+        List<String> lines = new ArrayList<>();
+        lines.add("active|" + activeName);
+        for (Map.Entry<String, Path> entry : directories.entrySet()) {
+            lines.add(entry.getKey() + "|" + entry.getValue());
+        }
+        try {
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.write(temp, lines);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOG.log(Level.ERROR, "Could not write " + file, e);
+        }
+    }
+}
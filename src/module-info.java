@@ -6,7 +6,8 @@ module JavaFXDemo {
     requires  javafx.media;
     requires  javafx.swing;
     requires java.sql;
-    requires java.smartcardio;
+    requires java.management;
+    requires jdk.jfr;
 
     exports JavaFX;
 }
\ No newline at end of file
@@ -0,0 +1,76 @@
+package JavaFX;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Compares the batch API with one call per event on a planner.txt of a realistic size:
+//   java -cp <classes> JavaFX.BatchBenchmark [events in planner.txt] [events to add]
+// Each measurement runs on a fresh copy of the same data in a temporary directory, after one
+// unmeasured round so the JIT has compiled the paths involved. Times are wall-clock milliseconds.
+public final class BatchBenchmark {
+    private BatchBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int existing = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int added = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+        System.setProperty("planner.log.level", "WARNING");
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withSecond(0).withNano(0);
+        List<String> lines = new ArrayList<>(existing);
+        for (int i = 0; i < existing; i++) {
+            lines.add(new TimeSlot("Class" + i % 10, "Existing " + i, start.plusMinutes(i), "").toString());
+        }
+        List<TimeSlot> events = new ArrayList<>(added);
+        for (int i = 0; i < added; i++) {
+            events.add(new TimeSlot("Class" + i % 10, "Added " + i, start.plusMinutes(i), ""));
+        }
+
+        run("warm-up", lines, events);
+        System.out.printf("planner.txt with %,d events, adding %,d%n", existing, added);
+        System.out.printf("  %,d x saveEvent          %,8d ms%n", added, run("saveEvent", lines, events));
+        System.out.printf("  saveEvents(%,d events)   %,8d ms%n", added, run("saveEvents", lines, events));
+        System.out.printf("  deleteEvents(every 5th)  %,8d ms%n", run("deleteEvents", lines, events));
+    }
+
+    private static boolean everyFifth(TimeSlot event) {
+        String name = event.getEventName();
+        char last = name.charAt(name.length() - 1);
+        return last == '0' || last == '5';
+    }
+
+    private static long run(String operation, List<String> lines, List<TimeSlot> events) throws IOException {
+        Path directory = Files.createTempDirectory("planner-bench");
+        try {
+            Files.write(directory.resolve("planner.txt"), lines);
+            PlannerService service = new PlannerService(directory);
+            service.loadEvents();
+            long started = System.nanoTime();
+            switch (operation) {
+                case "saveEvent":
+                    events.forEach(service::saveEvent);
+                    break;
+                case "saveEvents":
+                    service.saveEvents(events);
+                    break;
+                case "deleteEvents":
+                    service.deleteEvents(BatchBenchmark::everyFifth);
+                    break;
+                default:
+                    events.subList(0, Math.min(100, events.size())).forEach(service::saveEvent);
+                    service.saveEvents(events);
+                    service.deleteEvents(BatchBenchmark::everyFifth);
+            }
+            return (System.nanoTime() - started) / 1_000_000;
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+}
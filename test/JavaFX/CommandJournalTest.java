@@ -0,0 +1,244 @@
+package JavaFX;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CommandJournalTest {
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 9, 0);
+
+    @TempDir
+    Path dir;
+
+    private static TimeSlot event(int i) {
+        return new TimeSlot("Math", "Event " + i, START.plusMinutes(i), "");
+    }
+
+    private static List<TimeSlot> events(int from, int to) {
+        List<TimeSlot> events = new ArrayList<>();
+        for (int i = from; i < to; i++) events.add(event(i));
+        return events;
+    }
+
+    private static List<String> lines(List<TimeSlot> events) {
+        List<String> lines = new ArrayList<>();
+        for (TimeSlot event : events) lines.add(event.toString());
+        return lines;
+    }
+
+    private long spillFiles() throws IOException {
+        return spillFiles(dir);
+    }
+
+    private static long spillFiles(Path root) {
+        if (!Files.isDirectory(root)) return 0;
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(file -> file.toString().endsWith(".cmd")).count();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Test
+    void recordsOutsideACommandAreOneStepEach() {
+        CommandJournal journal = new CommandJournal(dir);
+        journal.recordEvents(List.of(), List.of(event(1)), "Add one");
+        journal.recordEvents(List.of(event(1)), List.of(), "Delete one");
+
+        CommandJournal.Command latest = journal.takeUndo();
+        assertEquals("Delete one", latest.getDescription());
+        assertEquals(lines(List.of(event(1))), latest.getRemovedEvents());
+        journal.undone(latest);
+        assertEquals("Add one", journal.peekUndo());
+        assertEquals("Delete one", journal.peekRedo());
+    }
+
+    @Test
+    void nestedCommandsGroupIntoTheOutermost() {
+        CommandJournal journal = new CommandJournal(dir);
+        journal.begin("Import");
+        journal.recordEvents(List.of(), List.of(event(1)), "Add");
+        journal.begin("Inner");
+        journal.recordClasses(List.of(), List.of("Math"), "Add class");
+        journal.end();
+        journal.recordEvents(List.of(), List.of(event(2)), "Add");
+        journal.end();
+
+        CommandJournal.Command command = journal.takeUndo();
+        assertEquals("Import", command.getDescription());
+        assertEquals(lines(events(1, 3)), command.getAddedEvents());
+        assertEquals(List.of("Math"), command.getAddedClasses());
+        journal.undone(command);
+        assertNull(journal.peekUndo());
+    }
+
+    @Test
+    void emptyCommandsAreNotKept() {
+        CommandJournal journal = new CommandJournal(dir);
+        journal.begin("Nothing");
+        journal.recordEvents(List.of(), List.of(), "Nothing");
+        journal.end();
+        assertNull(journal.peekUndo());
+        assertNull(journal.takeUndo());
+    }
+
+    @Test
+    void aNewCommandClearsRedo() {
+        CommandJournal journal = new CommandJournal(dir);
+        journal.recordEvents(List.of(), List.of(event(1)), "First");
+        journal.undone(journal.takeUndo());
+        assertEquals("First", journal.peekRedo());
+
+        journal.recordEvents(List.of(), List.of(event(2)), "Second");
+        assertNull(journal.peekRedo());
+        assertEquals("Second", journal.peekUndo());
+    }
+
+    @Test
+    void changesMadeWhileReplayingAreNotRecorded() {
+        CommandJournal journal = new CommandJournal(dir);
+        journal.recordEvents(List.of(), List.of(event(1)), "First");
+        CommandJournal.Command command = journal.takeUndo();
+        assertFalse(journal.isRecording());
+        journal.recordEvents(List.of(event(1)), List.of(), "Undoing");
+        journal.undone(command);
+
+        assertTrue(journal.isRecording());
+        assertNull(journal.peekUndo());
+        assertEquals("First", journal.peekRedo());
+    }
+
+    @Test
+    void keepsTheLatestHundredCommands() {
+        CommandJournal journal = new CommandJournal(dir);
+        for (int i = 0; i < 105; i++) {
+            journal.recordEvents(List.of(), List.of(event(i)), "Add " + i);
+        }
+        int undone = 0;
+        CommandJournal.Command command;
+        while ((command = journal.takeUndo()) != null) {
+            journal.undone(command);
+            undone++;
+        }
+        assertEquals(100, undone);
+        assertEquals("Add 5", journal.peekRedo());
+    }
+
+    @Test
+    void largeCommandsSpillToDiskAndComeBackInOrder() throws IOException {
+        CommandJournal journal = new CommandJournal(dir);
+        journal.recordEvents(List.of(), events(0, 30_000), "First");
+        journal.recordEvents(List.of(), events(30_000, 60_000), "Second");
+        assertEquals(1, spillFiles(), "the older command goes to disk once the history passes its budget");
+
+        CommandJournal.Command second = journal.takeUndo();
+        assertEquals(lines(events(30_000, 60_000)), second.getAddedEvents());
+        journal.undone(second);
+        CommandJournal.Command first = journal.takeUndo();
+        assertEquals(lines(events(0, 30_000)), first.getAddedEvents());
+        journal.undone(first);
+    }
+
+    @Test
+    void anOpenCommandThatOutgrowsTheBudgetKeepsItsLinesInOrder() throws IOException {
+        CommandJournal journal = new CommandJournal(dir);
+        journal.begin("Import");
+        for (int start = 0; start < 120_000; start += 10_000) {
+            journal.recordEvents(List.of(), events(start, start + 10_000), "Import");
+        }
+        journal.end();
+        assertEquals(1, spillFiles());
+
+        CommandJournal.Command command = journal.takeUndo();
+        assertEquals(lines(events(0, 120_000)), command.getAddedEvents());
+        assertEquals(0, spillFiles(), "loading a command removes its file");
+        journal.undone(command);
+    }
+
+    @Test
+    void spillAllMovesEveryPayloadToDisk() throws IOException {
+        CommandJournal journal = new CommandJournal(dir);
+        journal.recordEvents(List.of(), List.of(event(1)), "First");
+        journal.recordClasses(List.of("Old"), List.of("New"), "Rename");
+        journal.spillAll();
+        assertEquals(2, spillFiles());
+
+        CommandJournal.Command rename = journal.takeUndo();
+        assertEquals(List.of("Old"), rename.getRemovedClasses());
+        assertEquals(List.of("New"), rename.getAddedClasses());
+        journal.undone(rename);
+    }
+
+    @Test
+    void removesSessionsLeftByAnEarlierRun() throws IOException {
+        Files.createDirectories(dir.resolve("old"));
+        Files.createFile(dir.resolve("old.lock"));
+        Files.write(dir.resolve("old").resolve("7.cmd"), List.of("+e Math|Old|2030-01-01 09:00|"));
+        new CommandJournal(dir);
+        assertEquals(0, spillFiles());
+        assertFalse(Files.exists(dir.resolve("old")));
+        assertFalse(Files.exists(dir.resolve("old.lock")));
+    }
+
+    @Test
+    void leavesTheSpillFilesOfAJournalStillRunning() throws IOException {
+        CommandJournal running = new CommandJournal(dir);
+        running.recordEvents(List.of(), List.of(event(1)), "First");
+        running.spillAll();
+        assertEquals(1, spillFiles());
+
+        CommandJournal other = new CommandJournal(dir);
+        other.recordEvents(List.of(), List.of(event(2)), "Other");
+        other.spillAll();
+        assertEquals(2, spillFiles(), "each journal spills into its own session");
+
+        CommandJournal.Command first = running.takeUndo();
+        assertEquals(lines(List.of(event(1))), first.getAddedEvents());
+        running.undone(first);
+        CommandJournal.Command second = other.takeUndo();
+        assertEquals(lines(List.of(event(2))), second.getAddedEvents());
+        other.undone(second);
+    }
+
+    @Test
+    void anotherServiceOnTheFolderKeepsTheUndoHistory() {
+        PlannerService service = new PlannerService(dir);
+        service.addNewClass("Math");
+        service.saveEvents(events(0, 60_000));
+        service.deleteEvents(event -> true);
+        long spilled = spillFiles(dir.resolve("planner_journal"));
+        assertTrue(spilled > 0);
+
+        new PlannerService(dir);
+        assertEquals(spilled, spillFiles(dir.resolve("planner_journal")));
+        assertEquals("Delete events", service.peekUndo());
+        service.undo();
+        assertEquals(60_000, service.loadEvents().size());
+    }
+
+    @Test
+    void serviceUndoAndRedoRevertAndReapplyAChange() {
+        PlannerService service = new PlannerService(dir);
+        service.addNewClass("Math");
+        assertTrue(service.saveEvent(event(1)));
+        assertEquals("Add event Event 1", service.peekUndo());
+
+        assertEquals("Add event Event 1", service.undo());
+        assertTrue(service.loadEvents().isEmpty());
+        assertEquals("Add event Event 1", service.redo());
+        assertEquals(lines(List.of(event(1))), lines(service.loadEvents()));
+    }
+}
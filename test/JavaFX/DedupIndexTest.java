@@ -0,0 +1,146 @@
+package JavaFX;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DedupIndexTest {
+    private static final LocalDateTime AT = LocalDateTime.of(2030, 5, 1, 9, 0);
+    private static final LocalDateTime LONG_AGO = LocalDateTime.of(2020, 5, 1, 9, 0);
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void writeClasses() throws IOException {
+        Files.write(dir.resolve("classes.txt"), List.of("Aa", "BB", "Math"));
+    }
+
+    private List<String> lines(String file) throws IOException {
+        return Files.readAllLines(dir.resolve(file));
+    }
+
+    @Test
+    void identityIsClassNameAndMinute() {
+        TimeSlot event = new TimeSlot("Math", "Exam", AT, "Room 1");
+        assertEquals(DedupIndex.identity(event), DedupIndex.identity(new TimeSlot("Math", "Exam", AT.plusSeconds(30), "Room 2")));
+        assertNotEquals(DedupIndex.identity(event), DedupIndex.identity(new TimeSlot("math", "Exam", AT, "Room 1")));
+        assertNotEquals(DedupIndex.identity(event), DedupIndex.identity(new TimeSlot("Math", "Exam", AT.plusMinutes(1), "Room 1")));
+        assertEquals(DedupIndex.key(event), DedupIndex.key(new TimeSlot("Math", "Exam", AT, "Room 2")));
+    }
+
+    @Test
+    void eventsWhoseKeysCollideAreBothSaved() {
+        TimeSlot aa = new TimeSlot("Aa", "x", AT, "");
+        TimeSlot bb = new TimeSlot("BB", "x", AT, "");
+        // "Aa" and "BB" have the same 31-based string hash, so the two keys are equal
+        assertEquals(DedupIndex.key(aa), DedupIndex.key(bb));
+
+        PlannerService service = new PlannerService(dir);
+        assertTrue(service.saveEvent(aa));
+        assertFalse(service.isDuplicate(bb));
+        assertTrue(service.saveEvent(bb));
+        assertFalse(service.saveEvent(new TimeSlot("BB", "x", AT, "again")));
+        assertEquals(2, service.loadEvents().size());
+    }
+
+    @Test
+    void findsDuplicatesInEveryStore() throws IOException {
+        Files.write(dir.resolve("planner.txt"), List.of("Math|Upcoming|2030-05-01 09:00|"));
+        Files.write(dir.resolve("past_events.txt"), List.of("Math|Archived|2020-05-01 09:00|"));
+        PlannerService service = new PlannerService(dir);
+        service.compactArchive();
+        assertEquals(1, service.getArchivedEventCount());
+
+        assertTrue(service.isDuplicate(new TimeSlot("Math", "Upcoming", AT, "")));
+        assertTrue(service.isDuplicate(new TimeSlot("Math", "Archived", LONG_AGO, "")));
+        assertFalse(service.isDuplicate(new TimeSlot("Math", "Archived", LONG_AGO.plusMinutes(1), "")));
+    }
+
+    @Test
+    void followsDeletesAndChangesMadeOutsideTheApp() throws IOException {
+        PlannerService service = new PlannerService(dir);
+        TimeSlot exam = new TimeSlot("Math", "Exam", AT, "");
+        assertTrue(service.saveEvent(exam));
+        service.deleteEvents(event -> event.getEventName().equals("Exam"));
+        assertFalse(service.isDuplicate(exam));
+        assertTrue(service.saveEvent(exam));
+
+        Files.write(dir.resolve("planner.txt"), List.of("Math|Quiz|2030-05-02 09:00|"));
+        assertFalse(service.isDuplicate(exam));
+        assertTrue(service.isDuplicate(new TimeSlot("Math", "Quiz", AT.plusDays(1), "")));
+    }
+
+    @Test
+    void saveEventsSkipsDuplicatesRepeatsAndEventsWithoutATime() {
+        PlannerService service = new PlannerService(dir);
+        service.saveEvent(new TimeSlot("Math", "Exam", AT, ""));
+        List<TimeSlot> batch = Arrays.asList(
+                new TimeSlot("Math", "Exam", AT, "already saved"),
+                new TimeSlot("Aa", "x", AT, ""),
+                new TimeSlot("Aa", "x", AT, "repeat"),
+                new TimeSlot("BB", "x", AT, "same key, different event"),
+                new TimeSlot("Math", "No time", null, ""));
+
+        assertEquals(2, service.withoutDuplicates(batch).size());
+        assertEquals(2, service.saveEvents(batch));
+        assertEquals(3, service.loadEvents().size());
+    }
+
+    @Test
+    void removeDuplicatesKeepsFirstCopiesAndCollidingEvents() throws IOException {
+        List<String> upcoming = List.of(
+                "Aa|x|2030-05-01 09:00|first",
+                "BB|x|2030-05-01 09:00|",
+                "Aa|x|2030-05-01 09:00|second",
+                "Math|Exam|2030-05-02 09:00|");
+        List<String> past = List.of("Math|Old|2020-05-01 09:00|", "Math|Old|2020-05-01 09:00|copy");
+        Files.write(dir.resolve("planner.txt"), upcoming);
+        Files.write(dir.resolve("past_events.txt"), past);
+        PlannerService service = new PlannerService(dir);
+
+        assertEquals(2, service.removeDuplicates());
+        assertEquals(List.of("Aa|x|2030-05-01 09:00|first", "BB|x|2030-05-01 09:00|", "Math|Exam|2030-05-02 09:00|"),
+                lines("planner.txt"));
+        assertEquals(List.of("Math|Old|2020-05-01 09:00|"), lines("past_events.txt"));
+
+        // Undo brings the copies back as upcoming events; the next archive pass moves past ones again
+        service.undo();
+        List<String> restored = new ArrayList<>(lines("planner.txt"));
+        restored.addAll(lines("past_events.txt"));
+        List<String> original = new ArrayList<>(upcoming);
+        original.addAll(past);
+        assertEquals(new HashSet<>(original), new HashSet<>(restored));
+        assertEquals(original.size(), restored.size());
+    }
+
+    @Test
+    void removeDuplicatesKeepsTheOrderOfALargeFile() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            lines.add("Math|Event " + i + "|2030-05-01 09:00|");
+            if (i % 3 == 0) lines.add("Math|Event " + i + "|2030-05-01 09:00|copy");
+        }
+        Files.write(dir.resolve("planner.txt"), lines);
+        assertEquals(1000, new PlannerService(dir).removeDuplicates());
+        List<String> kept = lines("planner.txt");
+        assertEquals(3000, kept.size());
+        for (int i = 0; i < kept.size(); i++) {
+            assertEquals("Math|Event " + i + "|2030-05-01 09:00|", kept.get(i));
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package JavaFX;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventImporterTest {
+    @TempDir
+    Path dir;
+
+    private static List<String> rows(int count) {
+        List<String> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add("Math,Event " + i + ",2031-03-03 09:00,");
+        }
+        return rows;
+    }
+
+    private EventImporter.ImportResult importCsv(List<String> lines) throws IOException {
+        Path file = dir.resolve("events.csv");
+        Files.write(file, lines);
+        return new EventImporter(new PlannerService(dir)).importFile(file);
+    }
+
+    @Test
+    void aQuoteInsideAFieldIsAnOrdinaryCharacter() throws IOException {
+        List<String> lines = new ArrayList<>(List.of("class,event,date,description", "Math,5\" ruler,2031-03-03 08:00,"));
+        lines.addAll(rows(2000));
+        EventImporter.ImportResult result = importCsv(lines);
+        assertEquals(2001, result.getImported());
+        assertEquals(0, result.getRejected());
+    }
+
+    @Test
+    void aQuotedFieldMaySpanLines() throws IOException {
+        EventImporter.ImportResult result = importCsv(List.of(
+                "Math,Exam,2031-03-03 09:00,\"Room 12",
+                "bring a \"\"calculator\"\"\"",
+                "Math,Quiz,2031-03-04 09:00,"));
+        assertEquals(2, result.getImported());
+        List<String> events = Files.readAllLines(dir.resolve("planner.txt"));
+        assertTrue(events.get(0).startsWith("Math|Exam|2031-03-03 09:00|Room 12 bring a \"calculator\""), events.get(0));
+    }
+
+    @Test
+    void anUnclosedQuoteCostsOneRecord() throws IOException {
+        List<String> lines = new ArrayList<>(List.of("Math,\"Exam,2031-03-03 08:00,"));
+        lines.addAll(rows(2000));
+        EventImporter.ImportResult result = importCsv(lines);
+        assertEquals(1, result.getRejected());
+        assertEquals(2000, result.getImported());
+    }
+
+    @Test
+    void parsesQuotedFieldsAndDoubledQuotes() {
+        assertEquals(List.of("a", "5\" ruler", "x \"y\"", ""), EventImporter.parseCsvRecord("a,5\" ruler,\"x \"\"y\"\"\","));
+        assertEquals(List.of("a,b", "c"), EventImporter.parseCsvRecord("\"a,b\",c"));
+        assertFalse(EventImporter.quoteOpenAfter("a,5\" ruler,b", false));
+        assertTrue(EventImporter.quoteOpenAfter("a,\"open", false));
+        assertTrue(EventImporter.quoteOpenAfter("still \"\" open", true));
+        assertFalse(EventImporter.quoteOpenAfter("closed\",b", true));
+    }
+
+    @Test
+    void unescapesIcsTextInOnePass() {
+        assertEquals("C:\\new", EventImporter.unescapeIcs("C:\\\\new"));
+        assertEquals("line one line two", EventImporter.unescapeIcs("line one\\nline two"));
+        assertEquals("a,b;c", EventImporter.unescapeIcs("a\\,b\\;c"));
+        assertEquals("\\x", EventImporter.unescapeIcs("\\x"));
+        assertEquals("end\\", EventImporter.unescapeIcs("end\\"));
+    }
+}
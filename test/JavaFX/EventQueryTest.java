@@ -0,0 +1,123 @@
+package JavaFX;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventQueryTest {
+    private static final LocalDateTime AT = LocalDateTime.of(2025, 3, 10, 9, 30);
+
+    private static TimeSlot event(String className, String name, LocalDateTime time, String description) {
+        return new TimeSlot(className, name, time, description);
+    }
+
+    private static String parseError(String text) {
+        return assertThrows(IllegalArgumentException.class, () -> EventQuery.parse(text)).getMessage();
+    }
+
+    @Test
+    void parsesEveryTerm() {
+        EventQuery query = EventQuery.parse("class:Math after:2025-01-01 before:2025-06-01T12:00 name:Exam text:Room");
+        assertEquals(List.of("Math"), query.getClasses());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 0, 0), query.getFrom());
+        assertEquals(LocalDateTime.of(2025, 6, 1, 12, 0), query.getTo());
+        assertEquals("name:exam text:room", query.describeTextTerms());
+        assertTrue(query.hasTextTerms());
+    }
+
+    @Test
+    void onIsOneDayAndNarrowsOtherBounds() {
+        EventQuery day = EventQuery.parse("on:2025-03-10");
+        assertEquals(LocalDateTime.of(2025, 3, 10, 0, 0), day.getFrom());
+        assertEquals(LocalDateTime.of(2025, 3, 11, 0, 0), day.getTo());
+
+        EventQuery narrowed = EventQuery.parse("after:2025-03-10T08:00 on:2025-03-10 before:2025-03-10T18:00 after:2025-01-01");
+        assertEquals(LocalDateTime.of(2025, 3, 10, 8, 0), narrowed.getFrom());
+        assertEquals(LocalDateTime.of(2025, 3, 10, 18, 0), narrowed.getTo());
+    }
+
+    @Test
+    void quotesKeepSpacesTogether() {
+        EventQuery query = EventQuery.parse("class:\"Computer Science\" \"final exam\"");
+        assertEquals(List.of("Computer Science"), query.getClasses());
+        assertEquals("text:\"final exam\"", query.describeTextTerms());
+    }
+
+    @Test
+    void keysIgnoreCaseAndRepeatedClassesAreKeptOnce() {
+        EventQuery query = EventQuery.parse("CLASS:Math class:math Class:Physics");
+        assertEquals(List.of("Math", "Physics"), query.getClasses());
+    }
+
+    @Test
+    void wordsWithAColonThatIsNotAKeyAreText() {
+        assertEquals("text:09:30", EventQuery.parse("09:30").describeTextTerms());
+        assertEquals("text::x", EventQuery.parse(":x").describeTextTerms());
+    }
+
+    @Test
+    void rejectsTermsItDoesNotUnderstand() {
+        assertTrue(parseError("room:12").startsWith("Unknown filter room:"));
+        assertEquals("Missing closing quote", parseError("class:\"Computer Science"));
+        assertEquals("Nothing after class:", parseError("class:"));
+        assertEquals("Nothing after name:", parseError("name:\"\""));
+        assertEquals("Not a date: 2025-13-01 (use yyyy-MM-dd)", parseError("on:2025-13-01"));
+        assertEquals("Not a date: tomorrow (use yyyy-MM-dd or yyyy-MM-ddTHH:mm)", parseError("after:tomorrow"));
+    }
+
+    @Test
+    void emptyQueryMatchesEverything() {
+        EventQuery query = EventQuery.parse("   ");
+        assertTrue(query.isEmpty());
+        assertEquals("", query.toString());
+        assertTrue(query.test(event("Math", "Exam", AT, "")));
+        assertTrue(query.test(event("Math", "Exam", null, null)));
+        assertFalse(EventQuery.parse("exam").isEmpty());
+    }
+
+    @Test
+    void afterIsInclusiveAndBeforeExclusive() {
+        assertTrue(EventQuery.parse("after:2025-03-10T09:30").test(event("Math", "Exam", AT, "")));
+        assertFalse(EventQuery.parse("after:2025-03-10T09:31").test(event("Math", "Exam", AT, "")));
+        assertFalse(EventQuery.parse("before:2025-03-10T09:30").test(event("Math", "Exam", AT, "")));
+        assertTrue(EventQuery.parse("before:2025-03-10T09:31").test(event("Math", "Exam", AT, "")));
+
+        EventQuery day = EventQuery.parse("on:2025-03-10");
+        assertTrue(day.test(event("Math", "Exam", AT.toLocalDate().atStartOfDay(), "")));
+        assertFalse(day.test(event("Math", "Exam", AT.toLocalDate().plusDays(1).atStartOfDay(), "")));
+        assertFalse(day.test(event("Math", "Exam", null, "")));
+    }
+
+    @Test
+    void classesIgnoreCaseAndMatchAnyOfThem() {
+        EventQuery query = EventQuery.parse("class:math class:Physics");
+        assertTrue(query.test(event("Math", "Exam", AT, "")));
+        assertTrue(query.test(event("PHYSICS", "Lab", AT, "")));
+        assertFalse(query.test(event("Mathematics", "Exam", AT, "")));
+    }
+
+    @Test
+    void textMatchesNameOrDescriptionAndNameOnlyTheName() {
+        TimeSlot exam = event("Math", "Final Exam", AT, "Room 12");
+        assertTrue(EventQuery.parse("exam").test(exam));
+        assertTrue(EventQuery.parse("text:ROOM").test(exam));
+        assertFalse(EventQuery.parse("name:room").test(exam));
+        assertTrue(EventQuery.parse("name:final exam").test(exam));
+        assertFalse(EventQuery.parse("exam quiz").test(exam));
+        assertFalse(EventQuery.parse("room").test(event("Math", "Exam", AT, null)));
+    }
+
+    @Test
+    void toStringIsCanonicalAndParsesBack() {
+        EventQuery query = EventQuery.parse("text:Lab on:2025-03-10 class:\"Computer Science\" name:Exam");
+        String canonical = "class:\"Computer Science\" after:2025-03-10T00:00 before:2025-03-11T00:00 name:exam text:lab";
+        assertEquals(canonical, query.toString());
+        assertEquals(canonical, EventQuery.parse(canonical).toString());
+    }
+}
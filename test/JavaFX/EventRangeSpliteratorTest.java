@@ -0,0 +1,137 @@
+package JavaFX;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Every event gets its own minute, since the two paths may order events of the same minute differently
+class EventRangeSpliteratorTest {
+    private static final LocalDateTime NOW = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+    private static final LocalDateTime OLD = NOW.minusDays(400); // Archived events start here, 7 minutes apart
+    private static final int ARCHIVED = 20_000;
+
+    @TempDir
+    Path dir;
+
+    private PlannerService service;
+
+    @BeforeEach
+    void buildPlanner() throws IOException {
+        Files.write(dir.resolve("classes.txt"), List.of("Math", "Physics"));
+        List<String> past = new ArrayList<>();
+        for (int i = 0; i < ARCHIVED; i++) {
+            past.add(event("Archived", i, OLD.plusMinutes(7L * i)).toString());
+        }
+        for (int i = 0; i < 1000; i++) {
+            past.add(event("Recent", i, NOW.minusDays(30).plusMinutes(7L * i + 1)).toString());
+        }
+        Files.write(dir.resolve("past_events.txt"), past);
+        service = new PlannerService(dir);
+        service.compactArchive();
+        assertEquals(ARCHIVED, service.getArchivedEventCount());
+
+        // Old events in planner.txt, between the archived ones, so walks have to merge both
+        List<TimeSlot> added = new ArrayList<>();
+        for (int i = 0; i < 6000; i++) {
+            added.add(event("Late", i, OLD.plusMinutes(7L * i + 3)));
+        }
+        for (int i = 0; i < 5000; i++) {
+            added.add(event("Upcoming", i, NOW.plusDays(1).plusMinutes(5L * i)));
+        }
+        service.appendEvents(added);
+    }
+
+    private static TimeSlot event(String name, int i, LocalDateTime time) {
+        return new TimeSlot(i % 2 == 0 ? "Math" : "Physics", name + " " + i, time, "");
+    }
+
+    private static List<String> lines(Stream<TimeSlot> events) {
+        return events.map(TimeSlot::toString).collect(Collectors.toList());
+    }
+
+    private List<String> expected(LocalDateTime from, LocalDateTime to) {
+        return lines(service.loadEventsBetween(from, to).stream());
+    }
+
+    private void assertSameAsList(LocalDateTime from, LocalDateTime to) {
+        List<String> expected = expected(from, to);
+        assertEquals(expected, lines(service.eventsBetween(from, to)), "sequential " + from + " - " + to);
+        assertEquals(expected, lines(service.eventsBetween(from, to).parallel()), "parallel " + from + " - " + to);
+    }
+
+    @Test
+    void wholeHistoryMatchesLoadEventsBetween() {
+        LocalDateTime from = OLD.minusDays(1);
+        LocalDateTime to = NOW.plusYears(1);
+        assertEquals(ARCHIVED + 1000 + 11_000, expected(from, to).size());
+        assertSameAsList(from, to);
+    }
+
+    @Test
+    void partialRangesMatchLoadEventsBetween() {
+        assertSameAsList(OLD.plusDays(10), OLD.plusDays(60));            // Inside the archive, cutting blocks
+        assertSameAsList(OLD.plusMinutes(100), OLD.plusMinutes(200));     // Inside one block
+        assertSameAsList(OLD.plusDays(90), NOW.plusDays(2));              // Archive, past_events.txt and upcoming
+        assertSameAsList(NOW.minusDays(31), NOW.plusDays(30));            // No archived events at all
+    }
+
+    @Test
+    void fromIsInclusiveAndToExclusive() {
+        LocalDateTime first = OLD.plusMinutes(7 * 100);
+        List<String> events = lines(service.eventsBetween(first, first.plusMinutes(7)));
+        assertEquals(List.of(event("Archived", 100, first).toString(), event("Late", 100, first.plusMinutes(3)).toString()), events);
+        assertSameAsList(first, first.plusMinutes(7));
+    }
+
+    @Test
+    void emptyAndReversedRangesHaveNoEvents() {
+        assertEquals(0, service.eventsBetween(NOW, NOW).count());
+        assertEquals(0, service.eventsBetween(NOW.plusDays(1), NOW).count());
+        assertEquals(0, service.eventsBetween(OLD.minusDays(5), OLD.minusDays(1)).count());
+        assertEquals(0, service.eventsBetween(NOW.plusDays(1), NOW).parallel().count());
+    }
+
+    @Test
+    void splitsCoverTheRangeOnceInOrder() {
+        LocalDateTime from = OLD.minusDays(1);
+        LocalDateTime to = NOW.plusYears(1);
+        Spliterator<TimeSlot> whole = service.eventsBetweenSpliterator(from, to);
+        assertTrue(whole.hasCharacteristics(Spliterator.ORDERED | Spliterator.SORTED | Spliterator.NONNULL));
+        assertNotNull(whole.getComparator());
+
+        List<Spliterator<TimeSlot>> parts = new ArrayList<>();
+        split(whole, parts);
+        assertTrue(parts.size() > 2, "a range this size splits more than once");
+        List<String> joined = new ArrayList<>();
+        for (Spliterator<TimeSlot> part : parts) {
+            part.forEachRemaining(event -> joined.add(event.toString()));
+        }
+        assertEquals(expected(from, to), joined);
+    }
+
+    // In order: the prefix trySplit hands out comes before what stays behind
+    private static void split(Spliterator<TimeSlot> spliterator, List<Spliterator<TimeSlot>> parts) {
+        Spliterator<TimeSlot> prefix = spliterator.trySplit();
+        if (prefix != null) {
+            split(prefix, parts);
+            split(spliterator, parts);
+        } else {
+            parts.add(spliterator);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package JavaFX;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PlannerCliTest {
+    @TempDir
+    Path dir;
+
+    private int run(String command, String... args) throws IOException {
+        return PlannerCli.run(new PlannerService(dir), command, List.of(args));
+    }
+
+    private void assertRefused(String command, String... args) {
+        assertThrows(PlannerCli.UsageException.class, () -> run(command, args));
+    }
+
+    private List<String> lines(String file) throws IOException {
+        return Files.readAllLines(dir.resolve(file));
+    }
+
+    @Test
+    void addWritesOneLineAndItsClass() throws IOException {
+        assertEquals(0, run("add", "Math", "Exam", "2031-03-03 09:00", "Room 12"));
+        List<String> events = lines("planner.txt");
+        assertEquals(1, events.size());
+        assertTrue(events.get(0).startsWith("Math|Exam|2031-03-03 09:00|Room 12|"), events.get(0));
+        assertEquals(List.of("Math"), lines("classes.txt"));
+    }
+
+    @Test
+    void addRejectsValuesThatWouldBreakTheLine() throws IOException {
+        assertRefused("add", "Ma|th", "Exam", "2031-03-03 09:00");
+        assertRefused("add", "Math", "Exam\ntwo", "2031-03-03 09:00");
+        assertRefused("add", "Math", "Exam\r", "2031-03-03 09:00");
+        assertRefused("add", "Math", "Exam", "2031-03-03 09:00", "a|b");
+        assertRefused("add", "Math", "Exam", "2031-03-03 09:00", "line\nbreak");
+        assertRefused("add", "", "Exam", "2031-03-03 09:00");
+        assertRefused("add", "Math", "  ", "2031-03-03 09:00");
+        assertTrue(lines("planner.txt").isEmpty());
+        assertTrue(lines("classes.txt").isEmpty());
+    }
+
+    @Test
+    void renameClassRejectsValuesThatWouldBreakTheLine() throws IOException {
+        assertEquals(0, run("add", "Math", "Exam", "2031-03-03 09:00"));
+        assertRefused("rename-class", "Math", "Ma|th");
+        assertRefused("rename-class", "Math", " ");
+        assertEquals(List.of("Math"), lines("classes.txt"));
+    }
+}
@@ -0,0 +1,125 @@
+package JavaFX;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PlannerServiceTest {
+    private static final LocalDateTime MORNING = LocalDateTime.of(2031, 3, 3, 9, 0);
+    private static final LocalDateTime AFTERNOON = LocalDateTime.of(2031, 3, 3, 14, 0);
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void writeClasses() throws IOException {
+        Files.write(dir.resolve("classes.txt"), List.of("Math"));
+    }
+
+    // Class, name, time and description, sorted: an edit stores the event's id and may move it to the
+    // end of planner.txt
+    private List<String> lines(List<TimeSlot> events) {
+        List<String> lines = new ArrayList<>();
+        for (TimeSlot event : events) {
+            lines.add(new TimeSlot(event.getClassName(), event.getEventName(), event.getDateTime(), event.getDescription()).toString());
+        }
+        Collections.sort(lines);
+        return lines;
+    }
+
+    private TimeSlot find(PlannerService service, LocalDateTime time) {
+        return service.loadEvents().stream().filter(event -> event.getDateTime().equals(time)).findFirst().orElseThrow();
+    }
+
+    @Test
+    void updateEventChangesOnlyThatEventOfTheDay() {
+        PlannerService service = new PlannerService(dir);
+        service.saveEvent(new TimeSlot("Math", "Lecture", MORNING, ""));
+        service.saveEvent(new TimeSlot("Math", "Lecture", AFTERNOON, ""));
+
+        service.updateEvent(find(service, AFTERNOON), new TimeSlot("Math", "Lecture", AFTERNOON.plusHours(1), ""));
+        assertEquals(List.of("Math|Lecture|2031-03-03 09:00|", "Math|Lecture|2031-03-03 15:00|"), lines(service.loadEvents()));
+    }
+
+    @Test
+    void updateEventFindsAnEventReadAgainFromTheFile() throws IOException {
+        Files.write(dir.resolve("planner.txt"), List.of("Math|Lecture|2031-03-03 09:00|", "Math|Lecture|2031-03-03 14:00|"));
+        PlannerService service = new PlannerService(dir);
+        TimeSlot stale = TimeSlot.fromString("Math|Lecture|2031-03-03 14:00|");
+
+        service.updateEvent(stale, new TimeSlot("Math", "Lecture", AFTERNOON.plusHours(1), "moved"));
+        assertEquals(List.of("Math|Lecture|2031-03-03 09:00|", "Math|Lecture|2031-03-03 15:00|moved"), lines(service.loadEvents()));
+    }
+
+    @Test
+    void updateEventChangesOneOfTwoIdenticalLines() throws IOException {
+        Files.write(dir.resolve("planner.txt"), List.of("Math|Lecture|2031-03-03 09:00|", "Math|Lecture|2031-03-03 09:00|"));
+        PlannerService service = new PlannerService(dir);
+
+        service.updateEvent(TimeSlot.fromString("Math|Lecture|2031-03-03 09:00|"), new TimeSlot("Math", "Lecture", AFTERNOON, ""));
+        assertEquals(List.of("Math|Lecture|2031-03-03 09:00|", "Math|Lecture|2031-03-03 14:00|"), lines(service.loadEvents()));
+    }
+
+    @Test
+    void updateEventOfAnEventNoLongerThereChangesNothing() throws IOException {
+        Files.write(dir.resolve("planner.txt"), List.of("Math|Lecture|2031-03-03 09:00|"));
+        PlannerService service = new PlannerService(dir);
+        List<String> before = lines(service.loadEvents());
+
+        service.updateEvent(new TimeSlot("Math", "Lecture", AFTERNOON, ""), new TimeSlot("Math", "Lecture", AFTERNOON.plusHours(1), ""));
+        assertEquals(before, lines(service.loadEvents()));
+        assertNull(service.peekUndo());
+    }
+
+    @Test
+    void undoingAnUpdateBringsTheOldEventBack() {
+        PlannerService service = new PlannerService(dir);
+        service.saveEvent(new TimeSlot("Math", "Lecture", MORNING, ""));
+        service.saveEvent(new TimeSlot("Math", "Lecture", AFTERNOON, ""));
+        List<String> before = lines(service.loadEvents());
+
+        service.updateEvent(find(service, MORNING), new TimeSlot("Math", "Seminar", MORNING, ""));
+        service.undo();
+        assertEquals(before, lines(service.loadEvents()));
+    }
+
+    @Test
+    void moveEventToFutureMovesOnlyThatPastEvent() throws IOException {
+        LocalDateTime old = LocalDateTime.of(2020, 3, 3, 9, 0);
+        TimeSlot lastWeek = new TimeSlot("Math", "Lecture", LocalDateTime.now().minusDays(7).withHour(9).withMinute(0).withSecond(0).withNano(0), "");
+        Files.write(dir.resolve("past_events.txt"), List.of(lastWeek.toString(),
+                "Math|Lecture|2020-03-03 09:00|", "Math|Lecture|2020-03-10 09:00|", "Math|Lecture|2020-03-17 09:00|"));
+        PlannerService service = new PlannerService(dir);
+        service.compactArchive();
+        assertEquals(3, service.getArchivedEventCount());
+
+        TimeSlot recent = service.loadPastEvents().get(0);
+        service.moveEventToFuture(recent, new TimeSlot("Math", "Lecture", AFTERNOON, ""));
+        assertEquals(3, service.getArchivedEventCount());
+        assertEquals(List.of(), service.loadPastEvents());
+
+        TimeSlot archived = service.loadEventsBetween(old, old.plusMinutes(1)).get(0);
+        service.moveEventToFuture(archived, new TimeSlot("Math", "Lecture", MORNING, ""));
+        assertEquals(2, service.getArchivedEventCount());
+        assertEquals(List.of("Math|Lecture|2031-03-03 09:00|", "Math|Lecture|2031-03-03 14:00|"), lines(service.loadEvents()));
+        assertEquals(List.of("Math|Lecture|2020-03-10 09:00|", "Math|Lecture|2020-03-17 09:00|"),
+                lines(service.loadEventsBetween(old, old.plusDays(30))));
+
+        // Undo puts the archived lecture back; the next archive pass moves it out of planner.txt again
+        assertEquals("Move event Lecture", service.undo());
+        service.movePastEventsToStorage();
+        assertEquals(List.of("Math|Lecture|2031-03-03 14:00|"), lines(service.loadEvents()));
+        assertEquals(3, lines(service.loadEventsBetween(old, old.plusDays(30))).size());
+    }
+}